@@ -0,0 +1,41 @@
+package ro.chess.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Porneste benchmark-urile JMH.
+ *
+ *   java -jar chess-bench/target/benchmarks.jar               (toate)
+ *   java -jar chess-bench/target/benchmarks.jar Codec -f 1    (doar cele care se potrivesc)
+ *
+ * Accepta aceleasi optiuni ca JMH. Daca nu se cere altceva, rezultatele se scriu in
+ * jmh-result.json (ns/op) si se ruleaza cu profiler-ul "gc", care adauga
+ * gc.alloc.rate.norm = octeti alocati pe operatie. Asa putem compara doua rulari automat.
+ */
+public class BenchMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder opts = new OptionsBuilder().parent(cmd);
+        if (!cmd.getResultFormat().hasValue()) {
+            opts.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmd.getResult().hasValue()) {
+            opts.result("jmh-result.json");
+        }
+        if (cmd.getProfilers().isEmpty()) {
+            opts.addProfiler(GCProfiler.class);
+        }
+        new Runner(opts.build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package ro.chess.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ro.chess.server.codec.BinaryCodec;
+import ro.chess.server.codec.Command;
+import ro.chess.server.codec.JsonCodec;
+import ro.chess.server.dto.MoveDeltaMsg;
+import ro.chess.server.dto.WelcomeMsg;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializarea DTO-urilor trimise clientilor si citirea comenzilor primite.
+ * ObjectMapper e pastrat ca referinta (asa se serializa inainte de JsonCodec).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBench {
+
+    private static final String MAKE_MOVE = "{\"type\":\"MAKE_MOVE\",\"from\":\"e2\",\"to\":\"e4\"}";
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final MoveDeltaMsg delta;
+    private final WelcomeMsg welcome = new WelcomeMsg("default", "WHITE",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 42, true);
+
+    public CodecBench() {
+        Map<String, String> changes = new LinkedHashMap<>();
+        changes.put("e1", null);
+        changes.put("h1", null);
+        changes.put("g1", "wK");
+        changes.put("f1", "wR");
+        delta = new MoveDeltaMsg(43, "e1g1", changes, false, false);
+    }
+
+    @Benchmark
+    public String deltaJson() {
+        return JsonCodec.encode(delta);
+    }
+
+    @Benchmark
+    public String deltaObjectMapper() throws Exception {
+        return om.writeValueAsString(delta);
+    }
+
+    @Benchmark
+    public byte[] deltaBinary() {
+        return BinaryCodec.encode(delta);
+    }
+
+    @Benchmark
+    public String welcomeJson() {
+        return JsonCodec.encode(welcome);
+    }
+
+    @Benchmark
+    public byte[] welcomeBinary() {
+        return BinaryCodec.encode(welcome);
+    }
+
+    @Benchmark
+    public Command decodeCommand() throws Exception {
+        return JsonCodec.decode(MAKE_MOVE);
+    }
+}
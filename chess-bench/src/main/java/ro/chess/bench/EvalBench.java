@@ -0,0 +1,70 @@
+package ro.chess.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ro.chess.server.engine.Evaluator;
+import ro.chess.server.model.MoveGenerator;
+import ro.chess.server.model.Position;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluari pe secunda. "incremental" citeste sumele tinute la zi de Position, "full" le recalculeaza
+ * trecand prin toata tabla (cum facea evaluarea inainte). "makeEvalUnmake" e ce face cautarea de fapt:
+ * mutare + evaluare + anulare, pentru fiecare mutare legala din pozitie, deci include si costul
+ * actualizarii sumelor in put/remove.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvalBench {
+
+    @Param({
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/5pk1/6p1/3R4/7P/r5P1/5PK1/8 w - - 0 1"
+    })
+    public String fen;
+
+    private final Position position = new Position();
+    private final int[] moves = new int[256];
+    private int count;
+    private int next;
+
+    @Setup
+    public void setup() {
+        position.setFen(fen);
+        count = MoveGenerator.generateLegal(position, moves);
+    }
+
+    @Benchmark
+    public int incremental() {
+        return Evaluator.evaluate(position);
+    }
+
+    @Benchmark
+    public int full() {
+        return Evaluator.evaluateFull(position);
+    }
+
+    @Benchmark
+    public int makeEvalUnmake() {
+        int move = moves[next++ % count];
+        int undo = position.makeMove(move);
+        int score = Evaluator.evaluate(position);
+        position.unmakeMove(move, undo);
+        return score;
+    }
+}
@@ -0,0 +1,69 @@
+package ro.chess.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ro.chess.server.service.GameService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logica jocului de pe server: o mutare + anularea ei, si FEN-ul pozitiei.
+ * Pornim dintr-o pozitie de mijloc de joc (Italiana), nu din pozitia initiala.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameServiceBench {
+
+    private static final String[] DESCHIDERE = {
+            "e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "f8c5", "c2c3", "g8f6", "d2d4", "e5d4"
+    };
+
+    private GameService game;
+
+    @Setup
+    public void setup() {
+        game = new GameService();
+        for (String m : DESCHIDERE) {
+            game.applyMove(m.substring(0, 2), m.substring(2, 4));
+        }
+    }
+
+    /**
+     * GameService.applyMove (validare, mutare, detectie mat/remiza, MOVE_DELTA)
+     * urmat de undoMove (care trimite pozitia completa), ca sa ramanem in aceeasi pozitie.
+     */
+    @Benchmark
+    public void applyAndUndo(Blackhole bh) {
+        bh.consume(game.applyMove("c3", "d4"));
+        bh.consume(game.undoMove());
+    }
+
+    /**
+     * Doar applyMove cu o mutare ilegala: drumul de validare si mesajul de eroare.
+     */
+    @Benchmark
+    public Object applyIllegal() {
+        return game.applyMove("e1", "e3");
+    }
+
+    /**
+     * GameService.generateFen (prin getCurrentFen).
+     */
+    @Benchmark
+    public String generateFen() {
+        return game.getCurrentFen();
+    }
+}
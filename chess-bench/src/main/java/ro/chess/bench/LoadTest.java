@@ -0,0 +1,285 @@
+package ro.chess.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test de incarcare pentru un server pornit separat: deschide multe conexiuni WebSocket
+ * (cate 2 pe joc) si masoara cat dureaza o mutare, de la trimitere pana la MOVE_DELTA-ul primit inapoi.
+ *
+ * In fiecare joc, albul face o mutare, asteapta MOVE_DELTA (asta e latenta masurata),
+ * o anuleaza, asteapta MOVE_APPLIED, apoi "se gandeste" --think-ms si o ia de la capat.
+ * Negrul doar primeste mesajele.
+ *
+ * Comparatia thread-uri normale / fire virtuale (Java 21+):
+ *
+ *   java -jar chess-server.jar                                           (pool-ul obisnuit)
+ *   java -cp chess-bench/target/benchmarks.jar ro.chess.bench.LoadTest --label pool --out pool.json
+ *
+ *   java -jar chess-server.jar --spring.threads.virtual.enabled=true     (fire virtuale)
+ *   java -cp chess-bench/target/benchmarks.jar ro.chess.bench.LoadTest --label virtual --out virtual.json
+ *
+ *   java -cp chess-bench/target/benchmarks.jar ro.chess.bench.LoadTest --compare pool.json virtual.json
+ *
+ * Optiuni: --url ws://localhost:8080/ws  --sessions 10000  --seconds 60  --think-ms 1000
+ *          --label run  --out rezultat.json
+ */
+public class LoadTest {
+
+    private static final String MOVE = "{\"type\":\"MAKE_MOVE\",\"from\":\"g1\",\"to\":\"f3\"}";
+    private static final String UNDO = "{\"type\":\"UNDO_MOVE\"}";
+
+    // Cate handshake-uri lasam in zbor deodata
+    private static final int CONNECT_PARALLEL = 256;
+
+    private final String url;
+    private final int sessions;
+    private final int seconds;
+    private final int thinkMs;
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private final Latencies latencies = new Latencies();
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger connectFailures = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private volatile boolean running = true;
+
+    private LoadTest(String url, int sessions, int seconds, int thinkMs) {
+        this.url = url;
+        this.sessions = sessions;
+        this.seconds = seconds;
+        this.thinkMs = thinkMs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("--compare")) {
+            compare(new File(args[1]), new File(args[2]));
+            return;
+        }
+
+        Map<String, String> opt = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opt.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        LoadTest t = new LoadTest(
+                opt.getOrDefault("url", "ws://localhost:8080/ws"),
+                Integer.parseInt(opt.getOrDefault("sessions", "10000")),
+                Integer.parseInt(opt.getOrDefault("seconds", "60")),
+                Integer.parseInt(opt.getOrDefault("think-ms", "1000")));
+
+        Map<String, Object> result = t.run(opt.getOrDefault("label", "run"));
+        ObjectMapper om = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        System.out.println(om.writeValueAsString(result));
+        if (opt.containsKey("out")) {
+            om.writeValue(new File(opt.get("out")), result);
+        }
+        System.exit(0);
+    }
+
+    private Map<String, Object> run(String label) throws Exception {
+        // Mai multi clienti HTTP, ca un singur thread de selector sa nu fie gatul sticlei
+        int nClients = Math.max(1, Runtime.getRuntime().availableProcessors());
+        HttpClient[] clients = new HttpClient[nClients];
+        for (int i = 0; i < nClients; i++) {
+            clients[i] = HttpClient.newHttpClient();
+        }
+
+        // 1. Conectare
+        long t0 = System.nanoTime();
+        Semaphore inFlight = new Semaphore(CONNECT_PARALLEL);
+        List<Player> whites = new ArrayList<>();
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        int games = sessions / 2;
+        for (int g = 0; g < games; g++) {
+            HttpClient client = clients[g % nClients];
+            URI uri = URI.create(url + "?game=load-" + g);
+            Player white = new Player();
+            whites.add(white);
+
+            inFlight.acquire();
+            // Negrul se conecteaza dupa alb, ca fiecare sa primeasca culoarea asteptata
+            CompletableFuture<?> f = connect(client, uri, white)
+                    .thenCompose(ok -> connect(client, uri, new Player()))
+                    .whenComplete((ok, err) -> inFlight.release());
+            pending.add(f);
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+        double connectSeconds = (System.nanoTime() - t0) / 1e9;
+        System.err.printf("Conectate %d/%d sesiuni in %.1f s%n", connected.get(), sessions, connectSeconds);
+
+        // 2. Mutari, pornite decalat ca sa nu mute toti in aceeasi milisecunda
+        for (Player w : whites) {
+            if (w.ws != null) {
+                scheduler.schedule(w::move, ThreadLocalRandom.current().nextInt(Math.max(1, thinkMs)), TimeUnit.MILLISECONDS);
+            }
+        }
+        Thread.sleep(seconds * 1000L);
+        running = false;
+        Thread.sleep(2000);
+
+        // 3. Rezultate
+        long[] lat = latencies.sorted();
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("label", label);
+        r.put("java", Runtime.version().toString());
+        r.put("sessions", sessions);
+        r.put("connected", connected.get());
+        r.put("connectFailures", connectFailures.get());
+        r.put("closedDuringRun", closed.get());
+        r.put("errors", errors.get());
+        r.put("connectSeconds", round(connectSeconds));
+        r.put("moves", lat.length);
+        r.put("movesPerSecond", round(lat.length / (double) seconds));
+        r.put("p50Ms", percentile(lat, 0.50));
+        r.put("p90Ms", percentile(lat, 0.90));
+        r.put("p99Ms", percentile(lat, 0.99));
+        r.put("p999Ms", percentile(lat, 0.999));
+        r.put("maxMs", lat.length == 0 ? 0 : round(lat[lat.length - 1] / 1e6));
+        return r;
+    }
+
+    private CompletableFuture<WebSocket> connect(HttpClient client, URI uri, Player p) {
+        return client.newWebSocketBuilder().buildAsync(uri, p).whenComplete((ws, err) -> {
+            if (err != null) {
+                if (connectFailures.incrementAndGet() == 1) {
+                    System.err.println("Conectare esuata: " + err);
+                }
+            } else {
+                connected.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Un client. Doar albul trimite comenzi; o singura comanda e "in zbor" in orice moment.
+     */
+    private final class Player implements WebSocket.Listener {
+        private final StringBuilder partial = new StringBuilder();
+        private volatile WebSocket ws;
+        private volatile long sentAt;
+        private volatile boolean waitingDelta;
+        private volatile boolean waitingUndo;
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            ws = webSocket;
+            webSocket.request(1);
+        }
+
+        void move() {
+            if (!running || ws == null) {
+                return;
+            }
+            waitingDelta = true;
+            sentAt = System.nanoTime();
+            ws.sendText(MOVE, true);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                String msg = partial.toString();
+                partial.setLength(0);
+                onMessage(msg);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        private void onMessage(String msg) {
+            if (waitingDelta && msg.contains("\"MOVE_DELTA\"")) {
+                latencies.add(System.nanoTime() - sentAt);
+                waitingDelta = false;
+                waitingUndo = true;
+                ws.sendText(UNDO, true);
+            } else if (waitingUndo && msg.contains("\"MOVE_APPLIED\"")) {
+                waitingUndo = false;
+                scheduler.schedule(this::move, thinkMs, TimeUnit.MILLISECONDS);
+            } else if (msg.contains("\"ERROR\"")) {
+                errors.incrementAndGet();
+            }
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            if (running) {
+                closed.incrementAndGet();
+            }
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            if (running) {
+                closed.incrementAndGet();
+            }
+        }
+    }
+
+    // Latentele in nanosecunde, adunate din mai multe thread-uri
+    private static final class Latencies {
+        private long[] values = new long[1 << 16];
+        private int size;
+
+        synchronized void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return round(sorted[Math.max(0, Math.min(i, sorted.length - 1))] / 1e6);
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+
+    /**
+     * Afiseaza doua rezultate unul langa altul (ex: pool.json vs virtual.json).
+     */
+    private static void compare(File a, File b) throws Exception {
+        ObjectMapper om = new ObjectMapper();
+        JsonNode ra = om.readTree(a);
+        JsonNode rb = om.readTree(b);
+        System.out.printf("%-18s %14s %14s%n", "", ra.path("label").asText(), rb.path("label").asText());
+        for (String k : new String[] { "java", "connected", "connectFailures", "closedDuringRun", "errors",
+                "connectSeconds", "movesPerSecond", "p50Ms", "p90Ms", "p99Ms", "p999Ms", "maxMs" }) {
+            System.out.printf("%-18s %14s %14s%n", k, ra.path(k).asText(), rb.path(k).asText());
+        }
+    }
+}
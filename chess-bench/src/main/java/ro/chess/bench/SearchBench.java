@@ -0,0 +1,82 @@
+package ro.chess.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ro.chess.server.engine.Search;
+import ro.chess.server.engine.SearchLimits;
+import ro.chess.server.engine.SearchResult;
+import ro.chess.server.engine.TranspositionTable;
+import ro.chess.server.model.Position;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine-ul: o cautare la adancime fixa, cu tabela de transpozitie golita inainte.
+ * Rezultatul care ne intereseaza e "nodes" (noduri pe secunda = NPS); "fixedDepth" spune
+ * cate cautari complete intra intr-o secunda (depinde si de cat de bine taie cautarea).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBench {
+
+    @Param({
+            // Pozitia initiala
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            // "Kiwipete": multe capturi, rocade, legaturi
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            // Final de ture
+            "8/5pk1/6p1/3R4/7P/r5P1/5PK1/8 w - - 0 1"
+    })
+    public String fen;
+
+    @Param({ "6" })
+    public int depth;
+
+    private final Position position = new Position();
+    private TranspositionTable tt;
+    private Search search;
+
+    /**
+     * Nodurile cautate, raportate de JMH pe secunda.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        position.setFen(fen);
+        tt = new TranspositionTable(16);
+        search = new Search(tt);
+    }
+
+    @Benchmark
+    public SearchResult fixedDepth(Nodes counter) {
+        tt.clear();
+        SearchResult r = search.search(position, new long[0], SearchLimits.depth(depth), null, null);
+        counter.nodes += r.nodes();
+        return r;
+    }
+}
@@ -0,0 +1,108 @@
+package ro.chess.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ro.chess.server.engine.ParallelSearch;
+import ro.chess.server.engine.SearchLimits;
+import ro.chess.server.engine.SearchResult;
+import ro.chess.server.engine.TranspositionTable;
+import ro.chess.server.model.Position;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cat de repede ajunge engine-ul la o adancime fixa cu 1, 2, ..., N thread-uri (Lazy SMP, vezi ParallelSearch).
+ *
+ * Pentru fiecare numar de thread-uri si fiecare pozitie cautam de --runs ori pana la --depth,
+ * de fiecare data cu tabela de transpozitie goala, si facem media timpilor. Lazy SMP nu e determinist
+ * (ordinea in care thread-urile umplu tabela difera de la o rulare la alta), de aici mai multe rulari.
+ * Accelerarea = timpul cu 1 thread / timpul cu N thread-uri.
+ *
+ *   java -cp chess-bench/target/benchmarks.jar ro.chess.bench.SmpSpeedup --threads 8 --depth 10 --out smp.json
+ *
+ * Optiuni: --threads (implicit: numarul de core-uri)  --depth 9  --runs 3  --hash-mb 64  --out rezultat.json
+ */
+public class SmpSpeedup {
+
+    private static final String[] POZITII = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8",
+            "8/5pk1/6p1/3R4/7P/r5P1/5PK1/8 w - - 0 1"
+    };
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opt = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opt.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int maxThreads = Integer.parseInt(opt.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int depth = Integer.parseInt(opt.getOrDefault("depth", "9"));
+        int runs = Integer.parseInt(opt.getOrDefault("runs", "3"));
+        int hashMb = Integer.parseInt(opt.getOrDefault("hash-mb", "64"));
+
+        TranspositionTable tt = new TranspositionTable(hashMb);
+        ExecutorService helpers = Executors.newFixedThreadPool(Math.max(1, maxThreads - 1));
+        Position position = new Position();
+
+        // Incalzire (JIT), altfel prima masuratoare, cea cu 1 thread, ar iesi mai lenta decat e
+        ParallelSearch warmup = new ParallelSearch(tt, helpers, Math.min(2, maxThreads));
+        for (String fen : POZITII) {
+            position.setFen(fen);
+            tt.clear();
+            warmup.search(position, new long[0], SearchLimits.depth(depth), null, null);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        double baseMillis = 0;
+        System.out.printf("%-8s %12s %14s %10s%n", "threads", "ms/pozitie", "noduri/s", "accelerare");
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            ParallelSearch search = new ParallelSearch(tt, helpers, threads);
+            long totalNanos = 0;
+            long totalNodes = 0;
+            for (int run = 0; run < runs; run++) {
+                for (String fen : POZITII) {
+                    position.setFen(fen);
+                    tt.clear();
+                    long t0 = System.nanoTime();
+                    SearchResult r = search.search(position, new long[0], SearchLimits.depth(depth), null, null);
+                    totalNanos += System.nanoTime() - t0;
+                    totalNodes += r.nodes();
+                }
+            }
+            double millis = totalNanos / 1e6 / (runs * POZITII.length);
+            long nps = (long) (totalNodes / (totalNanos / 1e9));
+            if (threads == 1) {
+                baseMillis = millis;
+            }
+            double speedup = baseMillis / millis;
+            System.out.printf("%-8d %12.1f %14d %10.2f%n", threads, millis, nps, speedup);
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("threads", threads);
+            row.put("msPerPosition", Math.round(millis * 10) / 10.0);
+            row.put("nodesPerSecond", nps);
+            row.put("speedup", Math.round(speedup * 100) / 100.0);
+            rows.add(row);
+        }
+        helpers.shutdownNow();
+
+        if (opt.containsKey("out")) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("cores", Runtime.getRuntime().availableProcessors());
+            result.put("depth", depth);
+            result.put("runs", runs);
+            result.put("hashMb", hashMb);
+            result.put("results", rows);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(opt.get("out")), result);
+        }
+    }
+}
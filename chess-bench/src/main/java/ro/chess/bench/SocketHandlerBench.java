@@ -0,0 +1,84 @@
+package ro.chess.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.socket.TextMessage;
+import ro.chess.server.config.GameSocketHandler;
+import ro.chess.server.engine.AnalysisService;
+import ro.chess.server.engine.EngineService;
+import ro.chess.server.service.GameRegistry;
+import ro.chess.server.service.SendMetrics;
+import ro.chess.server.service.SendPolicy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drumul complet al unui mesaj text prin GameSocketHandler: decodare, dispatch,
+ * mailbox-ul camerei, logica jocului si codificarea raspunsului pentru ambii jucatori.
+ *
+ * Executorii (jocul si trimiterea) ruleaza direct pe thread-ul apelant, ca sa masuram munca
+ * si nu predarea intre thread-uri. Sesiunile sunt false (NullSession), nu trimit nimic pe retea.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SocketHandlerBench {
+
+    private static final TextMessage MOVE = new TextMessage("{\"type\":\"MAKE_MOVE\",\"from\":\"e2\",\"to\":\"e4\"}");
+    private static final TextMessage UNDO = new TextMessage("{\"type\":\"UNDO_MOVE\"}");
+    private static final TextMessage RESYNC = new TextMessage("{\"type\":\"RESYNC\"}");
+    private static final TextMessage UNKNOWN = new TextMessage("{\"type\":\"PING\"}");
+
+    private GameSocketHandler handler;
+    private NullSession white;
+    private NullSession black;
+
+    @Setup
+    public void setup() throws Exception {
+        SendPolicy policy = new SendPolicy(10_000, 1 << 20, SendPolicy.Overflow.SNAPSHOT, 60_000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Engine-ul nu e folosit aici (nimeni nu cere PLAY_VS_ENGINE sau ANALYZE)
+        EngineService engine = new EngineService(Runnable::run, 1, 1, 1000, 10_000, "", "", "", "", 64, registry);
+        AnalysisService analysis = new AnalysisService(engine, Runnable::run, null, 250, 60_000, 4, registry);
+        handler = new GameSocketHandler(new GameRegistry(Runnable::run, engine, analysis), Runnable::run, policy,
+                new SendMetrics(registry));
+        white = new NullSession("w");
+        black = new NullSession("b");
+        handler.afterConnectionEstablished(white);
+        handler.afterConnectionEstablished(black);
+    }
+
+    /**
+     * MAKE_MOVE (broadcast MOVE_DELTA) + UNDO_MOVE (broadcast MOVE_APPLIED).
+     */
+    @Benchmark
+    public long moveAndUndo() throws Exception {
+        handler.handleMessage(white, MOVE);
+        handler.handleMessage(black, UNDO);
+        return white.bytesSent;
+    }
+
+    @Benchmark
+    public long resync() throws Exception {
+        handler.handleMessage(white, RESYNC);
+        return white.bytesSent;
+    }
+
+    @Benchmark
+    public long unknownCommand() throws Exception {
+        handler.handleMessage(white, UNKNOWN);
+        return white.bytesSent;
+    }
+}
@@ -0,0 +1,56 @@
+package ro.chess.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ro.chess.server.engine.TranspositionTable;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tabela de transpozitie (in afara heap-ului): o scriere + o citire pe chei aleatoare.
+ * La tabele mari aproape fiecare acces e un cache miss, deci ns/op arata de fapt latenta memoriei.
+ * gc.alloc.rate.norm trebuie sa ramana 0: tabela nu aloca nimic pe heap.
+ *
+ * Pentru --hashMb peste -Xmx: java -XX:MaxDirectMemorySize=8g -jar benchmarks.jar TranspositionTable -p hashMb=4096
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:MaxDirectMemorySize=4g")
+public class TranspositionTableBench {
+
+    @Param({ "16", "1024" })
+    public int hashMb;
+
+    private TranspositionTable tt;
+    private final long[] keys = new long[1 << 20];
+    private int next;
+
+    @Setup
+    public void setup() {
+        tt = new TranspositionTable(hashMb);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+
+    @Benchmark
+    public long storeAndProbe() {
+        long key = keys[next++ & (keys.length - 1)];
+        tt.store(key, 0x1234, 25, 6, TranspositionTable.EXACT);
+        return tt.probe(key ^ 0x9E3779B97F4A7C15L) + tt.probe(key);
+    }
+}
@@ -1,40 +1,202 @@
 package ro.chess.client;
 
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.image.Image;
-import java.util.HashMap;
+import javafx.stage.Window;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 /**
  * Gestionam imaginile pieselor aici.
- * Le incarcam o singura data si le tinem minte (cache) ca sa nu le citim de pe
- * disc la fiecare frame.
+ *
+ * Fisierele PNG le citim o singura data (doar octetii). Din ele facem seturi de cate 12 imagini gata
+ * scalate la marimea la care sunt desenate, in pixeli reali ai ecranului (latura * scara ecranului, 2 pe
+ * HiDPI), ca tabla sa nu mai scaleze nimic la desenare. Cele 12 imagini ale unui set se decodeaza in
+ * paralel (pe ForkJoinPool.commonPool); Image poate fi creata pe orice thread.
+ *
+ * Un set e tinut cat timp il foloseste macar o tabla (ia / elibereaza, legate de fereastra tablei in
+ * leagaDeFereastra): cand o tabla isi schimba marimea (ex: fereastra mutata pe un monitor cu alta scara)
+ * cere un set nou si il elibereaza pe cel vechi, iar cand iese din scena il elibereaza; setul nefolosit
+ * iese din cache. Tablele de aceeasi marime (ex: in TurneuApp) impart acelasi set.
  */
 public class Assets {
-    // Aici tinem minte pozele deja incarcate: "wP" -> Poza cu Pion Alb
-    private static final Map<String, Image> cachePoze = new HashMap<>();
+
+    // Codurile pieselor, in ordinea din seturi: alb apoi negru, pion ... rege
+    static final String[] PIESE = { "wP", "wN", "wB", "wR", "wQ", "wK", "bP", "bN", "bB", "bR", "bQ", "bK" };
+
+    // Cat din patrat ocupa piesa
+    static final double LATURA_PIESA = 0.85;
+
+    // Fisierele PNG, citite o data (null daca lipseste)
+    private static final byte[][] PNG = new byte[PIESE.length][];
+
+    static {
+        for (int i = 0; i < PIESE.length; i++) {
+            // Calea catre poza: /pieces/wK.png
+            String cale = "/pieces/" + PIESE[i] + ".png";
+            try (InputStream in = Assets.class.getResourceAsStream(cale)) {
+                PNG[i] = in.readAllBytes();
+            } catch (Exception e) {
+                System.err.println("Nu am gasit poza pentru: " + PIESE[i]);
+            }
+        }
+    }
+
+    // Seturile folosite acum, dupa latura in pixeli. Folosirile se modifica doar in compute (atomic pe cheie).
+    private static final Map<Integer, SetPiese> SETURI = new ConcurrentHashMap<>();
 
     /**
-     * Da-mi poza pentru piesa ceruta (ex: "wK" = White King / Rege Alb).
+     * Cele 12 piese la o anumita marime (in pixeli reali).
      */
-    public static Image getImaginePiesa(String numePiesa) {
-        // Daca am incarcat-o deja, o returnam direct
-        if (cachePoze.containsKey(numePiesa)) {
-            return cachePoze.get(numePiesa);
+    public static final class SetPiese {
+        private final int pixeli;
+        private final Image[] imagini;
+        private int folosiri;
+
+        private SetPiese(int pixeli, Image[] imagini) {
+            this.pixeli = pixeli;
+            this.imagini = imagini;
         }
 
-        // Daca nu, o cautam in fisiere
-        try {
-            // Calea catre poza: /pieces/wK.png
-            String cale = "/pieces/" + numePiesa + ".png";
-            // Incarcam imaginea
-            Image img = new Image(Assets.class.getResourceAsStream(cale), 64, 64, true, true);
-
-            // O tinem minte pentru data viitoare
-            cachePoze.put(numePiesa, img);
-            return img;
-        } catch (Exception e) {
-            System.err.println("Nu am gasit poza pentru: " + numePiesa);
-            return null;
+        /**
+         * Da-mi poza pentru piesa ceruta (ex: "wK" = White King / Rege Alb), sau null.
+         */
+        public Image get(String codPiesa) {
+            int tip = "PNBRQK".indexOf(codPiesa.charAt(1));
+            if (tip < 0) {
+                return null;
+            }
+            return imagini[(codPiesa.charAt(0) == 'w' ? 0 : 6) + tip];
+        }
+    }
+
+    /**
+     * Setul pentru piese desenate cu latura data (in pixeli logici) pe un ecran cu scara data.
+     * Trebuie eliberat cu elibereaza() cand tabla nu-l mai foloseste.
+     */
+    public static SetPiese ia(double latura, double scara) {
+        return SETURI.compute(pixeli(latura, scara), (px, set) -> {
+            if (set == null) {
+                set = decodeaza(px);
+            }
+            set.folosiri++;
+            return set;
+        });
+    }
+
+    /**
+     * Tabla nu mai foloseste setul; ultimul care il elibereaza il scoate din cache.
+     */
+    public static void elibereaza(SetPiese set) {
+        SETURI.computeIfPresent(set.pixeli, (px, curent) -> {
+            if (curent == set && --curent.folosiri <= 0) {
+                return null;
+            }
+            return curent;
+        });
+    }
+
+    /**
+     * Decodeaza setul dinainte, pe alt thread (ex: cat timp e deschisa fereastra de conectare), ca prima
+     * tabla sa-l gaseasca gata. Ramane in cache pana il ia si il elibereaza o tabla.
+     */
+    public static CompletableFuture<Void> preincarca(double latura, double scara) {
+        return CompletableFuture.runAsync(() -> SETURI.computeIfAbsent(pixeli(latura, scara), Assets::decodeaza));
+    }
+
+    /**
+     * Leaga setul de piese al unui nod (o tabla) de fereastra in care e afisat: cand nodul ajunge intr-o
+     * fereastra ia setul pentru latura data si scara ecranului ei; cand fereastra trece pe un ecran cu alta
+     * scara ia altul; cand nodul iese din scena (sau scena din fereastra) il elibereaza si isi scoate
+     * listener-ii de pe scena si fereastra. laSchimbare primeste setul nou, sau null cand nodul nu mai e
+     * afisat; setul vechi e deja eliberat. O tabla aruncata nu tine deci nimic ocupat in cache.
+     */
+    public static void leagaDeFereastra(Node nod, double latura, Consumer<SetPiese> laSchimbare) {
+        new Legatura(latura, laSchimbare).ataseaza(nod);
+    }
+
+    // Starea unei legaturi: setul tinut acum si fereastra pe care o ascultam (doar pe thread-ul FX)
+    private static final class Legatura {
+        private final double latura;
+        private final Consumer<SetPiese> laSchimbare;
+        private SetPiese set;
+        private Window fereastra;
+
+        private final ChangeListener<Number> scara = (o, vechi, nou) -> foloseste(nou.doubleValue());
+        private final ChangeListener<Window> fereastraNoua = (o, vechi, nou) -> muta(nou);
+
+        Legatura(double latura, Consumer<SetPiese> laSchimbare) {
+            this.latura = latura;
+            this.laSchimbare = laSchimbare;
         }
+
+        void ataseaza(Node nod) {
+            nod.sceneProperty().addListener((o, vechi, nou) -> {
+                if (vechi != null) {
+                    vechi.windowProperty().removeListener(fereastraNoua);
+                }
+                if (nou != null) {
+                    nou.windowProperty().addListener(fereastraNoua);
+                }
+                muta(nou == null ? null : nou.getWindow());
+            });
+            Scene scena = nod.getScene();
+            if (scena != null) {
+                scena.windowProperty().addListener(fereastraNoua);
+                muta(scena.getWindow());
+            }
+        }
+
+        // Nodul e acum in fereastra w (null = nu mai e afisat)
+        private void muta(Window w) {
+            if (w == fereastra) {
+                return;
+            }
+            if (fereastra != null) {
+                fereastra.outputScaleXProperty().removeListener(scara);
+            }
+            fereastra = w;
+            if (w != null) {
+                w.outputScaleXProperty().addListener(scara);
+                foloseste(w.getOutputScaleX());
+            } else if (set != null) {
+                elibereaza(set);
+                set = null;
+                laSchimbare.accept(null);
+            }
+        }
+
+        private void foloseste(double s) {
+            SetPiese nou = ia(latura, s);
+            if (set != null) {
+                elibereaza(set);
+            }
+            if (nou == set) {
+                return;
+            }
+            set = nou;
+            laSchimbare.accept(nou);
+        }
+    }
+
+    private static int pixeli(double latura, double scara) {
+        return Math.max(1, (int) Math.round(latura * scara));
+    }
+
+    // Cele 12 imagini in paralel, scalate (neted) chiar la decodare
+    private static SetPiese decodeaza(int px) {
+        Image[] imagini = IntStream.range(0, PIESE.length).parallel()
+                .mapToObj(i -> PNG[i] == null ? null
+                        : new Image(new ByteArrayInputStream(PNG[i]), px, px, true, true))
+                .toArray(Image[]::new);
+        return new SetPiese(px, imagini);
     }
 }
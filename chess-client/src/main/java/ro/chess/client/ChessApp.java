@@ -1,7 +1,6 @@
 package ro.chess.client;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -10,6 +9,7 @@ import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
 import javafx.scene.control.Separator;
@@ -21,14 +21,27 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.Screen;
 import javafx.stage.Stage;
+import ro.chess.client.codec.BinaryCodec;
+import ro.chess.client.codec.JsonCodec;
+import ro.chess.client.codec.ServerEvent;
 
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -46,6 +59,11 @@ public class ChessApp extends Application {
     private final Label colorLbl = new Label("");
     private final Label turnLbl = new Label("");
     private final Label playersLbl = new Label("Jucatori: 0/2");
+    // Rezultatul analizei (cate un rand pentru fiecare varianta)
+    private final Label analysisLbl = new Label("");
+
+    // Cate pozitii de la server nu au mai fost desenate (le-a inlocuit una mai noua in acelasi frame)
+    private final Label statsLbl = new Label("");
 
     // Zona de text unde vedem ce mesaje trimitem/primim (pentru debug)
     private final TextArea wsLog = new TextArea();
@@ -53,16 +71,42 @@ public class ChessApp extends Application {
     // Format pentru ora (ca sa stim cand s-a intamplat ceva)
     private final DateTimeFormatter HHMMSS = DateTimeFormatter.ofPattern("HH:mm:ss");
 
-    // Folosit pentru citit JSON
-    private final ObjectMapper om = new ObjectMapper();
-
     private String serverHost = "localhost";
+    private String gameId = "default"; // Jocul (camera) in care intram pe server
     private URI serverUri;
     private BoardView board; // Asta e tabla noastra desenata
     private String myColor = null; // Culoarea mea ("WHITE" sau "BLACK")
+    private boolean vsEngine = false; // Jucam contra calculatorului?
+    private boolean analiza = false; // Cerem analiza pozitiei de la server?
+    private boolean albulLaMutare = true; // Pentru scorul analizei (serverul il da pentru cel la mutare)
+    private long lastSeq = -1; // Numarul ultimei pozitii primite (ca sa vedem daca am pierdut mutari)
+    private boolean resyncCerut = false; // Am cerut RESYNC si asteptam pozitia completa
+
+    // Protocolul binar compact in loc de JSON (daca serverul il accepta)
+    private boolean vreauBinar = false;
+
+    // Tabla desenata pe un Canvas (TablaCanvas) in loc de noduri (TablaSah)
+    private boolean vreauCanvas = BoardView.canvasImplicit();
+    private volatile boolean binar = false;
+
+    // Mesajele primite si randurile de log, puse in coada de thread-ul conexiunii; le aplicam o data pe frame
+    private final Queue<ServerEvent> inbox = new ConcurrentLinkedQueue<>();
+    private final Queue<String> logInbox = new ConcurrentLinkedQueue<>();
+    // Folosite doar pe thread-ul FX, in aplicaMesaje
+    private final List<ServerEvent> lot = new ArrayList<>();
+    private final Map<String, String> deltaAdunat = new HashMap<>();
+    private long pozitiiPrimite = 0;
+    private long pozitiiSarite = 0;
+
+    // Bucatile unui mesaj primit in mai multe frame-uri
+    private final StringBuilder textPartial = new StringBuilder();
+    private ByteBuffer binarPartial = ByteBuffer.allocate(256);
 
     @Override
     public void start(Stage stage) {
+        // Cat timp e deschisa fereastra de conectare, pregatim imaginile pieselor pentru tabla
+        Assets.preincarca(TablaBaza.MARIME_PATRAT * Assets.LATURA_PIESA, Screen.getPrimary().getOutputScaleX());
+
         // Prima data aratam fereastra de conectare
         showConnectionDialog(stage);
     }
@@ -78,7 +122,19 @@ public class ChessApp extends Application {
         TextField ipField = new TextField("localhost");
         ipField.setPromptText("ex: localhost sau 192.168.x.x");
 
-        VBox content = new VBox(10, new Label("Adresa IP:"), ipField);
+        // Pe acelasi server pot rula mai multe jocuri; alegem in care intram
+        TextField gameField = new TextField("default");
+        gameField.setPromptText("ex: masa1");
+
+        // Protocol binar: mesaje mai mici decat JSON (util pe retele lente)
+        CheckBox binarBox = new CheckBox("Protocol binar (compact)");
+
+        // Tabla pe un singur Canvas: mai putin de desenat pe calculatoarele slabe
+        CheckBox canvasBox = new CheckBox("Tabla pe Canvas (mai rapida)");
+        canvasBox.setSelected(vreauCanvas);
+
+        VBox content = new VBox(10, new Label("Adresa IP:"), ipField, new Label("Joc:"), gameField, binarBox,
+                canvasBox);
         content.setPadding(new Insets(20));
 
         dialog.getDialogPane().setContent(content);
@@ -95,6 +151,10 @@ public class ChessApp extends Application {
         dialog.showAndWait().ifPresentOrElse(
                 host -> {
                     serverHost = host.isEmpty() ? "localhost" : host;
+                    String joc = gameField.getText().trim();
+                    gameId = joc.isEmpty() ? "default" : joc;
+                    vreauBinar = binarBox.isSelected();
+                    vreauCanvas = canvasBox.isSelected();
                     initializeGame(stage);
                 },
                 () -> Platform.exit());
@@ -104,7 +164,7 @@ public class ChessApp extends Application {
      * Aici construim toata interfata jocului.
      */
     private void initializeGame(Stage stage) {
-        String url = "ws://" + serverHost + ":8080/ws";
+        String url = "ws://" + serverHost + ":8080/ws?game=" + URLEncoder.encode(gameId, StandardCharsets.UTF_8);
         this.serverUri = URI.create(url);
 
         // Setari pentru zona de log (sa nu putem scrie in ea, doar sa citim)
@@ -120,7 +180,7 @@ public class ChessApp extends Application {
         Button undoBtn = new Button("Muta Inapoi");
         undoBtn.setOnAction(e -> {
             if (connected.get()) {
-                sendJson("{\"type\":\"UNDO_MOVE\"}");
+                sendCommand("UNDO_MOVE");
             }
         });
 
@@ -128,41 +188,79 @@ public class ChessApp extends Application {
         Button resetBtn = new Button("Reset Joc");
         resetBtn.setOnAction(e -> {
             if (connected.get()) {
-                sendJson("{\"type\":\"RESET_GAME\"}");
+                sendCommand("RESET_GAME");
+            }
+        });
+
+        // Joc contra calculatorului (serverul ia culoarea cealalta); al doilea click il opreste
+        Button engineBtn = new Button("Joaca cu calculatorul");
+        engineBtn.setOnAction(e -> {
+            if (connected.get()) {
+                vsEngine = !vsEngine;
+                sendPlayVsEngine(vsEngine ? null : "NONE");
+                engineBtn.setText(vsEngine ? "Opreste calculatorul" : "Joaca cu calculatorul");
+            }
+        });
+
+        // Analiza pozitiei (cele mai bune 3 variante); se reia singura dupa fiecare mutare
+        Button analysisBtn = new Button("Analiza");
+        analysisBtn.setOnAction(e -> {
+            if (connected.get()) {
+                analiza = !analiza;
+                if (analiza) {
+                    sendAnalyze();
+                } else {
+                    sendCommand("STOP_ANALYSIS");
+                }
+                analysisBtn.setText(analiza ? "Opreste analiza" : "Analiza");
             }
         });
+        // Mutarile din cartea de deschideri pentru pozitia de pe tabla
+        Button bookBtn = new Button("Carte");
+        bookBtn.setOnAction(e -> {
+            if (connected.get()) {
+                sendCommand("BOOK_HINT");
+            }
+        });
+        analysisLbl.setStyle("-fx-font-family: Monospaced; -fx-font-size: 12px;");
+        analysisLbl.setPadding(new Insets(0, 10, 0, 10));
 
         // Bara de sus cu informatii
         HBox topBar = new HBox(10, statusLbl, new Separator(), colorLbl, new Separator(), turnLbl, new Separator(),
-                undoBtn, resetBtn);
+                undoBtn, resetBtn, engineBtn, analysisBtn, bookBtn);
         topBar.setPadding(new Insets(10));
         topBar.setAlignment(Pos.CENTER_LEFT);
 
         // Cream tabla de sah
-        board = new BoardView();
+        board = BoardView.create(vreauCanvas);
 
         // Ce se intampla cand incercam sa mutam o piesa cu mouse-ul
         board.setOnMoveAttempt((from, to) -> {
             if (!connected.get()) {
                 return;
             }
-            sendJson(om.createObjectNode()
-                    .put("type", "MAKE_MOVE")
-                    .put("from", from)
-                    .put("to", to)
-                    .toString());
+            sendMove(from, to);
         });
 
         // Punem totul in fereastra
         BorderPane root = new BorderPane();
         root.setTop(topBar);
-        root.setCenter(board);
-        root.setBottom(wsLog);
+        root.setCenter(board.asNode());
+        statsLbl.setPadding(new Insets(0, 10, 0, 10));
+        root.setBottom(new VBox(5, analysisLbl, statsLbl, wsLog));
 
-        stage.setTitle("Joc de sah - " + serverHost);
+        stage.setTitle("Joc de sah - " + serverHost + " / " + gameId);
         stage.setScene(new Scene(root, 800, 850)); // Dimensiunea ferestrei
         stage.show();
 
+        // Mesajele de la server le aplicam o data pe frame, nu cate un Platform.runLater pentru fiecare
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                aplicaMesaje();
+            }
+        }.start();
+
         // Ne conectam efectiv la server
         connectWs(url);
     }
@@ -172,27 +270,59 @@ public class ChessApp extends Application {
      */
     private void connectWs(String url) {
         try {
-            HttpClient.newHttpClient()
-                    .newWebSocketBuilder()
-                    .buildAsync(URI.create(url), new WebSocket.Listener() {
+            WebSocket.Builder builder = HttpClient.newHttpClient().newWebSocketBuilder();
+            if (vreauBinar) {
+                builder.subprotocols(BinaryCodec.SUBPROTOCOL);
+            }
+            builder.buildAsync(URI.create(url), new WebSocket.Listener() {
                         @Override
                         public void onOpen(WebSocket webSocket) {
                             ws = webSocket;
+                            // Serverul a acceptat protocolul binar? Daca nu, ramanem pe JSON.
+                            binar = BinaryCodec.SUBPROTOCOL.equals(webSocket.getSubprotocol());
                             connected.set(true);
                             updateStatus("CONECTAT!");
-                            log("Succes conectare!");
+                            log("Succes conectare! (" + (binar ? "binar" : "JSON") + ")");
                             WebSocket.Listener.super.onOpen(webSocket);
                         }
 
                         @Override
                         public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
-                            // Cand primim un mesaj de la server
-                            String json = data.toString();
-                            log("Primit: " + json);
-                            handleMessage(json);
+                            // Cand primim un mesaj de la server (poate veni in mai multe bucati)
+                            textPartial.append(data);
+                            if (last) {
+                                String json = textPartial.toString();
+                                textPartial.setLength(0);
+                                log("Primit: " + json);
+                                handleMessage(json);
+                            }
                             return WebSocket.Listener.super.onText(webSocket, data, last);
                         }
 
+                        @Override
+                        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+                            // Lipim bucatile pana avem tot frame-ul
+                            if (binarPartial.remaining() < data.remaining()) {
+                                ByteBuffer mai = ByteBuffer.allocate(binarPartial.position() + data.remaining() + 256);
+                                binarPartial.flip();
+                                mai.put(binarPartial);
+                                binarPartial = mai;
+                            }
+                            binarPartial.put(data);
+                            if (last) {
+                                binarPartial.flip();
+                                try {
+                                    ServerEvent ev = BinaryCodec.decode(binarPartial);
+                                    log("Primit (binar): " + ev);
+                                    handleMessage(ev);
+                                } catch (Exception e) {
+                                    e.printStackTrace();
+                                }
+                                binarPartial.clear();
+                            }
+                            return WebSocket.Listener.super.onBinary(webSocket, data, last);
+                        }
+
                         @Override
                         public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
                             connected.set(false);
@@ -217,63 +347,296 @@ public class ChessApp extends Application {
      */
     private void handleMessage(String json) {
         try {
-            JsonNode root = om.readTree(json);
-            String type = root.path("type").asText();
-
-            Platform.runLater(() -> {
-                switch (type) {
-                    case "WELCOME":
-                        // Mesaj de bun venit
-                        myColor = root.path("color").asText();
-                        String fen = root.path("fen").asText();
-                        board.setPosition(fen);
-
-                        // Afisam culoarea noastra
-                        if (myColor.equals("WHITE")) {
-                            colorLbl.setText("Esti: ALB");
-                            colorLbl.setTextFill(Color.ORANGE);
-                        } else {
-                            colorLbl.setText("Esti: NEGRU");
-                            colorLbl.setTextFill(Color.BLACK);
-                        }
-                        break;
-                    case "MOVE_APPLIED":
-                        // S-a facut o mutare, actualizam tabla
-                        String fenMove = root.path("fen").asText();
-                        board.setPosition(fenMove);
-
-                        // Vedem al cui e randul (doar informativ)
-                        boolean whiteToMove = fenMove.contains(" w ");
-                        if (whiteToMove) {
-                            turnLbl.setText("Urmeaza: ALBUL");
-                        } else {
-                            turnLbl.setText("Urmeaza: NEGRUL");
-                        }
+            handleMessage(JsonCodec.decode(json));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Pe thread-ul conexiunii: doar punem mesajul in coada, il aplica aplicaMesaje la urmatorul frame
+    private void handleMessage(ServerEvent ev) {
+        inbox.add(ev);
+    }
+
+    /**
+     * Pe thread-ul FX, o data pe frame: aplica tot ce a venit de la frame-ul trecut.
+     *
+     * Dintr-o rafala de mesaje (reluare dupa reconectare, blitz rapid) desenam doar pozitia finala:
+     * mutarile de dinaintea ultimei pozitii complete (WELCOME, MOVE_APPLIED, GAME_OVER) nu mai conteaza,
+     * iar delta-urile de dupa ea se aduna intr-unul singur. Din analize si din carte aratam doar ultima.
+     */
+    private void aplicaMesaje() {
+        for (ServerEvent ev; (ev = inbox.poll()) != null; ) {
+            lot.add(ev);
+        }
+        if (!lot.isEmpty()) {
+            aplicaLot();
+            lot.clear();
+        }
+        afiseazaLog();
+    }
+
+    private void aplicaLot() {
+        // Ultima pozitie completa din lot: ce e inaintea ei e deja depasit
+        int ultimaCompleta = -1;
+        for (int i = 0; i < lot.size(); i++) {
+            ServerEvent.Type t = lot.get(i).type;
+            if (t == ServerEvent.Type.WELCOME || t == ServerEvent.Type.MOVE_APPLIED || t == ServerEvent.Type.GAME_OVER) {
+                ultimaCompleta = i;
+            }
+        }
+
+        boolean pozitieNoua = false;
+        // Ultima delta aplicata (pentru al cui e randul); patratele tuturor sunt in deltaAdunat
+        ServerEvent ultimaDelta = null;
+        // Ultimul rezultat de analiza sau din carte (amandoua scriu in analysisLbl)
+        ServerEvent ultimText = null;
+        ServerEvent jucatori = null;
+
+        for (int i = 0; i < lot.size(); i++) {
+            ServerEvent ev = lot.get(i);
+            boolean depasit = i < ultimaCompleta;
+            switch (ev.type) {
+                case WELCOME:
+                    // Mesaj de bun venit
+                    myColor = ev.color;
+
+                    // Afisam culoarea noastra
+                    if ("WHITE".equals(myColor)) {
+                        colorLbl.setText("Esti: ALB");
+                        colorLbl.setTextFill(Color.ORANGE);
+                    } else if ("SPECTATOR".equals(myColor)) {
+                        // Jocul avea deja 2 jucatori, doar ne uitam
+                        colorLbl.setText("Esti: SPECTATOR");
+                        colorLbl.setTextFill(Color.GRAY);
+                    } else {
+                        colorLbl.setText("Esti: NEGRU");
+                        colorLbl.setTextFill(Color.BLACK);
+                    }
+                    pozitiiPrimite++;
+                    resyncCerut = false;
+                    if (depasit) {
+                        pozitiiSarite++;
                         break;
-                    case "PLAYERS_UPDATE":
-                        // Cati jucatori sunt
-                        int count = root.path("count").asInt();
-                        playersLbl.setText("Jucatori: " + count);
+                    }
+                    board.setPosition(ev.fen);
+                    lastSeq = ev.seq;
+                    albulLaMutare = ev.fen.contains(" w ");
+                    pozitieNoua = true;
+                    break;
+                case MOVE_DELTA:
+                    // S-a facut o mutare: primim doar patratele schimbate
+                    pozitiiPrimite++;
+                    if (depasit || resyncCerut) {
+                        // Depasita, sau vine oricum pozitia completa ceruta cu RESYNC
+                        pozitiiSarite++;
                         break;
-                    case "GAME_OVER":
-                        // S-a terminat jocul
-                        String winner = root.path("winner").asText();
-                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                        alert.setTitle("Joc Gata");
-                        alert.setHeaderText("Castigator: " + winner);
-                        alert.showAndWait();
-
-                        // Resetam automat
-                        sendJson("{\"type\":\"RESET_GAME\"}");
+                    }
+                    if (ev.seq != lastSeq + 1) {
+                        // Am pierdut ceva pe drum, cerem toata tabla (o singura data, pana vine)
+                        log("Desincronizat (" + lastSeq + " -> " + ev.seq + "), cer RESYNC");
+                        resyncCerut = true;
+                        sendCommand("RESYNC");
                         break;
-                    case "ERROR":
-                        String msg = root.path("message").asText();
-                        log("EROARE: " + msg);
+                    }
+                    lastSeq = ev.seq;
+                    if (ultimaDelta != null) {
+                        // Se deseneaza impreuna cu cea de dinainte
+                        pozitiiSarite++;
+                    }
+                    deltaAdunat.putAll(ev.changes);
+                    ultimaDelta = ev;
+                    break;
+                case MOVE_APPLIED:
+                    // Pozitia completa (reset, undo sau resync), actualizam toata tabla
+                    pozitiiPrimite++;
+                    resyncCerut = false;
+                    if (depasit) {
+                        pozitiiSarite++;
                         break;
-                }
-            });
-        } catch (Exception e) {
-            e.printStackTrace();
+                    }
+                    board.setPosition(ev.fen);
+                    lastSeq = ev.seq;
+
+                    // Vedem al cui e randul (doar informativ)
+                    boolean whiteToMove = ev.fen.contains(" w ");
+                    afiseazaRandul(whiteToMove, ev.check);
+                    pozitieNoua = true;
+                    break;
+                case PLAYERS_UPDATE:
+                    jucatori = ev;
+                    break;
+                case GAME_OVER:
+                    // S-a terminat jocul
+                    pozitiiPrimite++;
+                    resyncCerut = false;
+                    if (depasit) {
+                        pozitiiSarite++;
+                    } else {
+                        board.setPosition(ev.fen);
+                        lastSeq = ev.seq;
+                    }
+                    // showAndWait nu e voie in timpul unui frame: fereastra o deschidem imediat dupa
+                    Platform.runLater(() -> anuntaSfarsit(ev));
+                    break;
+                case ERROR:
+                    log("EROARE: " + ev.message);
+                    break;
+                case ANALYSIS_UPDATE:
+                case BOOK_MOVES:
+                    ultimText = ev;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (ultimaDelta != null) {
+            // Toate mutarile din frame, desenate o singura data
+            board.applyDelta(deltaAdunat);
+            deltaAdunat.clear();
+            afiseazaRandul(ultimaDelta.whiteTurn, ultimaDelta.check);
+            pozitieNoua = true;
+        }
+        if (pozitieNoua) {
+            pozitieNoua();
+        }
+        if (jucatori != null) {
+            // Cati jucatori sunt
+            playersLbl.setText("Jucatori: " + jucatori.count
+                    + (jucatori.spectators > 0 ? " (+" + jucatori.spectators + " spectatori)" : ""));
+        }
+        // Ignoram rezultatele pentru o pozitie care nu mai e pe tabla
+        if (ultimText != null && ultimText.seq == lastSeq) {
+            if (ultimText.type == ServerEvent.Type.ANALYSIS_UPDATE) {
+                afiseazaAnaliza(ultimText);
+            } else {
+                afiseazaCarte(ultimText);
+            }
+        }
+        if (pozitiiSarite > 0) {
+            statsLbl.setText("Pozitii primite: " + pozitiiPrimite + ", sarite (inlocuite in acelasi frame): "
+                    + pozitiiSarite);
+        }
+    }
+
+    private void anuntaSfarsit(ServerEvent ev) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Joc Gata");
+        if (ev.winner != null) {
+            alert.setHeaderText("Castigator: " + ev.winner + " (" + ev.reason + ")");
+        } else {
+            // Remiza (ex: pat)
+            alert.setHeaderText("Remiza: " + ev.reason);
+        }
+        alert.showAndWait();
+
+        // Resetam automat (spectatorii nu au voie, o face unul dintre jucatori)
+        if (!"SPECTATOR".equals(myColor)) {
+            sendCommand("RESET_GAME");
+        }
+    }
+
+    /**
+     * S-a schimbat pozitia: daca analizam, cerem analiza pozitiei noi (serverul o opreste pe cea veche).
+     */
+    private void pozitieNoua() {
+        analysisLbl.setText("");
+        if (analiza) {
+            sendAnalyze();
+        }
+    }
+
+    // Scorurile le aratam din partea albului, ca pe orice tabla de analiza: +1.50 = albul sta mai bine
+    private void afiseazaAnaliza(ServerEvent ev) {
+        StringBuilder text = new StringBuilder();
+        text.append("Adancime ").append(ev.depth).append(", ").append(ev.nodes / 1000).append("k noduri, ")
+                .append(ev.nps / 1000).append("k noduri/s").append(ev.done ? " (gata)" : "");
+        for (ServerEvent.Line line : ev.lines) {
+            int semn = albulLaMutare ? 1 : -1;
+            String scor = line.mate != 0 ? "#" + semn * line.mate
+                    : String.format("%+.2f", semn * line.score / 100.0);
+            String pv = line.pv.length() > 60 ? line.pv.substring(0, 60) + "..." : line.pv;
+            text.append('\n').append(String.format("%7s  ", scor)).append(pv);
+        }
+        analysisLbl.setText(text.toString());
+    }
+
+    // Mutarile din carte, cu cat la suta din partide le joaca
+    private void afiseazaCarte(ServerEvent ev) {
+        if (ev.bookMoves.isEmpty()) {
+            analysisLbl.setText("Pozitia nu e in carte");
+            return;
+        }
+        int total = 0;
+        for (ServerEvent.BookMove m : ev.bookMoves) {
+            total += m.weight;
+        }
+        StringBuilder text = new StringBuilder("Carte:");
+        for (ServerEvent.BookMove m : ev.bookMoves) {
+            text.append('\n').append(String.format("%-6s %3d%%", m.move, Math.round(100.0 * m.weight / total)));
+        }
+        analysisLbl.setText(text.toString());
+    }
+
+    private void afiseazaRandul(boolean whiteToMove, boolean check) {
+        albulLaMutare = whiteToMove;
+        String sah = check ? " (SAH!)" : "";
+        if (whiteToMove) {
+            turnLbl.setText("Urmeaza: ALBUL" + sah);
+        } else {
+            turnLbl.setText("Urmeaza: NEGRUL" + sah);
+        }
+    }
+
+    /**
+     * Trimite o mutare (JSON sau binar, dupa protocolul conexiunii).
+     */
+    private void sendMove(String from, String to) {
+        if (binar) {
+            sendBinary(BinaryCodec.encodeMove(from, to), "MAKE_MOVE " + from + to);
+        } else {
+            sendJson(JsonCodec.encodeMove(from, to));
+        }
+    }
+
+    /**
+     * Trimite o comanda fara parametri ("UNDO_MOVE", "RESET_GAME", "RESYNC", "STOP_ANALYSIS", "BOOK_HINT").
+     */
+    private void sendCommand(String type) {
+        if (binar) {
+            sendBinary(BinaryCodec.encodeCommand(type), type);
+        } else {
+            sendJson(JsonCodec.encodeCommand(type));
+        }
+    }
+
+    /**
+     * Porneste (color = null, calculatorul ia cealalta culoare) sau opreste ("NONE") jocul cu calculatorul.
+     */
+    private void sendPlayVsEngine(String color) {
+        if (binar) {
+            sendBinary(BinaryCodec.encodePlayVsEngine(color, 0), "PLAY_VS_ENGINE " + color);
+        } else {
+            sendJson(JsonCodec.encodePlayVsEngine(color, 0));
+        }
+    }
+
+    /**
+     * Cere analiza pozitiei curente: fara limita de timp (cat permite serverul), 3 variante.
+     */
+    private void sendAnalyze() {
+        if (binar) {
+            sendBinary(BinaryCodec.encodeAnalyze(0, 0, 3), "ANALYZE");
+        } else {
+            sendJson(JsonCodec.encodeAnalyze(0, 0, 3));
+        }
+    }
+
+    private void sendBinary(ByteBuffer data, String descriere) {
+        if (ws != null && connected.get()) {
+            ws.sendBinary(data, true);
+            log("Trimis (binar): " + descriere);
         }
     }
 
@@ -288,10 +651,22 @@ public class ChessApp extends Application {
         Platform.runLater(() -> statusLbl.setText(text));
     }
 
+    // Se poate apela de pe orice thread; randurile ajung in wsLog la urmatorul frame
     private void log(String line) {
-        Platform.runLater(() -> {
-            wsLog.appendText("[" + LocalTime.now().format(HHMMSS) + "] " + line + "\n");
-        });
+        logInbox.add("[" + LocalTime.now().format(HHMMSS) + "] " + line + "\n");
+    }
+
+    // Toate randurile venite de la frame-ul trecut, intr-un singur appendText
+    private void afiseazaLog() {
+        String rand = logInbox.poll();
+        if (rand == null) {
+            return;
+        }
+        StringBuilder text = new StringBuilder(rand);
+        while ((rand = logInbox.poll()) != null) {
+            text.append(rand);
+        }
+        wsLog.appendText(text.toString());
     }
 
     public static void main(String[] args) {
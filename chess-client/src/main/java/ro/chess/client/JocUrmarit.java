@@ -0,0 +1,266 @@
+package ro.chess.client;
+
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import ro.chess.client.codec.BinaryCodec;
+import ro.chess.client.codec.JsonCodec;
+import ro.chess.client.codec.ServerEvent;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Un joc urmarit in TurneuApp: conexiunea lui la server (ca spectator) si tabla mica pe care il desenam.
+ *
+ * Mesajele vin pe thread-urile HttpClient-ului si acolo nu desenam nimic, doar adunam ce s-a schimbat de la
+ * ultimul frame: o pozitie completa (WELCOME, MOVE_APPLIED, GAME_OVER) inlocuieste tot ce astepta, iar
+ * delta-urile se pun peste, patrat cu patrat (un patrat mutat de 3 ori se deseneaza o singura data).
+ * TurneuApp cere desenarea o data pe frame, si doar pentru tablele care se vad pe ecran.
+ */
+final class JocUrmarit {
+
+    private final String gameId;
+    private final TablaCanvas tabla;
+    private final Label eticheta;
+    private final VBox nod;
+
+    // Folosite doar de thread-ul conexiunii (Listener-ul primeste mesajele pe rand)
+    private volatile WebSocket ws;
+    private boolean binar;
+    private long lastSeq = -1;
+    // Am cerut RESYNC si asteptam pozitia completa: pana atunci delta-urile nu ne folosesc
+    private boolean resyncCerut;
+    private final StringBuilder textPartial = new StringBuilder();
+    private ByteBuffer binarPartial = ByteBuffer.allocate(256);
+
+    // Ce asteapta sa fie desenat (sub lock pe this)
+    private String fenNou;
+    private final Map<String, String> schimbari = new HashMap<>();
+    private String textNou;
+    // Citit la fiecare frame fara lock, ca sa nu-l luam degeaba pentru tablele nemodificate
+    private volatile boolean deDesenat;
+
+    // Cate mesaje cu pozitii am primit si cate desenari am facut (diferenta = cate am sarit)
+    private long primite;
+    private long desenate;
+
+    /**
+     * @param marime latura unui patrat, in pixeli
+     */
+    JocUrmarit(String gameId, double marime) {
+        this.gameId = gameId;
+        this.tabla = new TablaCanvas(marime);
+        // Doar ne uitam: fara selectie la click
+        tabla.setMouseTransparent(true);
+        this.eticheta = new Label(gameId + ": se conecteaza...");
+        eticheta.setFont(Font.font(11));
+        eticheta.setMaxWidth(8 * marime);
+        this.nod = new VBox(2, tabla, eticheta);
+        nod.setAlignment(Pos.TOP_CENTER);
+    }
+
+    Node asNode() {
+        return nod;
+    }
+
+    /**
+     * Deschide conexiunea: ws://host:8080/ws?game=...&role=spectator (nu ocupam locul unui jucator).
+     */
+    void conecteaza(HttpClient http, String host, boolean vreauBinar) {
+        String url = "ws://" + host + ":8080/ws?game=" + URLEncoder.encode(gameId, StandardCharsets.UTF_8)
+                + "&role=spectator";
+        WebSocket.Builder builder = http.newWebSocketBuilder();
+        if (vreauBinar) {
+            builder.subprotocols(BinaryCodec.SUBPROTOCOL);
+        }
+        builder.buildAsync(URI.create(url), new WebSocket.Listener() {
+            @Override
+            public void onOpen(WebSocket webSocket) {
+                ws = webSocket;
+                binar = BinaryCodec.SUBPROTOCOL.equals(webSocket.getSubprotocol());
+                WebSocket.Listener.super.onOpen(webSocket);
+            }
+
+            @Override
+            public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                textPartial.append(data);
+                if (last) {
+                    String json = textPartial.toString();
+                    textPartial.setLength(0);
+                    try {
+                        onEvent(JsonCodec.decode(json));
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+                return WebSocket.Listener.super.onText(webSocket, data, last);
+            }
+
+            @Override
+            public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+                if (binarPartial.remaining() < data.remaining()) {
+                    ByteBuffer mai = ByteBuffer.allocate(binarPartial.position() + data.remaining() + 256);
+                    binarPartial.flip();
+                    mai.put(binarPartial);
+                    binarPartial = mai;
+                }
+                binarPartial.put(data);
+                if (last) {
+                    binarPartial.flip();
+                    try {
+                        onEvent(BinaryCodec.decode(binarPartial));
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                    binarPartial.clear();
+                }
+                return WebSocket.Listener.super.onBinary(webSocket, data, last);
+            }
+
+            @Override
+            public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+                ws = null;
+                text("deconectat");
+                return WebSocket.Listener.super.onClose(webSocket, statusCode, reason);
+            }
+
+            @Override
+            public void onError(WebSocket webSocket, Throwable error) {
+                ws = null;
+                text("eroare: " + error.getMessage());
+            }
+        }).exceptionally(e -> {
+            text("nu m-am putut conecta");
+            return null;
+        });
+    }
+
+    void inchide() {
+        WebSocket w = ws;
+        if (w != null) {
+            w.sendClose(WebSocket.NORMAL_CLOSURE, "");
+        }
+    }
+
+    // Pe thread-ul conexiunii: doar tinem minte ce e de desenat
+    private void onEvent(ServerEvent ev) {
+        switch (ev.type) {
+            case WELCOME, MOVE_APPLIED -> {
+                lastSeq = ev.seq;
+                resyncCerut = false;
+                pozitie(ev.fen, randul(ev.fen.contains(" w "), ev.check));
+            }
+            case MOVE_DELTA -> {
+                if (resyncCerut) {
+                    return;
+                }
+                if (ev.seq != lastSeq + 1) {
+                    // Am pierdut ceva pe drum, cerem toata tabla (vine ca MOVE_APPLIED), o singura data
+                    resyncCerut = true;
+                    sendResync();
+                    return;
+                }
+                lastSeq = ev.seq;
+                synchronized (this) {
+                    schimbari.putAll(ev.changes);
+                    textNou = randul(ev.whiteTurn, ev.check);
+                    primite++;
+                    deDesenat = true;
+                }
+            }
+            case GAME_OVER -> {
+                lastSeq = ev.seq;
+                resyncCerut = false;
+                pozitie(ev.fen, ev.winner != null ? "castiga " + ev.winner + " (" + ev.reason + ")"
+                        : "remiza (" + ev.reason + ")");
+            }
+            default -> {
+            }
+        }
+    }
+
+    // O pozitie completa: ce astepta inainte nu mai conteaza
+    private synchronized void pozitie(String fen, String text) {
+        fenNou = fen;
+        schimbari.clear();
+        textNou = text;
+        primite++;
+        deDesenat = true;
+    }
+
+    private synchronized void text(String text) {
+        textNou = text;
+        deDesenat = true;
+    }
+
+    private void sendResync() {
+        WebSocket w = ws;
+        if (w == null) {
+            return;
+        }
+        if (binar) {
+            w.sendBinary(BinaryCodec.encodeCommand("RESYNC"), true);
+        } else {
+            w.sendText(JsonCodec.RESYNC, true);
+        }
+    }
+
+    private static String randul(boolean whiteToMove, boolean check) {
+        return (whiteToMove ? "muta albul" : "muta negrul") + (check ? " (sah)" : "");
+    }
+
+    /**
+     * Are ceva nou de la ultima desenare?
+     */
+    boolean areDeDesenat() {
+        return deDesenat;
+    }
+
+    /**
+     * Pe thread-ul FX: deseneaza tot ce s-a adunat de la ultima desenare.
+     */
+    void deseneaza() {
+        String fen;
+        Map<String, String> delta;
+        String text;
+        synchronized (this) {
+            fen = fenNou;
+            delta = schimbari.isEmpty() ? Map.of() : new HashMap<>(schimbari);
+            text = textNou;
+            fenNou = null;
+            schimbari.clear();
+            textNou = null;
+            if (fen != null || !delta.isEmpty()) {
+                desenate++;
+            }
+            deDesenat = false;
+        }
+        if (fen != null) {
+            tabla.setPosition(fen);
+        }
+        if (!delta.isEmpty()) {
+            tabla.applyDelta(delta);
+        }
+        if (text != null) {
+            eticheta.setText(gameId + ": " + text);
+        }
+    }
+
+    /**
+     * Cate pozitii primite nu au fost desenate separat (au fost adunate cu altele intr-un singur frame,
+     * sau inca asteapta sa se vada tabla).
+     */
+    synchronized long sarite() {
+        return primite - desenate;
+    }
+}
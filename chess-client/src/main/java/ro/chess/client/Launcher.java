@@ -1,7 +1,14 @@
 package ro.chess.client;
 
+import java.util.Arrays;
+
 public class Launcher {
     public static void main(String[] args) {
-        ChessApp.main(args);
+        // --turneu: ecranul cu multe partide deodata (vezi TurneuApp)
+        if (args.length > 0 && args[0].equals("--turneu")) {
+            TurneuApp.main(Arrays.copyOfRange(args, 1, args.length));
+        } else {
+            ChessApp.main(args);
+        }
     }
 }
@@ -10,7 +10,7 @@ import javafx.scene.shape.Rectangle;
  * Clasa de Baza pentru Tabla.
  * Se ocupa DOAR de desenarea patratelelor (alb/verde).
  * 
- * Aici demonstram mostenirea: TablaBaza -> TablaSah (BoardView).
+ * Aici demonstram mostenirea: TablaBaza -> TablaSah (o implementare a BoardView).
  */
 public class TablaBaza extends GridPane {
 
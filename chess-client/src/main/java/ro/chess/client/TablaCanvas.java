@@ -0,0 +1,182 @@
+package ro.chess.client;
+
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseButton;
+import javafx.scene.paint.Color;
+import ro.chess.client.util.BoardUtils;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Tabla de sah desenata pe un singur Canvas, in loc de 64 de celule cu Rectangle si ImageView (TablaSah).
+ *
+ * Nu avem noduri pentru patrate sau piese, deci nici CSS sau layout pentru ele: la o pozitie noua
+ * redesenam (fundal + piesa) doar patratele in care s-a schimbat ceva, iar la selectie doar patratul
+ * vechi si pe cel nou. Click-ul il transformam in patrat impartind coordonatele la marimea patratului.
+ * Piesele vin din Assets deja scalate la marimea lor pe ecran, deci drawImage doar copiaza pixelii.
+ */
+public class TablaCanvas extends Canvas implements BoardView {
+
+    private static final Color ALB = Color.web("#EEEED2");
+    private static final Color VERDE = Color.web("#769656");
+    private static final double CONTUR = 4;
+
+    private final double marime;
+    private final GraphicsContext gc;
+
+    // Imaginile pieselor la marimea noastra (null cat timp tabla nu e intr-o fereastra)
+    private Assets.SetPiese sprite;
+
+    // Matricea logica de piese si ce e desenat acum in fiecare patrat
+    private final String[][] piese = new String[8][8];
+    private final String[][] desenate = new String[8][8];
+    // La inceput nimic nu e desenat, nici fundalul
+    private boolean fundalDesenat = false;
+
+    private BiConsumer<String, String> moveHandler;
+
+    // Patratul selectat (rand * 8 + coloana), -1 = niciunul
+    private int selectat = -1;
+
+    public TablaCanvas() {
+        this(TablaBaza.MARIME_PATRAT);
+    }
+
+    /**
+     * @param marime latura unui patrat, in pixeli
+     */
+    public TablaCanvas(double marime) {
+        super(8 * marime, 8 * marime);
+        this.marime = marime;
+        this.gc = getGraphicsContext2D();
+        // Setul de piese il primim cand tabla ajunge intr-o fereastra (si il dam inapoi cand iese)
+        Assets.leagaDeFereastra(this, marime * Assets.LATURA_PIESA, this::schimbaSet);
+
+        setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY) {
+                int col = (int) (e.getX() / marime);
+                int rand = (int) (e.getY() / marime);
+                if (rand >= 0 && rand < 8 && col >= 0 && col < 8) {
+                    onClickPatrat(rand, col);
+                }
+            }
+        });
+
+        // Pozitia de start standard (FEN)
+        setPosition("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1");
+    }
+
+    @Override
+    public Node asNode() {
+        return this;
+    }
+
+    @Override
+    public void setOnMoveAttempt(BiConsumer<String, String> handler) {
+        this.moveHandler = handler;
+    }
+
+    @Override
+    public void setPosition(String fen) {
+        BoardUtils.parseFen(fen, piese);
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                if (!fundalDesenat || !Objects.equals(piese[r][c], desenate[r][c])) {
+                    deseneazaPatrat(r, c);
+                }
+            }
+        }
+        fundalDesenat = true;
+        // Resetam selectia daca tabla s-a schimbat din exterior
+        selecteaza(-1);
+    }
+
+    @Override
+    public void applyDelta(Map<String, String> schimbari) {
+        for (Map.Entry<String, String> e : schimbari.entrySet()) {
+            String sq = e.getKey();
+            int c = BoardUtils.getIndexColoana(sq.charAt(0));
+            int r = BoardUtils.getIndexRand(sq.charAt(1));
+            piese[r][c] = e.getValue();
+            deseneazaPatrat(r, c);
+        }
+        selecteaza(-1);
+    }
+
+    // Alt set de piese (tabla pusa in fereastra, alt ecran, sau scoasa = null): redesenam tot
+    private void schimbaSet(Assets.SetPiese set) {
+        sprite = set;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                deseneazaPatrat(r, c);
+            }
+        }
+    }
+
+    // Redeseneaza un singur patrat: fundalul, conturul daca e selectat, piesa
+    private void deseneazaPatrat(int r, int c) {
+        double x = c * marime;
+        double y = r * marime;
+        gc.setFill((r + c) % 2 == 0 ? ALB : VERDE);
+        gc.fillRect(x, y, marime, marime);
+
+        if (selectat == r * 8 + c) {
+            gc.setStroke(Color.GOLD);
+            gc.setLineWidth(CONTUR);
+            gc.strokeRect(x + CONTUR / 2, y + CONTUR / 2, marime - CONTUR, marime - CONTUR);
+        }
+
+        String codPiesa = piese[r][c];
+        desenate[r][c] = codPiesa;
+        if (codPiesa != null) {
+            Image img = sprite == null ? null : sprite.get(codPiesa);
+            if (img != null) {
+                // Ca in TablaSah: 85% din patrat, centrata
+                double latura = marime * Assets.LATURA_PIESA;
+                gc.drawImage(img, x + (marime - latura) / 2, y + (marime - latura) / 2, latura, latura);
+            }
+        }
+    }
+
+    private void onClickPatrat(int rand, int col) {
+        String coordonata = BoardUtils.toSquare(rand, col); // ex: "e4"
+
+        if (selectat < 0) {
+            // Nu am selectat nimic -> incercam sa selectam
+            if (piese[rand][col] != null) {
+                selecteaza(rand * 8 + col);
+                setCursor(Cursor.HAND);
+            }
+        } else {
+            // Aveam deja o piesa selectata -> vrem sa MUTAM aici
+            if (moveHandler != null) {
+                moveHandler.accept(BoardUtils.toSquare(selectat / 8, selectat % 8), coordonata);
+            }
+
+            // Indiferent ce se intampla, deselectam dupa click
+            selecteaza(-1);
+            setCursor(Cursor.DEFAULT);
+        }
+    }
+
+    // Muta conturul galben: redesenam doar patratul vechi si pe cel nou
+    private void selecteaza(int patrat) {
+        if (patrat == selectat) {
+            return;
+        }
+        int vechi = selectat;
+        selectat = patrat;
+        if (vechi >= 0) {
+            deseneazaPatrat(vechi / 8, vechi % 8);
+        }
+        if (patrat >= 0) {
+            deseneazaPatrat(patrat / 8, patrat % 8);
+        }
+    }
+}
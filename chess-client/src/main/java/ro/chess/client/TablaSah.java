@@ -0,0 +1,239 @@
+package ro.chess.client;
+
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseButton;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.paint.Color;
+import javafx.scene.layout.StackPane;
+import ro.chess.client.util.BoardUtils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Tabla de sah "activa", facuta din noduri JavaFX (o celula StackPane cu Rectangle si ImageView
+ * pentru fiecare patrat). Varianta pe un singur Canvas e TablaCanvas.
+ * Extinde TablaBaza (mostenire) si adauga logica pieselor si a click-urilor.
+ *
+ * Desenam incremental: tinem minte ce piesa se vede in fiecare celula si, la o pozitie noua,
+ * atingem doar celulele in care s-a schimbat ceva. ImageView-urile nu se creeaza la fiecare mutare:
+ * o celula care se goleste isi pune imaginea intr-un pool, de unde o ia urmatoarea celula care are nevoie.
+ * La fel, evidentierea schimba doar patratul vechi si pe cel nou, nu toate cele 64.
+ * Piesele vin din Assets deja scalate la marimea lor pe ecran, deci ImageView-urile nu mai scaleaza nimic.
+ */
+public class TablaSah extends TablaBaza implements BoardView {
+
+    // Matricea logica de piese (ex: "wP", "bQ")
+    private String[][] piese = new String[8][8];
+
+    // Ce se vede acum in fiecare celula: codul piesei si imaginea ei (null = celula goala)
+    private final String[][] afisate = new String[8][8];
+    private final ImageView[][] imagini = new ImageView[8][8];
+
+    // Imaginile scoase de pe tabla, gata de refolosit
+    private final Deque<ImageView> poolImagini = new ArrayDeque<>();
+
+    // Imaginile pieselor la marimea noastra (null cat timp tabla nu e intr-o fereastra)
+    private Assets.SetPiese sprite;
+
+    // Patratul cu contur galben (rand * 8 + coloana), -1 = niciunul
+    private int patratEvidentiat = -1;
+
+    // Cine asculta mutarile (ChessApp)
+    private BiConsumer<String, String> moveHandler;
+
+    // Patratelul selectat (ex: "e2")
+    private String patratSelectat = null;
+
+    public TablaSah() {
+        super(); // Apelam constructorul din TablaBaza ca sa deseneze grila
+
+        // Setul de piese il primim cand tabla ajunge intr-o fereastra (si il dam inapoi cand iese)
+        Assets.leagaDeFereastra(this, MARIME_PATRAT * Assets.LATURA_PIESA, this::schimbaSet);
+
+        // Adaugam logica de click pe fiecare patratel format in baza
+        setupClickHandlers();
+
+        // Pozitia de start standard (FEN)
+        setPosition("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1");
+    }
+
+    /**
+     * Parcurgem celule create de parinte si le punem click handler.
+     */
+    private void setupClickHandlers() {
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                final int rand = r;
+                final int col = c;
+                // 'celule' e protected in TablaBaza, deci il vedem aici
+                celule[r][c].setOnMouseClicked(e -> {
+                    if (e.getButton() == MouseButton.PRIMARY) {
+                        onClickPatrat(rand, col);
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public Node asNode() {
+        return this;
+    }
+
+    @Override
+    public void setOnMoveAttempt(BiConsumer<String, String> handler) {
+        this.moveHandler = handler;
+    }
+
+    /**
+     * Primeste un FEN string si pune piesele pe tabla.
+     */
+    @Override
+    public void setPosition(String fen) {
+        // 1-2. Golim matricea logica si citim FEN-ul in ea
+        BoardUtils.parseFen(fen, piese);
+
+        // 3. Redesenam doar celulele care difera de ce se vede acum
+        deseneazaPiese();
+    }
+
+    /**
+     * Aplica doar patratele schimbate de o mutare (mesajul MOVE_DELTA de la server).
+     * Cheia e patratul ("e4"), valoarea e piesa noua ("wP") sau null daca patratul s-a golit.
+     */
+    @Override
+    public void applyDelta(Map<String, String> schimbari) {
+        for (Map.Entry<String, String> e : schimbari.entrySet()) {
+            String sq = e.getKey();
+            int c = BoardUtils.getIndexColoana(sq.charAt(0));
+            int r = BoardUtils.getIndexRand(sq.charAt(1));
+            piese[r][c] = e.getValue();
+            deseneazaCelula(r, c);
+        }
+        // Resetam selectia daca tabla s-a schimbat din exterior
+        patratSelectat = null;
+        evidentiazaPatrat(null);
+    }
+
+    private void deseneazaPiese() {
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                if (!Objects.equals(piese[r][c], afisate[r][c])) {
+                    deseneazaCelula(r, c);
+                }
+            }
+        }
+        // Resetam selectia daca tabla s-a schimbat din exterior
+        patratSelectat = null;
+        evidentiazaPatrat(null);
+    }
+
+    private void deseneazaCelula(int r, int c) {
+        String codPiesa = piese[r][c];
+        if (Objects.equals(codPiesa, afisate[r][c])) {
+            return;
+        }
+        afisate[r][c] = codPiesa;
+        StackPane cell = celule[r][c];
+        ImageView img = imagini[r][c];
+
+        if (codPiesa == null) {
+            // Patratul s-a golit: imaginea merge in pool (fundalul ramane)
+            if (img != null) {
+                cell.getChildren().remove(img);
+                imagini[r][c] = null;
+                poolImagini.push(img);
+            }
+            return;
+        }
+        if (img == null) {
+            img = poolImagini.isEmpty() ? imagineNoua() : poolImagini.pop();
+            imagini[r][c] = img;
+            cell.getChildren().add(img);
+        }
+        // Luam imaginea din setul nostru; daca celula avea deja o piesa, doar ii schimbam poza
+        img.setImage(sprite == null ? null : sprite.get(codPiesa));
+    }
+
+    // Alt set de piese (tabla pusa in fereastra, alt ecran, sau scoasa = null): schimbam pozele afisate
+    private void schimbaSet(Assets.SetPiese set) {
+        sprite = set;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                if (imagini[r][c] != null) {
+                    imagini[r][c].setImage(set == null ? null : set.get(afisate[r][c]));
+                }
+            }
+        }
+    }
+
+    private static ImageView imagineNoua() {
+        ImageView img = new ImageView();
+        // Marimea in pixeli logici; imaginea are exact atatia pixeli reali, deci nu se mai scaleaza
+        img.setFitWidth(MARIME_PATRAT * Assets.LATURA_PIESA);
+        img.setFitHeight(MARIME_PATRAT * Assets.LATURA_PIESA);
+        img.setPreserveRatio(true);
+        img.setMouseTransparent(true); // Click-ul trece prin poza
+        return img;
+    }
+
+    private void onClickPatrat(int rand, int col) {
+        String coordonata = BoardUtils.toSquare(rand, col); // ex: "e4"
+        String piesaAici = piese[rand][col];
+
+        if (patratSelectat == null) {
+            // Nu am selectat nimic -> incercam sa selectam
+            if (piesaAici != null) {
+                patratSelectat = coordonata;
+                evidentiazaPatrat(coordonata);
+                setCursor(Cursor.HAND);
+            }
+        } else {
+            // Aveam deja o piesa selectata -> vrem sa MUTAM aici
+            if (moveHandler != null) {
+                moveHandler.accept(patratSelectat, coordonata);
+            }
+
+            // Indiferent ce se intampla, deselectam dupa click
+            patratSelectat = null;
+            evidentiazaPatrat(null);
+            setCursor(Cursor.DEFAULT);
+        }
+    }
+
+    // Deseneaza un contur galben pe patratul selectat (null = niciunul)
+    private void evidentiazaPatrat(String sq) {
+        int nou = -1;
+        if (sq != null) {
+            // Calculam rand/col din string (ex: "e4") folosind BoardUtils
+            int c = BoardUtils.getIndexColoana(sq.charAt(0));
+            int r = BoardUtils.getIndexRand(sq.charAt(1));
+            nou = r * 8 + c;
+        }
+        if (nou == patratEvidentiat) {
+            return;
+        }
+
+        // Stergem conturul doar de pe patratul evidentiat inainte
+        if (patratEvidentiat >= 0) {
+            fundal(patratEvidentiat).setStroke(null);
+        }
+        patratEvidentiat = nou;
+        if (nou >= 0) {
+            Rectangle bg = fundal(nou);
+            bg.setStroke(Color.GOLD);
+            bg.setStrokeWidth(4);
+        }
+    }
+
+    // Rectangle-ul de fundal al celulei (primul copil, pus de TablaBaza)
+    private Rectangle fundal(int index) {
+        return (Rectangle) celule[index / 8][index % 8].getChildren().get(0);
+    }
+}
@@ -0,0 +1,138 @@
+package ro.chess.client;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.geometry.Bounds;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.TilePane;
+import javafx.stage.Stage;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ecranul din sala de turneu: zeci de partide deodata, cate o tabla mica pentru fiecare, intr-un grid.
+ *
+ *   java -jar chess-client.jar --turneu --host=192.168.1.10 --mese=32
+ *   java -jar chess-client.jar --turneu --host=192.168.1.10 --patrat=24 --binar masa1 masa2 finala
+ *
+ * (--mese=N urmareste masa1 ... masaN; --prefix= schimba "masa"; --patrat= latura unui patrat in pixeli.)
+ *
+ * Fiecare joc are conexiunea lui, ca spectator (JocUrmarit), dar toate folosesc acelasi HttpClient (un singur
+ * thread de retea) si aceleasi imagini din Assets. Tablele sunt TablaCanvas: un nod pe tabla, nu ~200.
+ * Nu desenam la fiecare mesaj: un AnimationTimer trece o data pe frame prin jocuri si le deseneaza doar pe
+ * cele care au ceva nou si se vad in fereastra. Cele derulate afara din ecran isi aduna schimbarile (tot o
+ * singura pozitie, oricate mutari ar veni) si se deseneaza cand ajung din nou la vedere. Asa munca pe frame
+ * depinde de cate table se vad, nu de cate partide se joaca.
+ */
+public class TurneuApp extends Application {
+
+    private final List<JocUrmarit> jocuri = new ArrayList<>();
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    private final Label statusLbl = new Label();
+    private ScrollPane scroll;
+
+    @Override
+    public void start(Stage stage) {
+        Map<String, String> optiuni = getParameters().getNamed();
+        String host = optiuni.getOrDefault("host", "localhost");
+        double patrat = Double.parseDouble(optiuni.getOrDefault("patrat", "28"));
+        boolean binar = getParameters().getUnnamed().contains("--binar");
+
+        List<String> ids = new ArrayList<>();
+        for (String arg : getParameters().getUnnamed()) {
+            if (!arg.startsWith("--")) {
+                ids.add(arg);
+            }
+        }
+        if (ids.isEmpty()) {
+            int mese = Integer.parseInt(optiuni.getOrDefault("mese", "32"));
+            String prefix = optiuni.getOrDefault("prefix", "masa");
+            for (int i = 1; i <= mese; i++) {
+                ids.add(prefix + i);
+            }
+        }
+
+        TilePane grid = new TilePane(12, 12);
+        grid.setPadding(new Insets(12));
+        for (String id : ids) {
+            JocUrmarit joc = new JocUrmarit(id, patrat);
+            jocuri.add(joc);
+            grid.getChildren().add(joc.asNode());
+        }
+
+        scroll = new ScrollPane(grid);
+        scroll.setFitToWidth(true);
+        statusLbl.setPadding(new Insets(4, 12, 4, 12));
+
+        BorderPane root = new BorderPane(scroll);
+        root.setBottom(statusLbl);
+        stage.setTitle("Turneu - " + host + " (" + ids.size() + " partide)");
+        stage.setScene(new Scene(root, 1280, 900));
+        stage.show();
+
+        for (JocUrmarit joc : jocuri) {
+            joc.conecteaza(http, host, binar);
+        }
+
+        new AnimationTimer() {
+            private long ultimStatus;
+
+            @Override
+            public void handle(long now) {
+                deseneazaVizibile();
+                if (now - ultimStatus > 1_000_000_000L) {
+                    ultimStatus = now;
+                    afiseazaStatus();
+                }
+            }
+        }.start();
+    }
+
+    // O data pe frame: doar tablele cu schimbari care se vad acum in fereastra
+    private void deseneazaVizibile() {
+        Bounds vizibil = null;
+        for (JocUrmarit joc : jocuri) {
+            if (!joc.areDeDesenat()) {
+                continue;
+            }
+            if (vizibil == null) {
+                vizibil = scroll.localToScene(scroll.getLayoutBounds());
+            }
+            if (vizibil.intersects(joc.asNode().localToScene(joc.asNode().getLayoutBounds()))) {
+                joc.deseneaza();
+            }
+        }
+    }
+
+    private void afiseazaStatus() {
+        int inAsteptare = 0;
+        long sarite = 0;
+        for (JocUrmarit joc : jocuri) {
+            if (joc.areDeDesenat()) {
+                inAsteptare++;
+            }
+            sarite += joc.sarite();
+        }
+        statusLbl.setText(jocuri.size() + " partide, " + inAsteptare + " nedesenate (in afara ecranului), "
+                + sarite + " pozitii sarite");
+    }
+
+    @Override
+    public void stop() {
+        for (JocUrmarit joc : jocuri) {
+            joc.inchide();
+        }
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
@@ -0,0 +1,268 @@
+package ro.chess.client.codec;
+
+import ro.chess.client.util.BoardUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Protocolul binar ("chess-bin"), pereche cu BinaryCodec de pe server
+ * (acolo e descris formatul complet al fiecarui frame).
+ *
+ * Decodam frame-urile in acelasi ServerEvent pe care il da si JsonCodec,
+ * ca restul aplicatiei sa nu stie ce protocol folosim.
+ */
+public final class BinaryCodec {
+
+    public static final String SUBPROTOCOL = "chess-bin";
+
+    // Culoarea din WELCOME, dupa cod
+    private static final String[] SEAT_COLORS = { "WHITE", "BLACK", "SPECTATOR" };
+
+    private static final byte WELCOME = 1;
+    private static final byte MOVE_APPLIED = 2;
+    private static final byte MOVE_DELTA = 3;
+    private static final byte GAME_OVER = 4;
+    private static final byte PLAYERS_UPDATE = 5;
+    private static final byte ERROR = 6;
+    private static final byte ANALYSIS_UPDATE = 7;
+    private static final byte BOOK_MOVES = 8;
+
+    private static final byte MAKE_MOVE = (byte) 0x81;
+    private static final byte RESET_GAME = (byte) 0x82;
+    private static final byte UNDO_MOVE = (byte) 0x83;
+    private static final byte RESYNC = (byte) 0x84;
+    private static final byte PLAY_VS_ENGINE = (byte) 0x85;
+    private static final byte ANALYZE = (byte) 0x86;
+    private static final byte STOP_ANALYSIS = (byte) 0x87;
+    private static final byte BOOK_HINT = (byte) 0x88;
+
+    private static final String PIESE = "PNBRQKpnbrqk";
+    private static final String[] CODURI = { "wP", "wN", "wB", "wR", "wQ", "wK", "bP", "bN", "bB", "bR", "bQ", "bK" };
+    private static final String[] REZULTATE = { "1-0", "0-1", "1/2-1/2" };
+
+    private BinaryCodec() {
+    }
+
+    // ---------------------------------------------------------------
+    // Client -> server
+    // ---------------------------------------------------------------
+
+    /**
+     * MAKE_MOVE: 3 octeti (tipul + mutarea pe 16 biti). Pionii se transforma in regina.
+     */
+    public static ByteBuffer encodeMove(String from, String to) {
+        int move = patrat(from) | (patrat(to) << 6) | (4 << 12);
+        ByteBuffer b = ByteBuffer.allocate(3);
+        b.put(MAKE_MOVE).putShort((short) move).flip();
+        return b;
+    }
+
+    /**
+     * PLAY_VS_ENGINE: [0x85][culoarea calculatorului][adancime 0][timp de gandire u16, ms].
+     */
+    public static ByteBuffer encodePlayVsEngine(String color, int movetime) {
+        int c = color == null ? 3 : switch (color) {
+            case "WHITE" -> 0;
+            case "BLACK" -> 1;
+            default -> 2;
+        };
+        ByteBuffer b = ByteBuffer.allocate(5);
+        b.put(PLAY_VS_ENGINE).put((byte) c).put((byte) 0).putShort((short) Math.min(movetime, 0xFFFF)).flip();
+        return b;
+    }
+
+    /**
+     * ANALYZE: [0x86][adancime u8][timp u16, ms][variante u8] (0 = fara limita).
+     */
+    public static ByteBuffer encodeAnalyze(int depth, int movetime, int multiPv) {
+        ByteBuffer b = ByteBuffer.allocate(5);
+        b.put(ANALYZE).put((byte) Math.min(depth, 0xFF)).putShort((short) Math.min(movetime, 0xFFFF))
+                .put((byte) Math.min(multiPv, 0xFF)).flip();
+        return b;
+    }
+
+    /**
+     * Comenzile fara parametri: "RESET_GAME", "UNDO_MOVE", "RESYNC", "STOP_ANALYSIS", "BOOK_HINT".
+     */
+    public static ByteBuffer encodeCommand(String type) {
+        byte code = switch (type) {
+            case "RESET_GAME" -> RESET_GAME;
+            case "UNDO_MOVE" -> UNDO_MOVE;
+            case "RESYNC" -> RESYNC;
+            case "STOP_ANALYSIS" -> STOP_ANALYSIS;
+            case "BOOK_HINT" -> BOOK_HINT;
+            default -> throw new IllegalArgumentException("Comanda necunoscuta: " + type);
+        };
+        return ByteBuffer.wrap(new byte[] { code });
+    }
+
+    // ---------------------------------------------------------------
+    // Server -> client
+    // ---------------------------------------------------------------
+
+    public static ServerEvent decode(ByteBuffer b) {
+        ServerEvent ev = new ServerEvent();
+        byte type = b.get();
+        switch (type) {
+            case WELCOME -> {
+                ev.type = ServerEvent.Type.WELCOME;
+                int color = b.get() & 0xFF;
+                ev.color = color < SEAT_COLORS.length ? SEAT_COLORS[color] : "SPECTATOR";
+                ev.yourTurn = b.get() != 0;
+                ev.seq = b.getInt() & 0xFFFFFFFFL;
+                ev.fen = citestePozitie(b);
+                ev.game = citesteText(b);
+            }
+            case MOVE_APPLIED -> {
+                ev.type = ServerEvent.Type.MOVE_APPLIED;
+                ev.check = b.get() != 0;
+                ev.seq = b.getInt() & 0xFFFFFFFFL;
+                ev.fen = citestePozitie(b);
+            }
+            case MOVE_DELTA -> {
+                ev.type = ServerEvent.Type.MOVE_DELTA;
+                int flags = b.get();
+                ev.whiteTurn = (flags & 1) != 0;
+                ev.check = (flags & 2) != 0;
+                ev.seq = b.getInt() & 0xFFFFFFFFL;
+                int move = b.getShort() & 0xFFFF;
+                ev.move = citesteMutare(move);
+                int count = b.get() & 0xFF;
+                for (int i = 0; i < count; i++) {
+                    String sq = numePatrat(b.get() & 63);
+                    int piesa = b.get();
+                    ev.changes.put(sq, piesa == 0 ? null : CODURI[piesa - 1]);
+                }
+            }
+            case GAME_OVER -> {
+                ev.type = ServerEvent.Type.GAME_OVER;
+                int rezultat = b.get();
+                ev.result = REZULTATE[rezultat];
+                ev.winner = rezultat == 2 ? null : rezultat == 0 ? "ALBUL" : "NEGRUL";
+                ev.seq = b.getInt() & 0xFFFFFFFFL;
+                ev.fen = citestePozitie(b);
+                ev.reason = citesteText(b);
+            }
+            case PLAYERS_UPDATE -> {
+                ev.type = ServerEvent.Type.PLAYERS_UPDATE;
+                ev.whiteConnected = b.get() != 0;
+                ev.blackConnected = b.get() != 0;
+                ev.count = (ev.whiteConnected ? 1 : 0) + (ev.blackConnected ? 1 : 0);
+                // Serverele mai vechi nu trimit numarul de spectatori
+                ev.spectators = b.remaining() >= 2 ? b.getShort() & 0xFFFF : 0;
+            }
+            case ERROR -> {
+                ev.type = ServerEvent.Type.ERROR;
+                ev.message = citesteText(b);
+            }
+            case ANALYSIS_UPDATE -> {
+                ev.type = ServerEvent.Type.ANALYSIS_UPDATE;
+                ev.done = b.get() != 0;
+                ev.seq = b.getInt() & 0xFFFFFFFFL;
+                ev.depth = b.get() & 0xFF;
+                ev.nodes = b.getLong();
+                ev.nps = b.getInt() & 0xFFFFFFFFL;
+                b.getInt(); // milisecunde, nu le afisam
+                int n = b.get() & 0xFF;
+                for (int i = 0; i < n; i++) {
+                    ServerEvent.Line line = new ServerEvent.Line();
+                    line.score = b.getShort();
+                    line.mate = b.get();
+                    int k = b.get() & 0xFF;
+                    StringBuilder pv = new StringBuilder(k * 5);
+                    for (int j = 0; j < k; j++) {
+                        if (j > 0) {
+                            pv.append(' ');
+                        }
+                        pv.append(citesteMutare(b.getShort() & 0xFFFF));
+                    }
+                    line.pv = pv.toString();
+                    ev.lines.add(line);
+                }
+            }
+            case BOOK_MOVES -> {
+                ev.type = ServerEvent.Type.BOOK_MOVES;
+                ev.seq = b.getInt() & 0xFFFFFFFFL;
+                int n = b.get() & 0xFF;
+                for (int i = 0; i < n; i++) {
+                    ServerEvent.BookMove m = new ServerEvent.BookMove();
+                    m.move = citesteMutare(b.getShort() & 0xFFFF);
+                    m.weight = b.getShort() & 0xFFFF;
+                    ev.bookMoves.add(m);
+                }
+            }
+            default -> ev.type = ServerEvent.Type.UNKNOWN;
+        }
+        return ev;
+    }
+
+    // Mutarea pe 16 biti -> "e7e8q"
+    private static String citesteMutare(int move) {
+        String uci = numePatrat(move & 63) + numePatrat((move >>> 6) & 63);
+        int promo = (move >>> 12) & 7;
+        return promo >= 1 && promo <= 4 ? uci + " nbrq".charAt(promo) : uci;
+    }
+
+    // 34 de octeti -> FEN (doar piesele, cine muta si rocadele; restul nu ne trebuie in UI)
+    private static String citestePozitie(ByteBuffer b) {
+        byte[] patrate = new byte[32];
+        b.get(patrate);
+        int flags = b.get();
+        int ep = b.get() & 0xFF;
+
+        StringBuilder fen = new StringBuilder(72);
+        for (int rank = 7; rank >= 0; rank--) {
+            int gol = 0;
+            for (int file = 0; file < 8; file++) {
+                int sq = rank * 8 + file;
+                int nibble = (sq & 1) == 0 ? patrate[sq >>> 1] & 15 : (patrate[sq >>> 1] >>> 4) & 15;
+                if (nibble == 0) {
+                    gol++;
+                } else {
+                    if (gol > 0) {
+                        fen.append(gol);
+                        gol = 0;
+                    }
+                    fen.append(PIESE.charAt(nibble - 1));
+                }
+            }
+            if (gol > 0) {
+                fen.append(gol);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+
+        fen.append((flags & 1) != 0 ? " w " : " b ");
+        int len = fen.length();
+        if ((flags & 2) != 0) fen.append('K');
+        if ((flags & 4) != 0) fen.append('Q');
+        if ((flags & 8) != 0) fen.append('k');
+        if ((flags & 16) != 0) fen.append('q');
+        if (fen.length() == len) {
+            fen.append('-');
+        }
+        fen.append(' ').append(ep == 0xFF ? "-" : numePatrat(ep)).append(" 0 1");
+        return fen.toString();
+    }
+
+    private static String citesteText(ByteBuffer b) {
+        int len = b.get() & 0xFF;
+        byte[] text = new byte[len];
+        b.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    // "e2" -> 12 (a1 = 0, h8 = 63)
+    private static int patrat(String sq) {
+        int col = BoardUtils.getIndexColoana(sq.charAt(0));
+        int rand = 7 - BoardUtils.getIndexRand(sq.charAt(1));
+        return rand * 8 + col;
+    }
+
+    private static String numePatrat(int sq) {
+        return BoardUtils.toSquare(7 - (sq >>> 3), sq & 7);
+    }
+}
@@ -0,0 +1,234 @@
+package ro.chess.client.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * Protocolul JSON, pereche cu JsonCodec de pe server.
+ * Citim mesajele direct cu JsonParser (fara arbore JsonNode) si le punem intr-un ServerEvent.
+ */
+public final class JsonCodec {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    // Comenzile fara parametri sunt mereu aceleasi: le codificam o singura data
+    public static final String RESET_GAME = command("RESET_GAME");
+    public static final String UNDO_MOVE = command("UNDO_MOVE");
+    public static final String RESYNC = command("RESYNC");
+    public static final String STOP_ANALYSIS = command("STOP_ANALYSIS");
+    public static final String BOOK_HINT = command("BOOK_HINT");
+
+    private JsonCodec() {
+    }
+
+    // ---------------------------------------------------------------
+    // Client -> server
+    // ---------------------------------------------------------------
+
+    /**
+     * MAKE_MOVE: {"type":"MAKE_MOVE","from":"e2","to":"e4"}
+     */
+    public static String encodeMove(String from, String to) {
+        StringWriter out = new StringWriter(64);
+        try (JsonGenerator g = FACTORY.createGenerator(out)) {
+            g.writeStartObject();
+            g.writeStringField("type", "MAKE_MOVE");
+            g.writeStringField("from", from);
+            g.writeStringField("to", to);
+            g.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * PLAY_VS_ENGINE: {"type":"PLAY_VS_ENGINE","color":"BLACK","movetime":1000}.
+     * color = culoarea calculatorului ("NONE" il opreste, null = opusa noastra); movetime 0 = cat vrea serverul.
+     */
+    public static String encodePlayVsEngine(String color, int movetime) {
+        StringWriter out = new StringWriter(64);
+        try (JsonGenerator g = FACTORY.createGenerator(out)) {
+            g.writeStartObject();
+            g.writeStringField("type", "PLAY_VS_ENGINE");
+            if (color != null) {
+                g.writeStringField("color", color);
+            }
+            g.writeNumberField("movetime", movetime);
+            g.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * ANALYZE: {"type":"ANALYZE","depth":0,"movetime":0,"multipv":3} (0 = fara limita, cat permite serverul).
+     */
+    public static String encodeAnalyze(int depth, int movetime, int multiPv) {
+        StringWriter out = new StringWriter(64);
+        try (JsonGenerator g = FACTORY.createGenerator(out)) {
+            g.writeStartObject();
+            g.writeStringField("type", "ANALYZE");
+            g.writeNumberField("depth", depth);
+            g.writeNumberField("movetime", movetime);
+            g.writeNumberField("multipv", multiPv);
+            g.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Comenzile fara parametri: "RESET_GAME", "UNDO_MOVE", "RESYNC", "STOP_ANALYSIS", "BOOK_HINT".
+     */
+    public static String encodeCommand(String type) {
+        return switch (type) {
+            case "RESET_GAME" -> RESET_GAME;
+            case "UNDO_MOVE" -> UNDO_MOVE;
+            case "RESYNC" -> RESYNC;
+            case "STOP_ANALYSIS" -> STOP_ANALYSIS;
+            case "BOOK_HINT" -> BOOK_HINT;
+            default -> throw new IllegalArgumentException("Comanda necunoscuta: " + type);
+        };
+    }
+
+    private static String command(String type) {
+        StringWriter out = new StringWriter(32);
+        try (JsonGenerator g = FACTORY.createGenerator(out)) {
+            g.writeStartObject();
+            g.writeStringField("type", type);
+            g.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    // ---------------------------------------------------------------
+    // Server -> client
+    // ---------------------------------------------------------------
+
+    public static ServerEvent decode(String json) throws IOException {
+        ServerEvent ev = new ServerEvent();
+        try (JsonParser p = FACTORY.createParser(json)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return ev;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "type" -> ev.type = tip(p.getValueAsString());
+                    case "game" -> ev.game = p.getValueAsString();
+                    case "color" -> ev.color = p.getValueAsString();
+                    case "yourTurn" -> ev.yourTurn = p.getValueAsBoolean();
+                    case "fen" -> ev.fen = p.getValueAsString();
+                    case "seq" -> ev.seq = p.getValueAsLong();
+                    case "check" -> ev.check = p.getValueAsBoolean();
+                    case "move" -> ev.move = p.getValueAsString();
+                    case "whiteTurn" -> ev.whiteTurn = p.getValueAsBoolean();
+                    case "count" -> ev.count = p.getValueAsInt();
+                    case "whiteConnected" -> ev.whiteConnected = p.getValueAsBoolean();
+                    case "blackConnected" -> ev.blackConnected = p.getValueAsBoolean();
+                    case "spectators" -> ev.spectators = p.getValueAsInt();
+                    case "result" -> ev.result = p.getValueAsString();
+                    case "winner" -> ev.winner = p.getValueAsString();
+                    case "reason" -> ev.reason = p.getValueAsString();
+                    case "message" -> ev.message = p.getValueAsString();
+                    case "depth" -> ev.depth = p.getValueAsInt();
+                    case "nodes" -> ev.nodes = p.getValueAsLong();
+                    case "nps" -> ev.nps = p.getValueAsLong();
+                    case "done" -> ev.done = p.getValueAsBoolean();
+                    case "lines" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            while (p.nextToken() == JsonToken.START_OBJECT) {
+                                ev.lines.add(citesteVarianta(p));
+                            }
+                        }
+                    }
+                    case "moves" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            while (p.nextToken() == JsonToken.START_OBJECT) {
+                                ev.bookMoves.add(citesteMutareCarte(p));
+                            }
+                        }
+                    }
+                    case "changes" -> {
+                        if (value == JsonToken.START_OBJECT) {
+                            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                                String sq = p.currentName();
+                                p.nextToken();
+                                ev.changes.put(sq, p.getValueAsString());
+                            }
+                        }
+                    }
+                    default -> {
+                        // Camp nou de la un server mai nou: il sarim
+                        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                            p.skipChildren();
+                        }
+                    }
+                }
+            }
+        }
+        return ev;
+    }
+
+    // {"score":35,"mate":0,"pv":"e2e4 e7e5"}
+    private static ServerEvent.Line citesteVarianta(JsonParser p) throws IOException {
+        ServerEvent.Line line = new ServerEvent.Line();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "score" -> line.score = p.getValueAsInt();
+                case "mate" -> line.mate = p.getValueAsInt();
+                case "pv" -> line.pv = p.getValueAsString();
+                default -> {
+                    if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                        p.skipChildren();
+                    }
+                }
+            }
+        }
+        return line;
+    }
+
+    // {"move":"e2e4","weight":12}
+    private static ServerEvent.BookMove citesteMutareCarte(JsonParser p) throws IOException {
+        ServerEvent.BookMove m = new ServerEvent.BookMove();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "move" -> m.move = p.getValueAsString();
+                case "weight" -> m.weight = p.getValueAsInt();
+                default -> {
+                    if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                        p.skipChildren();
+                    }
+                }
+            }
+        }
+        return m;
+    }
+
+    private static ServerEvent.Type tip(String type) {
+        if (type == null) {
+            return ServerEvent.Type.UNKNOWN;
+        }
+        try {
+            return ServerEvent.Type.valueOf(type);
+        } catch (IllegalArgumentException e) {
+            return ServerEvent.Type.UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ro.chess.client.codec;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Un mesaj primit de la server, deja decodat (din JSON sau din binar).
+ * Are campurile tuturor tipurilor de mesaje; fiecare tip le completeaza doar pe ale lui.
+ */
+public final class ServerEvent {
+
+    public enum Type {
+        WELCOME, MOVE_APPLIED, MOVE_DELTA, GAME_OVER, PLAYERS_UPDATE, ERROR, ANALYSIS_UPDATE, BOOK_MOVES, UNKNOWN
+    }
+
+    public Type type = Type.UNKNOWN;
+
+    // WELCOME
+    public String game;
+    public String color;
+    public boolean yourTurn;
+
+    // Pozitia (WELCOME, MOVE_APPLIED, GAME_OVER) si numarul ei
+    public String fen;
+    public long seq;
+    public boolean check;
+
+    // MOVE_DELTA: mutarea si patratele schimbate (null = patrat gol)
+    public String move;
+    public final Map<String, String> changes = new LinkedHashMap<>();
+    public boolean whiteTurn;
+
+    // PLAYERS_UPDATE
+    public int count;
+    public boolean whiteConnected;
+    public boolean blackConnected;
+    public int spectators;
+
+    // GAME_OVER (winner e null la remiza)
+    public String result;
+    public String winner;
+    public String reason;
+
+    // ERROR
+    public String message;
+
+    // ANALYSIS_UPDATE (seq = pozitia analizata); variantele, cea mai buna prima
+    public int depth;
+    public long nodes;
+    public long nps;
+    public boolean done;
+    public final List<Line> lines = new ArrayList<>();
+
+    /**
+     * O varianta din analiza: scorul in centipioni pentru cel la mutare, mat in cate mutari (0 = nu e mat)
+     * si mutarile, ex: "e2e4 e7e5 g1f3".
+     */
+    public static final class Line {
+        public int score;
+        public int mate;
+        public String pv = "";
+    }
+
+    // BOOK_MOVES (seq = pozitia): mutarile din cartea de deschideri, goala daca pozitia nu e in carte
+    public final List<BookMove> bookMoves = new ArrayList<>();
+
+    /**
+     * O mutare din carte ("e2e4") si greutatea ei (cat de des e jucata).
+     */
+    public static final class BookMove {
+        public String move;
+        public int weight;
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case WELCOME -> "WELCOME " + game + " " + color + " seq=" + seq + " " + fen;
+            case MOVE_APPLIED -> "MOVE_APPLIED seq=" + seq + (check ? " sah " : " ") + fen;
+            case MOVE_DELTA -> "MOVE_DELTA seq=" + seq + " " + move + " " + changes;
+            case GAME_OVER -> "GAME_OVER " + result + " (" + reason + ")";
+            case PLAYERS_UPDATE -> "PLAYERS_UPDATE " + count + " + " + spectators + " spectatori";
+            case ERROR -> "ERROR " + message;
+            case ANALYSIS_UPDATE -> "ANALYSIS_UPDATE seq=" + seq + " adancime " + depth + (done ? " (gata)" : "")
+                    + (lines.isEmpty() ? "" : " " + lines.get(0).score + " " + lines.get(0).pv);
+            case BOOK_MOVES -> "BOOK_MOVES seq=" + seq + " " + bookMoves.size() + " mutari";
+            default -> "UNKNOWN";
+        };
+    }
+}
@@ -7,6 +7,10 @@ package ro.chess.client.util;
 public class BoardUtils {
     private static final char[] COLOANE = { 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h' };
 
+    // Codurile pieselor, in ordinea literelor din FEN (aceleasi obiecte String la fiecare pozitie)
+    private static final String FEN_PIESE = "PNBRQKpnbrqk";
+    private static final String[] CODURI = { "wP", "wN", "wB", "wR", "wQ", "wK", "bP", "bN", "bB", "bR", "bQ", "bK" };
+
     /**
      * Transforma indecsii din matrice in notatie de sah.
      * Ex: rand 0, col 0 -> "a8"
@@ -32,4 +36,34 @@ public class BoardUtils {
         int cifra = Character.getNumericValue(cifraChar); // '8' -> 8
         return 8 - cifra; // 8 - 8 = 0 (primul rand de sus)
     }
+
+    /**
+     * Citeste partea de piese dintr-un FEN in matricea piese[rand][coloana]
+     * (rand 0 = randul 8, ca pe ecran). Patratele goale devin null.
+     * Ex: 'P' -> "wP", 'k' -> "bK".
+     */
+    public static void parseFen(String fen, String[][] piese) {
+        // 1. Golim matricea logica
+        for (int i = 0; i < 8; i++)
+            for (int j = 0; j < 8; j++)
+                piese[i][j] = null;
+
+        // 2. Citim FEN-ul
+        String[] bucati = fen.split(" ");
+        String[] randuri = bucati[0].split("/");
+
+        for (int r = 0; r < 8; r++) {
+            int c = 0;
+            for (char ch : randuri[r].toCharArray()) {
+                if (Character.isDigit(ch)) {
+                    // Spatii goale
+                    c += Character.getNumericValue(ch);
+                } else {
+                    // Piesa: 'P' -> "wP", 'k' -> "bK"
+                    piese[r][c] = CODURI[FEN_PIESE.indexOf(ch)];
+                    c++;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,303 @@
+package ro.chess.server.codec;
+
+import ro.chess.server.dto.AnalysisUpdateMsg;
+import ro.chess.server.dto.BookMovesMsg;
+import ro.chess.server.dto.ErrorMsg;
+import ro.chess.server.dto.GameOverMsg;
+import ro.chess.server.dto.Message;
+import ro.chess.server.dto.MoveAppliedMsg;
+import ro.chess.server.dto.MoveDeltaMsg;
+import ro.chess.server.dto.PlayersUpdateMsg;
+import ro.chess.server.dto.WelcomeMsg;
+import ro.chess.server.model.Position;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Protocolul binar ("chess-bin"), alternativa compacta la JSON.
+ * Clientul il cere la conectare ca sub-protocol WebSocket; fara el vorbim JSON.
+ *
+ * Fiecare frame incepe cu un octet = tipul mesajului. Numerele sunt big-endian.
+ *
+ * Server -> client:
+ *   WELCOME        [1][culoare 0=alb/1=negru/2=spectator][yourTurn][seq u32][pozitie 34][len u8][id joc utf8]
+ *   MOVE_APPLIED   [2][check][seq u32][pozitie 34]
+ *   MOVE_DELTA     [3][bit0 = randul albului, bit1 = sah][seq u32][mutare u16][n u8][n x (patrat u8, piesa u8)]
+ *   GAME_OVER      [4][rezultat 0=1-0, 1=0-1, 2=remiza][seq u32][pozitie 34][len u8][motiv utf8]
+ *   PLAYERS_UPDATE [5][alb conectat][negru conectat][spectatori u16]
+ *   ERROR          [6][len u8][mesaj utf8]
+ *   ANALYSIS_UPDATE [7][done][seq u32][adancime u8][noduri u64][noduri/s u32][ms u32][n u8]
+ *                  n x ([scor s16][mat s8][k u8][k x mutare u16])
+ *   BOOK_MOVES     [8][seq u32][n u8][n x (mutare u16, greutate u16)]
+ *
+ * Client -> server:
+ *   MAKE_MOVE  [0x81][mutare u16]
+ *   RESET_GAME [0x82]   UNDO_MOVE [0x83]   RESYNC [0x84]
+ *   PLAY_VS_ENGINE [0x85][culoarea engine-ului 0=alb, 1=negru, 2=oprit, 3=opusa celui care cere]
+ *                  [adancime u8][timp de gandire u16, ms] (0 = limita implicita)
+ *   ANALYZE [0x86][adancime u8][timp u16, ms][variante u8] (0 = fara limita)   STOP_ANALYSIS [0x87]
+ *   BOOK_HINT [0x88]
+ *
+ * Mutare pe 16 biti: patrat plecare (biti 0-5) | patrat sosire (6-11) | promovare (12-14: 0 = nimic, 1=n 2=b 3=r 4=q).
+ * Pozitie pe 34 de octeti: 64 de patrate x 4 biti (0 = gol, altfel indexul piesei din Position + 1;
+ * patratul par in nibble-ul de jos), apoi [bit0 = randul albului, biti 1-4 = rocade], [en passant sau 0xFF].
+ * Piesa intr-un MOVE_DELTA: 0 = gol, altfel indexul piesei + 1.
+ */
+public final class BinaryCodec {
+
+    public static final String SUBPROTOCOL = "chess-bin";
+
+    public static final byte WELCOME = 1;
+    public static final byte MOVE_APPLIED = 2;
+    public static final byte MOVE_DELTA = 3;
+    public static final byte GAME_OVER = 4;
+    public static final byte PLAYERS_UPDATE = 5;
+    public static final byte ERROR = 6;
+    public static final byte ANALYSIS_UPDATE = 7;
+    public static final byte BOOK_MOVES = 8;
+
+    public static final byte MAKE_MOVE = (byte) 0x81;
+    public static final byte RESET_GAME = (byte) 0x82;
+    public static final byte UNDO_MOVE = (byte) 0x83;
+    public static final byte RESYNC = (byte) 0x84;
+    public static final byte PLAY_VS_ENGINE = (byte) 0x85;
+    public static final byte ANALYZE = (byte) 0x86;
+    public static final byte STOP_ANALYSIS = (byte) 0x87;
+    public static final byte BOOK_HINT = (byte) 0x88;
+
+    private static final String[] ENGINE_COLORS = { "WHITE", "BLACK", "NONE", null };
+
+    private static final int POSITION_BYTES = 34;
+    private static final String PROMO = " nbrq";
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * Codifica un mesaj pentru client. Returneaza null pentru tipuri fara forma binara.
+     */
+    public static byte[] encode(Message m) {
+        if (m instanceof MoveDeltaMsg d) {
+            ByteBuffer b = ByteBuffer.allocate(9 + 2 * d.getChanges().size());
+            b.put(MOVE_DELTA);
+            b.put((byte) ((d.isWhiteTurn() ? 1 : 0) | (d.isCheck() ? 2 : 0)));
+            b.putInt((int) d.getSeq());
+            b.putShort((short) encodeMove(d.getMove()));
+            b.put((byte) d.getChanges().size());
+            for (Map.Entry<String, String> e : d.getChanges().entrySet()) {
+                b.put((byte) Position.parseSquare(e.getKey()));
+                b.put((byte) pieceIndex(e.getValue()));
+            }
+            return b.array();
+        }
+        if (m instanceof MoveAppliedMsg a) {
+            ByteBuffer b = ByteBuffer.allocate(6 + POSITION_BYTES);
+            b.put(MOVE_APPLIED);
+            b.put((byte) (a.isCheck() ? 1 : 0));
+            b.putInt((int) a.getSeq());
+            putPosition(b, a.getFen());
+            return b.array();
+        }
+        if (m instanceof WelcomeMsg w) {
+            byte[] id = utf8(w.getGame());
+            ByteBuffer b = ByteBuffer.allocate(8 + POSITION_BYTES + id.length);
+            b.put(WELCOME);
+            b.put((byte) switch (w.getColor()) {
+                case "WHITE" -> 0;
+                case "BLACK" -> 1;
+                default -> 2; // SPECTATOR
+            });
+            b.put((byte) (w.isYourTurn() ? 1 : 0));
+            b.putInt((int) w.getSeq());
+            putPosition(b, w.getFen());
+            b.put((byte) id.length).put(id);
+            return b.array();
+        }
+        if (m instanceof GameOverMsg g) {
+            byte[] reason = utf8(g.getReason());
+            ByteBuffer b = ByteBuffer.allocate(7 + POSITION_BYTES + reason.length);
+            b.put(GAME_OVER);
+            b.put((byte) ("1-0".equals(g.getResult()) ? 0 : "0-1".equals(g.getResult()) ? 1 : 2));
+            b.putInt((int) g.getSeq());
+            putPosition(b, g.getFen());
+            b.put((byte) reason.length).put(reason);
+            return b.array();
+        }
+        if (m instanceof PlayersUpdateMsg p) {
+            int spectators = Math.min(p.getSpectators(), 0xFFFF);
+            return new byte[] { PLAYERS_UPDATE, (byte) (p.isWhiteConnected() ? 1 : 0),
+                    (byte) (p.isBlackConnected() ? 1 : 0), (byte) (spectators >>> 8), (byte) spectators };
+        }
+        if (m instanceof AnalysisUpdateMsg u) {
+            int size = 24;
+            String[][] pvs = new String[u.getLines().size()][];
+            for (int i = 0; i < pvs.length; i++) {
+                String pv = u.getLines().get(i).getPv();
+                pvs[i] = pv.isEmpty() ? new String[0] : pv.split(" ");
+                pvs[i] = Arrays.copyOf(pvs[i], Math.min(pvs[i].length, 255));
+                size += 4 + 2 * pvs[i].length;
+            }
+            ByteBuffer b = ByteBuffer.allocate(size);
+            b.put(ANALYSIS_UPDATE);
+            b.put((byte) (u.isDone() ? 1 : 0));
+            b.putInt((int) u.getSeq());
+            b.put((byte) u.getDepth());
+            b.putLong(u.getNodes());
+            b.putInt((int) Math.min(u.getNps(), 0xFFFFFFFFL));
+            b.putInt((int) Math.min(u.getMillis(), 0xFFFFFFFFL));
+            b.put((byte) pvs.length);
+            for (int i = 0; i < pvs.length; i++) {
+                AnalysisUpdateMsg.Line l = u.getLines().get(i);
+                b.putShort((short) l.getScore());
+                b.put((byte) l.getMate());
+                b.put((byte) pvs[i].length);
+                for (String move : pvs[i]) {
+                    b.putShort((short) encodeMove(move));
+                }
+            }
+            return b.array();
+        }
+        if (m instanceof BookMovesMsg k) {
+            int n = Math.min(k.getMoves().size(), 255);
+            ByteBuffer b = ByteBuffer.allocate(6 + 4 * n);
+            b.put(BOOK_MOVES);
+            b.putInt((int) k.getSeq());
+            b.put((byte) n);
+            for (int i = 0; i < n; i++) {
+                BookMovesMsg.Entry e = k.getMoves().get(i);
+                b.putShort((short) encodeMove(e.getMove()));
+                b.putShort((short) e.getWeight());
+            }
+            return b.array();
+        }
+        if (m instanceof ErrorMsg e) {
+            byte[] text = utf8(e.getMessage());
+            ByteBuffer b = ByteBuffer.allocate(2 + text.length);
+            b.put(ERROR).put((byte) text.length).put(text);
+            return b.array();
+        }
+        return null;
+    }
+
+    /**
+     * Citeste o comanda de la client. Frame-urile goale, trunchiate sau necunoscute dau Command.UNKNOWN.
+     */
+    public static Command decode(ByteBuffer b) {
+        if (!b.hasRemaining()) {
+            return Command.UNKNOWN;
+        }
+        return switch (b.get()) {
+            case MAKE_MOVE -> {
+                if (b.remaining() < 2) {
+                    yield Command.UNKNOWN;
+                }
+                int move = b.getShort() & 0xFFFF;
+                yield Command.move(moveFrom(move), moveTo(move), movePromotion(move));
+            }
+            case RESET_GAME -> Command.RESET;
+            case UNDO_MOVE -> Command.UNDO;
+            case RESYNC -> Command.RESYNC;
+            case PLAY_VS_ENGINE -> {
+                if (b.remaining() < 4) {
+                    yield Command.UNKNOWN;
+                }
+                int color = b.get() & 0xFF;
+                int depth = b.get() & 0xFF;
+                int millis = b.getShort() & 0xFFFF;
+                yield color < ENGINE_COLORS.length ? Command.playVsEngine(ENGINE_COLORS[color], depth, millis) : Command.UNKNOWN;
+            }
+            case ANALYZE -> {
+                if (b.remaining() < 4) {
+                    yield Command.UNKNOWN;
+                }
+                int depth = b.get() & 0xFF;
+                int millis = b.getShort() & 0xFFFF;
+                int multiPv = b.get() & 0xFF;
+                yield Command.analyze(depth, millis, multiPv);
+            }
+            case STOP_ANALYSIS -> Command.STOP_ANALYSIS;
+            case BOOK_HINT -> Command.BOOK_HINT;
+            default -> Command.UNKNOWN;
+        };
+    }
+
+    /**
+     * "e7e8q" -> mutarea pe 16 biti.
+     */
+    public static int encodeMove(String uci) {
+        int from = Position.parseSquare(uci.substring(0, 2));
+        int to = Position.parseSquare(uci.substring(2, 4));
+        int promo = uci.length() > 4 ? PROMO.indexOf(uci.charAt(4)) : 0;
+        return from | (to << 6) | (Math.max(promo, 0) << 12);
+    }
+
+    public static String moveFrom(int move) {
+        return Position.squareName(move & 63);
+    }
+
+    public static String moveTo(int move) {
+        return Position.squareName((move >>> 6) & 63);
+    }
+
+    /**
+     * Piesa in care se transforma pionul ('q' daca nu e specificata).
+     */
+    public static char movePromotion(int move) {
+        int promo = (move >>> 12) & 7;
+        return promo >= 1 && promo <= 4 ? PROMO.charAt(promo) : 'q';
+    }
+
+    // Pozitia din FEN -> 34 de octeti
+    private static void putPosition(ByteBuffer b, String fen) {
+        byte[] squares = new byte[32];
+        String[] parts = fen.split(" ");
+        int rank = 7;
+        int file = 0;
+        for (int i = 0; i < parts[0].length(); i++) {
+            char ch = parts[0].charAt(i);
+            if (ch == '/') {
+                rank--;
+                file = 0;
+            } else if (ch >= '1' && ch <= '8') {
+                file += ch - '0';
+            } else {
+                int sq = rank * 8 + file;
+                int nibble = "PNBRQKpnbrqk".indexOf(ch) + 1;
+                squares[sq >>> 1] |= (byte) ((sq & 1) == 0 ? nibble : nibble << 4);
+                file++;
+            }
+        }
+        b.put(squares);
+
+        int flags = parts.length > 1 && parts[1].equals("w") ? 1 : 0;
+        if (parts.length > 2) {
+            flags |= (parts[2].contains("K") ? 2 : 0) | (parts[2].contains("Q") ? 4 : 0)
+                    | (parts[2].contains("k") ? 8 : 0) | (parts[2].contains("q") ? 16 : 0);
+        }
+        b.put((byte) flags);
+        int ep = parts.length > 3 ? Position.parseSquare(parts[3]) : -1;
+        b.put((byte) (ep < 0 ? 0xFF : ep));
+    }
+
+    // "wP" -> 1, "bK" -> 12, null -> 0
+    private static int pieceIndex(String code) {
+        if (code == null) {
+            return 0;
+        }
+        int type = "PNBRQK".indexOf(code.charAt(1));
+        return (code.charAt(0) == 'w' ? type : type + 6) + 1;
+    }
+
+    private static byte[] utf8(String s) {
+        byte[] b = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        if (b.length > 255) {
+            byte[] cut = new byte[255];
+            System.arraycopy(b, 0, cut, 0, 255);
+            return cut;
+        }
+        return b;
+    }
+}
@@ -0,0 +1,40 @@
+package ro.chess.server.codec;
+
+/**
+ * O comanda primita de la client, deja decodata (din JSON sau din binar).
+ * from/to/promotion au sens doar pentru MAKE_MOVE;
+ * color/depth/millis doar pentru PLAY_VS_ENGINE (culoarea engine-ului: "WHITE", "BLACK",
+ * "NONE" = opreste engine-ul, null = culoarea opusa celui care a cerut; 0 = limita implicita);
+ * depth/millis/multiPv pentru ANALYZE (0 = fara limita; multiPv = cate variante).
+ */
+public record Command(Type type, String from, String to, char promotion, String color, int depth, int millis,
+                      int multiPv) {
+
+    public enum Type {
+        MAKE_MOVE, RESET_GAME, UNDO_MOVE, RESYNC, PLAY_VS_ENGINE, ANALYZE, STOP_ANALYSIS, BOOK_HINT, UNKNOWN
+    }
+
+    // Comenzile fara parametri sunt mereu aceleasi, nu are rost sa le alocam de fiecare data
+    public static final Command RESET = simple(Type.RESET_GAME);
+    public static final Command UNDO = simple(Type.UNDO_MOVE);
+    public static final Command RESYNC = simple(Type.RESYNC);
+    public static final Command STOP_ANALYSIS = simple(Type.STOP_ANALYSIS);
+    public static final Command BOOK_HINT = simple(Type.BOOK_HINT);
+    public static final Command UNKNOWN = simple(Type.UNKNOWN);
+
+    public static Command move(String from, String to, char promotion) {
+        return new Command(Type.MAKE_MOVE, from, to, promotion, null, 0, 0, 0);
+    }
+
+    public static Command playVsEngine(String color, int depth, int millis) {
+        return new Command(Type.PLAY_VS_ENGINE, null, null, 'q', color, depth, millis, 0);
+    }
+
+    public static Command analyze(int depth, int millis, int multiPv) {
+        return new Command(Type.ANALYZE, null, null, 'q', null, depth, millis, multiPv);
+    }
+
+    private static Command simple(Type type) {
+        return new Command(type, null, null, 'q', null, 0, 0, 0);
+    }
+}
@@ -0,0 +1,15 @@
+package ro.chess.server.codec;
+
+import ro.chess.server.dto.Message;
+
+/**
+ * Un mesaj codificat o singura data in ambele protocoale.
+ * Folosit pentru mesajele constante (ex: "Nu este randul tau!"), care altfel
+ * ar fi serializate din nou la fiecare trimitere.
+ */
+public record Encoded(String json, byte[] binary) {
+
+    public static Encoded of(Message m) {
+        return new Encoded(JsonCodec.encode(m), BinaryCodec.encode(m));
+    }
+}
@@ -0,0 +1,180 @@
+package ro.chess.server.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import ro.chess.server.dto.AnalysisUpdateMsg;
+import ro.chess.server.dto.BookMovesMsg;
+import ro.chess.server.dto.ErrorMsg;
+import ro.chess.server.dto.GameOverMsg;
+import ro.chess.server.dto.Message;
+import ro.chess.server.dto.MoveAppliedMsg;
+import ro.chess.server.dto.MoveDeltaMsg;
+import ro.chess.server.dto.PlayersUpdateMsg;
+import ro.chess.server.dto.WelcomeMsg;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Protocolul JSON, scris cu API-ul "streaming" din Jackson (JsonParser / JsonGenerator).
+ * Nu mai construim un arbore JsonNode pentru fiecare mesaj primit si nu mai trecem
+ * prin serializarea prin reflectie a ObjectMapper-ului: citim/scriem campurile direct.
+ * Formatul pe fir e acelasi ca inainte.
+ */
+public final class JsonCodec {
+
+    // Thread-safe si refolosibil; isi recicleaza singur bufferele interne
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private JsonCodec() {
+    }
+
+    // ---------------------------------------------------------------
+    // Client -> server
+    // ---------------------------------------------------------------
+
+    /**
+     * Citeste o comanda: {"type":"MAKE_MOVE","from":"e2","to":"e4","promotion":"q"},
+     * {"type":"PLAY_VS_ENGINE","color":"BLACK","depth":0,"movetime":1000},
+     * {"type":"ANALYZE","depth":0,"movetime":0,"multipv":3} etc.
+     * Campurile necunoscute sunt ignorate.
+     */
+    public static Command decode(String payload) throws IOException {
+        String type = null;
+        String from = null;
+        String to = null;
+        char promotion = 'q';
+        String color = null;
+        int depth = 0;
+        int movetime = 0;
+        int multiPv = 1;
+
+        try (JsonParser p = FACTORY.createParser(payload)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return Command.UNKNOWN;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "type" -> type = p.getValueAsString();
+                    case "from" -> from = p.getValueAsString();
+                    case "to" -> to = p.getValueAsString();
+                    case "color" -> color = p.getValueAsString();
+                    case "depth" -> depth = p.getValueAsInt();
+                    case "movetime" -> movetime = p.getValueAsInt();
+                    case "multipv" -> multiPv = p.getValueAsInt();
+                    case "promotion" -> {
+                        String promo = p.getValueAsString();
+                        if (promo != null && !promo.isEmpty()) {
+                            promotion = promo.charAt(0);
+                        }
+                    }
+                    default -> {
+                        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                            p.skipChildren();
+                        }
+                    }
+                }
+            }
+        }
+
+        if (type == null) {
+            return Command.UNKNOWN;
+        }
+        return switch (type) {
+            case "MAKE_MOVE" -> from == null || to == null ? Command.UNKNOWN : Command.move(from, to, promotion);
+            case "RESET_GAME" -> Command.RESET;
+            case "UNDO_MOVE" -> Command.UNDO;
+            case "RESYNC" -> Command.RESYNC;
+            case "PLAY_VS_ENGINE" -> Command.playVsEngine(color, depth, movetime);
+            case "ANALYZE" -> Command.analyze(depth, movetime, multiPv);
+            case "STOP_ANALYSIS" -> Command.STOP_ANALYSIS;
+            case "BOOK_HINT" -> Command.BOOK_HINT;
+            default -> Command.UNKNOWN;
+        };
+    }
+
+    // ---------------------------------------------------------------
+    // Server -> client
+    // ---------------------------------------------------------------
+
+    public static String encode(Message m) {
+        StringWriter out = new StringWriter(128);
+        try (JsonGenerator g = FACTORY.createGenerator(out)) {
+            g.writeStartObject();
+            g.writeStringField("type", m.getType());
+
+            if (m instanceof MoveDeltaMsg d) {
+                g.writeNumberField("seq", d.getSeq());
+                g.writeStringField("move", d.getMove());
+                g.writeObjectFieldStart("changes");
+                for (Map.Entry<String, String> e : d.getChanges().entrySet()) {
+                    g.writeStringField(e.getKey(), e.getValue());
+                }
+                g.writeEndObject();
+                g.writeBooleanField("whiteTurn", d.isWhiteTurn());
+                g.writeBooleanField("check", d.isCheck());
+            } else if (m instanceof MoveAppliedMsg a) {
+                g.writeStringField("fen", a.getFen());
+                g.writeBooleanField("check", a.isCheck());
+                g.writeNumberField("seq", a.getSeq());
+            } else if (m instanceof WelcomeMsg w) {
+                g.writeStringField("game", w.getGame());
+                g.writeStringField("color", w.getColor());
+                g.writeStringField("fen", w.getFen());
+                g.writeNumberField("seq", w.getSeq());
+                g.writeBooleanField("yourTurn", w.isYourTurn());
+            } else if (m instanceof GameOverMsg o) {
+                g.writeStringField("reason", o.getReason());
+                g.writeStringField("result", o.getResult());
+                g.writeStringField("winner", o.getWinner());
+                g.writeStringField("fen", o.getFen());
+                g.writeNumberField("seq", o.getSeq());
+            } else if (m instanceof PlayersUpdateMsg p) {
+                g.writeNumberField("count", p.getCount());
+                g.writeBooleanField("whiteConnected", p.isWhiteConnected());
+                g.writeBooleanField("blackConnected", p.isBlackConnected());
+                g.writeNumberField("spectators", p.getSpectators());
+            } else if (m instanceof AnalysisUpdateMsg u) {
+                g.writeNumberField("seq", u.getSeq());
+                g.writeNumberField("depth", u.getDepth());
+                g.writeNumberField("nodes", u.getNodes());
+                g.writeNumberField("nps", u.getNps());
+                g.writeNumberField("millis", u.getMillis());
+                g.writeBooleanField("done", u.isDone());
+                g.writeArrayFieldStart("lines");
+                for (AnalysisUpdateMsg.Line l : u.getLines()) {
+                    g.writeStartObject();
+                    g.writeNumberField("score", l.getScore());
+                    g.writeNumberField("mate", l.getMate());
+                    g.writeStringField("pv", l.getPv());
+                    g.writeEndObject();
+                }
+                g.writeEndArray();
+            } else if (m instanceof BookMovesMsg b) {
+                g.writeNumberField("seq", b.getSeq());
+                g.writeArrayFieldStart("moves");
+                for (BookMovesMsg.Entry e : b.getMoves()) {
+                    g.writeStartObject();
+                    g.writeStringField("move", e.getMove());
+                    g.writeNumberField("weight", e.getWeight());
+                    g.writeEndObject();
+                }
+                g.writeEndArray();
+            } else if (m instanceof ErrorMsg e) {
+                g.writeStringField("message", e.getMessage());
+            }
+
+            g.writeEndObject();
+        } catch (IOException e) {
+            // Scriem intr-un StringWriter, deci practic nu se poate intampla
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+}
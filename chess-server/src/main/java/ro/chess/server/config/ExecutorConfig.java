@@ -0,0 +1,112 @@
+package ro.chess.server.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-urile pe care ruleaza jocurile.
+ * Fiecare joc isi executa comenzile pe rand, dar jocuri diferite ruleaza in paralel pe acest pool.
+ *
+ * Engine-ul (vezi EngineService) are si el pool-ul lui: o cautare tine un thread ocupat
+ * pana la o secunda sau mai mult, iar jocurile si conexiunile nu trebuie sa astepte dupa ea.
+ *
+ * Analizele cerute de clienti (ANALYZE, vezi AnalysisService) au un pool marginit, cu o coada scurta:
+ * cand sunt prea multe, cele noi sunt refuzate, in loc sa ia tot procesorul jocurilor.
+ *
+ * Trimiterea mesajelor catre clienti are pool-ul ei (vezi OutboundSession): acolo thread-urile
+ * pot sta blocate dupa retea, si nu vrem ca asta sa opreasca jocurile.
+ *
+ * Cu spring.threads.virtual.enabled=true (Java 21+), Tomcat proceseaza mesajele primite pe
+ * fire virtuale, iar trimiterea foloseste si ea cate un fir virtual pe sarcina: o trimitere
+ * blocata nu mai tine ocupat un thread adevarat. Jocurile raman pe pool-ul fix, pentru ca
+ * ele doar calculeaza si nu asteapta nimic. Pe Java 17 optiunea e ignorata (cu un avertisment).
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService gameExecutor(@Value("${chess.game.threads:0}") int threads) {
+        // 0 = cate un thread pentru fiecare core
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(n, daemonThreads("game-"));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService engineExecutor(@Value("${chess.engine.pool.threads:0}") int threads) {
+        // 0 = cate un thread pentru fiecare core; atatea cautari pot rula deodata, restul asteapta
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(n, daemonThreads("engine-"));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService analysisExecutor(@Value("${chess.engine.analysis.threads:0}") int threads,
+                                            @Value("${chess.engine.analysis.queue:8}") int queue) {
+        // 0 = jumatate din core-uri (macar unul), ca jocurile sa aiba mereu loc
+        int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        // Coada plina => execute arunca RejectedExecutionException (AbortPolicy), iar clientul primeste o eroare
+        return new ThreadPoolExecutor(n, n, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queue)),
+                daemonThreads("analysis-"));
+    }
+
+    /**
+     * Un singur thread care trimite, la intervale, ultimele rezultate ale analizelor (vezi AnalysisService).
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService analysisTimer() {
+        return Executors.newSingleThreadScheduledExecutor(daemonThreads("analysis-timer-"));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService sendExecutor(@Value("${chess.send.threads:0}") int threads,
+                                        @Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+        if (virtual) {
+            ExecutorService v = virtualThreadPerTask();
+            if (v != null) {
+                log.info("Trimiterea mesajelor ruleaza pe fire virtuale");
+                return v;
+            }
+        }
+        // 0 = doua thread-uri pentru fiecare core (o parte din ele pot astepta dupa clienti lenti)
+        int n = threads > 0 ? threads : 2 * Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(n, daemonThreads("send-"));
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor(), cautat prin reflectie ca sa putem compila pentru Java 17.
+     * Returneaza null daca JVM-ul nu are fire virtuale.
+     */
+    private static ExecutorService virtualThreadPerTask() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            log.warn("spring.threads.virtual.enabled=true cere Java 21+ (ruleaza pe {}); folosim thread-uri normale",
+                    Runtime.version());
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Nu am putut crea executorul cu fire virtuale", e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
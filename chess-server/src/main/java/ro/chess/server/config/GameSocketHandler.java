@@ -1,183 +1,166 @@
 package ro.chess.server.config;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
-import ro.chess.server.service.GameService;
-
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+import ro.chess.server.codec.BinaryCodec;
+import ro.chess.server.codec.Command;
+import ro.chess.server.codec.JsonCodec;
+import ro.chess.server.service.GameRegistry;
+import ro.chess.server.service.GameRoom;
+import ro.chess.server.service.OutboundSession;
+import ro.chess.server.service.SendMetrics;
+import ro.chess.server.service.SendPolicy;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Handler pentru conexiunile WebSocket.
- * Gestioneaza 2 jucatori: WHITE si BLACK.
- * Primul care se conecteaza primeste ALB, al doilea NEGRU.
+ * Fiecare conexiune intra intr-un joc ales din URL: /ws?game=<id> (implicit "default").
+ * In fiecare joc, primul care se conecteaza primeste ALB, al doilea NEGRU, restul sunt spectatori.
+ *
+ * Fiecare sesiune e invelita intr-un OutboundSession: mesajele catre client trec printr-o
+ * coada proprie si sunt trimise pe alt thread, deci un client lent nu blocheaza jocul.
+ *
+ * Vorbim JSON (text) implicit. Daca clientul cere sub-protocolul "chess-bin" la conectare,
+ * folosim formatul binar compact din BinaryCodec.
  */
 @Component
-public class GameSocketHandler extends TextWebSocketHandler {
-
-    private final ObjectMapper om = new ObjectMapper();
-    private final GameService gameService;
-
-    public GameSocketHandler(GameService gameService) {
-        this.gameService = gameService;
+public class GameSocketHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
+
+    // Cheile sub care tinem camera si sesiunea cu coada in atributele sesiunii
+    private static final String ROOM_ATTR = "room";
+    private static final String OUT_ATTR = "out";
+
+    private final GameRegistry registry;
+    private final Executor sendExecutor;
+    private final SendPolicy sendPolicy;
+    private final SendMetrics sendMetrics;
+
+    public GameSocketHandler(GameRegistry registry, @Qualifier("sendExecutor") Executor sendExecutor,
+                             SendPolicy sendPolicy, SendMetrics sendMetrics) {
+        this.registry = registry;
+        this.sendExecutor = sendExecutor;
+        this.sendPolicy = sendPolicy;
+        this.sendMetrics = sendMetrics;
     }
 
-    // Map: sesiune -> culoare ("WHITE" sau "BLACK")
-    private final Map<WebSocketSession, String> players = new ConcurrentHashMap<>();
-
-    // Referinte catre sesiunile celor 2 jucatori
-    private WebSocketSession whitePlayer = null;
-    private WebSocketSession blackPlayer = null;
+    /**
+     * Sub-protocoalele pe care le acceptam (clientul il alege pe primul pe care il stie).
+     */
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(BinaryCodec.SUBPROTOCOL);
+    }
 
     /**
      * Apelat cand un client se conecteaza.
-     * Asigneaza culoarea (WHITE pentru primul, BLACK pentru al doilea).
-     * Daca sunt deja 2 jucatori, refuza conexiunea.
+     * Il baga in camera jocului cerut; camera ii asigneaza o culoare
+     * (sau il face spectator daca sunt deja 2 jucatori in acel joc, ori daca a cerut ?role=spectator).
      */
     @Override
-    public void afterConnectionEstablished(WebSocketSession s) throws Exception {
-        String sessionId = s.getId();
-        String color;
-
-        // Sincronizam pentru a evita race conditions la asignarea culorilor
-        synchronized (this) {
-            if (whitePlayer == null) {
-                // Primul jucator -> ALB
-                whitePlayer = s;
-                color = "WHITE";
-            } else if (blackPlayer == null) {
-                // Al doilea jucator -> NEGRU
-                blackPlayer = s;
-                color = "BLACK";
-            } else {
-                // Jocul e plin, refuzam conexiunea
-                s.sendMessage(new TextMessage(
-                        "{\"type\":\"ERROR\",\"message\":\"Game is full. 2 players already connected.\"}"));
-                s.close();
-                return;
-            }
-            players.put(s, color);
-        }
-
-        // Trimitem mesaj de bun venit cu: culoarea, pozitia curenta, daca e randul lui
-        String fen = gameService.getCurrentFen();
-        boolean yourTurn = gameService.isWhiteTurn() == color.equals("WHITE");
-
-        String welcomeMsg = om.writeValueAsString(Map.of(
-                "type", "WELCOME",
-                "color", color,
-                "fen", fen,
-                "yourTurn", yourTurn));
-        s.sendMessage(new TextMessage(welcomeMsg));
-
-        // Notificam toti jucatorii despre numarul de conexiuni
-        broadcastPlayerCount();
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        OutboundSession s = new OutboundSession(session, sendExecutor, sendPolicy, sendMetrics);
+        GameRoom room = registry.acquire(gameIdFrom(session.getUri()));
+        // Daca ramane prea mult in urma, camera ii trimite direct pozitia curenta
+        s.setOnOverflow(() -> room.catchUp(s));
+        session.getAttributes().put(OUT_ATTR, s);
+        session.getAttributes().put(ROOM_ATTR, room);
+        room.join(s, spectatorOnly(session.getUri()));
     }
 
     /**
      * Apelat cand un client se deconecteaza.
-     * Elibereaza slotul de jucator si notifica celalalt jucator.
+     * Elibereaza slotul de jucator; daca jocul a ramas fara conexiuni, il stergem.
      */
     @Override
-    public void afterConnectionClosed(WebSocketSession s, CloseStatus status) throws Exception {
-        synchronized (this) {
-            String color = players.remove(s);
-
-            // Eliberam slotul corespunzator
-            if (s == whitePlayer) {
-                whitePlayer = null;
-            } else if (s == blackPlayer) {
-                blackPlayer = null;
-            }
-
-            // Notificam jucatorul ramas (daca exista)
-            if (color != null) {
-                broadcastPlayerCount();
-            }
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+        GameRoom room = (GameRoom) session.getAttributes().remove(ROOM_ATTR);
+        WebSocketSession s = (WebSocketSession) session.getAttributes().remove(OUT_ATTR);
+        if (room != null && s != null) {
+            room.leave(s);
+            registry.release(room);
         }
     }
 
     /**
-     * Apelat cand primim un mesaj de la client.
-     * Proceseaza comenzile: MAKE_MOVE, RESET_GAME, UNDO_MOVE.
+     * Apelat cand primim un mesaj text (JSON) de la client.
+     * Aici doar decodam comanda; camera o pune in coada ei si o executa pe thread-ul jocului.
      */
     @Override
-    protected void handleTextMessage(WebSocketSession s, TextMessage message) throws Exception {
-        String payload = message.getPayload();
-        JsonNode root = om.readTree(payload);
-        String type = root.path("type").asText("");
-        String playerColor = players.get(s);
-
-        switch (type) {
-            case "MAKE_MOVE": {
-                String from = root.path("from").asText();
-                String to = root.path("to").asText();
-
-                // Verificam daca e randul acestui jucator
-                boolean isWhite = "WHITE".equals(playerColor);
-                if (gameService.isWhiteTurn() != isWhite) {
-                    s.sendMessage(new TextMessage("{\"type\":\"ERROR\",\"message\":\"Nu este randul tau!\"}"));
-                    return;
-                }
-
-                // Aplicam mutarea si trimitem rezultatul la ambii jucatori
-                String response = gameService.applyMove(from, to);
-                broadcast(response);
-                break;
-            }
-
-            case "RESET_GAME": {
-                // Cineva a apasat Reset
-                String response = gameService.resetGame();
-                broadcast(response);
-                break;
-            }
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        GameRoom room = (GameRoom) session.getAttributes().get(ROOM_ATTR);
+        if (room != null) {
+            dispatch(room, out(session), JsonCodec.decode(message.getPayload()));
+        }
+    }
 
-            case "UNDO_MOVE": {
-                // Cineva a apasat Undo
-                String response = gameService.undoMove();
-                broadcast(response);
-                break;
-            }
+    /**
+     * Acelasi lucru ca handleTextMessage, dar pentru frame-urile binare ("chess-bin").
+     */
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        GameRoom room = (GameRoom) session.getAttributes().get(ROOM_ATTR);
+        if (room != null) {
+            dispatch(room, out(session), BinaryCodec.decode(message.getPayload()));
+        }
+    }
 
-            default:
-                s.sendMessage(new TextMessage("{\"type\":\"ERROR\",\"message\":\"Comanda necunoscuta\"}"));
-                break;
+    /**
+     * Proceseaza comenzile: MAKE_MOVE, RESET_GAME, UNDO_MOVE, RESYNC, PLAY_VS_ENGINE, ANALYZE, STOP_ANALYSIS, BOOK_HINT.
+     * Nu conteaza din ce protocol a venit comanda.
+     */
+    private static void dispatch(GameRoom room, WebSocketSession s, Command cmd) {
+        switch (cmd.type()) {
+            case MAKE_MOVE -> room.makeMove(s, cmd.from(), cmd.to(), cmd.promotion());
+            // Cineva a apasat Reset / Undo
+            case RESET_GAME -> room.reset(s);
+            case UNDO_MOVE -> room.undo(s);
+            // Clientul a pierdut o mutare si vrea pozitia completa
+            case RESYNC -> room.resync(s);
+            // Jucatorul vrea sa joace cu calculatorul (sau sa-l opreasca)
+            case PLAY_VS_ENGINE -> room.playVsEngine(s, cmd.color(), cmd.depth(), cmd.millis());
+            // Analiza pozitiei curente (oricine din camera, si spectatorii)
+            case ANALYZE -> room.analyze(s, cmd.depth(), cmd.millis(), cmd.multiPv());
+            case STOP_ANALYSIS -> room.stopAnalysis(s);
+            // Mutarile din cartea de deschideri pentru pozitia curenta
+            case BOOK_HINT -> room.bookHint(s);
+            default -> room.sendError(s, GameRoom.UNKNOWN_COMMAND);
         }
+    }
 
+    // Sesiunea cu coada creata la conectare (camera o recunoaste dupa ea)
+    private static WebSocketSession out(WebSocketSession session) {
+        return (WebSocketSession) session.getAttributes().get(OUT_ATTR);
     }
 
     /**
-     * Trimite un mesaj catre ambii jucatori conectati.
+     * Citeste id-ul jocului din URL (?game=...). Daca lipseste, folosim jocul implicit.
      */
-    private void broadcast(String message) throws Exception {
-        TextMessage msg = new TextMessage(message);
-
-        if (whitePlayer != null && whitePlayer.isOpen()) {
-            whitePlayer.sendMessage(msg);
-        }
-        if (blackPlayer != null && blackPlayer.isOpen()) {
-            blackPlayer.sendMessage(msg);
+    private static String gameIdFrom(URI uri) {
+        if (uri == null) {
+            return GameRegistry.DEFAULT_GAME;
         }
+        String id = UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("game");
+        return id == null || id.isBlank() ? GameRegistry.DEFAULT_GAME : id;
     }
 
     /**
-     * Notifica toti jucatorii despre numarul de conexiuni active.
-     * Util pentru UI (ex: "Jucatori: 1/2").
+     * ?role=spectator: clientul doar se uita (ex: ecranele din sala de turneu), nu ocupa un loc de jucator.
      */
-    private void broadcastPlayerCount() throws Exception {
-        int count = (whitePlayer != null ? 1 : 0) + (blackPlayer != null ? 1 : 0);
-
-        String msg = om.writeValueAsString(Map.of(
-                "type", "PLAYERS_UPDATE",
-                "count", count,
-                "whiteConnected", whitePlayer != null,
-                "blackConnected", blackPlayer != null));
-        broadcast(msg);
+    private static boolean spectatorOnly(URI uri) {
+        if (uri == null) {
+            return false;
+        }
+        String role = UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("role");
+        return "spectator".equalsIgnoreCase(role);
     }
 }
@@ -0,0 +1,124 @@
+package ro.chess.server.dto;
+
+import java.util.List;
+
+/**
+ * Rezultatul (partial sau final) al unei analize cerute cu ANALYZE.
+ * Se trimite doar clientului care a cerut analiza, de cel mult cateva ori pe secunda.
+ */
+public class AnalysisUpdateMsg extends Message {
+    private long seq;        // Pozitia analizata (numarul ei de ordine, ca la MOVE_DELTA)
+    private int depth;
+    private long nodes;
+    private long nps;
+    private long millis;
+    private boolean done;    // true = ultima actualizare a acestei analize
+    private List<Line> lines;
+
+    /**
+     * O varianta: scorul (centipioni, pentru cel la mutare), mat in cate mutari (0 = nu e mat;
+     * negativ = primeste mat) si mutarile in notatie UCI, separate prin spatiu.
+     */
+    public static class Line {
+        private int score;
+        private int mate;
+        private String pv;
+
+        public Line(int score, int mate, String pv) {
+            this.score = score;
+            this.mate = mate;
+            this.pv = pv;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public void setScore(int score) {
+            this.score = score;
+        }
+
+        public int getMate() {
+            return mate;
+        }
+
+        public void setMate(int mate) {
+            this.mate = mate;
+        }
+
+        public String getPv() {
+            return pv;
+        }
+
+        public void setPv(String pv) {
+            this.pv = pv;
+        }
+    }
+
+    public AnalysisUpdateMsg(long seq, int depth, long nodes, long nps, long millis, boolean done, List<Line> lines) {
+        super("ANALYSIS_UPDATE");
+        this.seq = seq;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nps = nps;
+        this.millis = millis;
+        this.done = done;
+        this.lines = lines;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(long nodes) {
+        this.nodes = nodes;
+    }
+
+    public long getNps() {
+        return nps;
+    }
+
+    public void setNps(long nps) {
+        this.nps = nps;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public void setMillis(long millis) {
+        this.millis = millis;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<Line> lines) {
+        this.lines = lines;
+    }
+}
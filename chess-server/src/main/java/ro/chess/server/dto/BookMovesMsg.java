@@ -0,0 +1,63 @@
+package ro.chess.server.dto;
+
+import java.util.List;
+
+/**
+ * Raspunsul la BOOK_HINT: mutarile din cartea de deschideri pentru pozitia curenta.
+ * Lista e goala daca pozitia nu e in carte. Se trimite doar clientului care a intrebat.
+ */
+public class BookMovesMsg extends Message {
+    private long seq;        // Pozitia (numarul ei de ordine, ca la MOVE_DELTA)
+    private List<Entry> moves;
+
+    /**
+     * O mutare din carte, in notatie UCI, si greutatea ei (cat de des e jucata).
+     */
+    public static class Entry {
+        private String move;
+        private int weight;
+
+        public Entry(String move, int weight) {
+            this.move = move;
+            this.weight = weight;
+        }
+
+        public String getMove() {
+            return move;
+        }
+
+        public void setMove(String move) {
+            this.move = move;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    public BookMovesMsg(long seq, List<Entry> moves) {
+        super("BOOK_MOVES");
+        this.seq = seq;
+        this.moves = moves;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public List<Entry> getMoves() {
+        return moves;
+    }
+
+    public void setMoves(List<Entry> moves) {
+        this.moves = moves;
+    }
+}
@@ -7,17 +7,19 @@ import lombok.Setter;
  * Raspuns trimis cand jocul s-a terminat.
  */
 public class GameOverMsg extends Message {
-    private String reason;   // Motivul: CHECKMATE
-    private String result;   // Rezultat: "1-0" sau "0-1"
-    private String winner;   // Castigatorul: "WHITE" sau "BLACK"
+    private String reason;   // Motivul: "SAH MAT", "PAT", "REPETITIE TRIPLA", "REGULA CELOR 50 DE MUTARI", "MATERIAL INSUFICIENT"
+    private String result;   // Rezultat: "1-0", "0-1" sau "1/2-1/2"
+    private String winner;   // Castigatorul: "ALBUL" / "NEGRUL" (null la remiza)
     private String fen;      // Pozitia finala
+    private long seq;        // Numarul de ordine al pozitiei finale
 
-    public GameOverMsg(String reason, String result, String winner, String fen) {
+    public GameOverMsg(String reason, String result, String winner, String fen, long seq) {
         super("GAME_OVER");
         this.reason = reason;
         this.result = result;
         this.winner = winner;
         this.fen = fen;
+        this.seq = seq;
     }
 
     public String getReason() {
@@ -51,4 +53,12 @@ public class GameOverMsg extends Message {
     public void setFen(String fen) {
         this.fen = fen;
     }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
 }
\ No newline at end of file
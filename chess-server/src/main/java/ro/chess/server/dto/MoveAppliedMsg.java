@@ -1,16 +1,19 @@
 package ro.chess.server.dto;
 
 /**
- * Raspuns trimis dupa o mutare reusita.
+ * Pozitia completa (FEN). Se trimite la Reset, Undo si cand clientul cere RESYNC;
+ * mutarile normale merg ca MOVE_DELTA.
  */
 public class MoveAppliedMsg extends Message {
     private String fen;
     private boolean check;
+    private long seq;        // Numarul de ordine al pozitiei (vezi MoveDeltaMsg)
 
-    public MoveAppliedMsg(String fen, boolean check) {
+    public MoveAppliedMsg(String fen, boolean check, long seq) {
         super("MOVE_APPLIED");
         this.fen = fen;
         this.check = check;
+        this.seq = seq;
     }
 
     public String getFen() {
@@ -28,4 +31,12 @@ public class MoveAppliedMsg extends Message {
     public void setCheck(boolean check) {
         this.check = check;
     }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
 }
\ No newline at end of file
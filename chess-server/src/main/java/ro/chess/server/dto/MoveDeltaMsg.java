@@ -0,0 +1,65 @@
+package ro.chess.server.dto;
+
+import java.util.Map;
+
+/**
+ * Raspuns trimis dupa o mutare reusita: doar ce s-a schimbat, nu toata tabla.
+ * Clientul aplica schimbarile peste tabla lui. Daca seq nu e exact urmatorul
+ * numar asteptat (a pierdut ceva), clientul cere RESYNC si primeste FEN-ul complet.
+ */
+public class MoveDeltaMsg extends Message {
+    private long seq;                     // Numarul de ordine al pozitiei noi
+    private String move;                  // Mutarea in notatie UCI (ex: "e2e4", "e7e8q")
+    private Map<String, String> changes;  // Patrat -> piesa noua ("wP"), null daca s-a golit
+    private boolean whiteTurn;            // Cine muta acum
+    private boolean check;
+
+    public MoveDeltaMsg(long seq, String move, Map<String, String> changes, boolean whiteTurn, boolean check) {
+        super("MOVE_DELTA");
+        this.seq = seq;
+        this.move = move;
+        this.changes = changes;
+        this.whiteTurn = whiteTurn;
+        this.check = check;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public String getMove() {
+        return move;
+    }
+
+    public void setMove(String move) {
+        this.move = move;
+    }
+
+    public Map<String, String> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(Map<String, String> changes) {
+        this.changes = changes;
+    }
+
+    public boolean isWhiteTurn() {
+        return whiteTurn;
+    }
+
+    public void setWhiteTurn(boolean whiteTurn) {
+        this.whiteTurn = whiteTurn;
+    }
+
+    public boolean isCheck() {
+        return check;
+    }
+
+    public void setCheck(boolean check) {
+        this.check = check;
+    }
+}
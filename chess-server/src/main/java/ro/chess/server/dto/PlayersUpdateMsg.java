@@ -0,0 +1,51 @@
+package ro.chess.server.dto;
+
+/**
+ * Cati jucatori (si spectatori) sunt conectati la joc (pentru UI, ex: "Jucatori: 1/2").
+ */
+public class PlayersUpdateMsg extends Message {
+    private int count;
+    private boolean whiteConnected;
+    private boolean blackConnected;
+    private int spectators;
+
+    public PlayersUpdateMsg(boolean whiteConnected, boolean blackConnected, int spectators) {
+        super("PLAYERS_UPDATE");
+        this.count = (whiteConnected ? 1 : 0) + (blackConnected ? 1 : 0);
+        this.whiteConnected = whiteConnected;
+        this.blackConnected = blackConnected;
+        this.spectators = spectators;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public boolean isWhiteConnected() {
+        return whiteConnected;
+    }
+
+    public void setWhiteConnected(boolean whiteConnected) {
+        this.whiteConnected = whiteConnected;
+    }
+
+    public boolean isBlackConnected() {
+        return blackConnected;
+    }
+
+    public void setBlackConnected(boolean blackConnected) {
+        this.blackConnected = blackConnected;
+    }
+
+    public int getSpectators() {
+        return spectators;
+    }
+
+    public void setSpectators(int spectators) {
+        this.spectators = spectators;
+    }
+}
@@ -0,0 +1,61 @@
+package ro.chess.server.dto;
+
+/**
+ * Mesaj de bun venit trimis unui jucator abia conectat.
+ */
+public class WelcomeMsg extends Message {
+    private String game;      // Id-ul jocului
+    private String color;     // "WHITE" sau "BLACK"
+    private String fen;       // Pozitia curenta
+    private long seq;         // Numarul de ordine al pozitiei
+    private boolean yourTurn;
+
+    public WelcomeMsg(String game, String color, String fen, long seq, boolean yourTurn) {
+        super("WELCOME");
+        this.game = game;
+        this.color = color;
+        this.fen = fen;
+        this.seq = seq;
+        this.yourTurn = yourTurn;
+    }
+
+    public String getGame() {
+        return game;
+    }
+
+    public void setGame(String game) {
+        this.game = game;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public void setFen(String fen) {
+        this.fen = fen;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public boolean isYourTurn() {
+        return yourTurn;
+    }
+
+    public void setYourTurn(boolean yourTurn) {
+        this.yourTurn = yourTurn;
+    }
+}
@@ -0,0 +1,203 @@
+package ro.chess.server.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ro.chess.server.model.Position;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Analiza ceruta de un client (ANALYZE): engine-ul cauta pozitia tot mai adanc, iar clientul
+ * primeste pe parcurs adancimea, scorul si variantele (una sau mai multe, multi-PV).
+ *
+ * Fiecare analiza ocupa un singur thread din pool-ul "analysisExecutor", care e marginit si are
+ * o coada scurta: cand serverul e plin, start() arunca RejectedExecutionException si clientul
+ * primeste o eroare, in loc ca analizele sa ia procesorul jocurilor. Tabela de transpozitie e
+ * cea a engine-ului (EngineService).
+ *
+ * La inceput iteratiile se termina la cateva milisecunde una dupa alta. Ca sa nu inundam conexiunea,
+ * trimitem cel mult o actualizare la chess.engine.analysis.update-ms: ce vine intre timp o inlocuieste
+ * pe cea care asteapta, si pleaca doar ultima (vezi Throttle). Ultima actualizare (done = true) pleaca mereu.
+ *
+ * Metrici: chess.engine.analysis.active (analize care ruleaza), chess.engine.analysis.rejected
+ * (refuzate, pool plin), chess.engine.analysis.updates / .coalesced (trimise / inlocuite inainte sa plece).
+ */
+@Service
+public class AnalysisService {
+
+    /**
+     * Primeste variantele (cea mai buna prima); done = true la ultima, dupa care nu mai vine nimic.
+     * Apelat de pe thread-ul analizei sau de pe cel al timer-ului, niciodata de pe doua deodata.
+     */
+    public interface Listener {
+        void onUpdate(SearchResult[] lines, boolean done);
+    }
+
+    private final Executor executor;
+    private final ScheduledExecutorService timer;
+    private final long intervalNanos;
+    private final long maxMillis;
+    private final int maxMultiPv;
+
+    // Fiecare thread din pool are obiectul lui Search
+    private final ThreadLocal<Search> searches;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter rejected;
+    private final Counter updates;
+    private final Counter coalesced;
+
+    public AnalysisService(EngineService engine,
+                           @Qualifier("analysisExecutor") Executor executor,
+                           @Qualifier("analysisTimer") ScheduledExecutorService timer,
+                           @Value("${chess.engine.analysis.update-ms:250}") long updateMs,
+                           @Value("${chess.engine.analysis.max-ms:60000}") long maxMillis,
+                           @Value("${chess.engine.analysis.max-multipv:4}") int maxMultiPv,
+                           MeterRegistry registry) {
+        this.executor = executor;
+        this.timer = timer;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(updateMs);
+        this.maxMillis = maxMillis;
+        this.maxMultiPv = Math.max(1, maxMultiPv);
+        TranspositionTable tt = engine.table();
+        Tablebases tablebases = engine.tablebases();
+        this.searches = ThreadLocal.withInitial(() -> new Search(tt, tablebases));
+
+        Gauge.builder("chess.engine.analysis.active", active, AtomicInteger::get)
+                .description("Analize care ruleaza acum")
+                .register(registry);
+        rejected = Counter.builder("chess.engine.analysis.rejected")
+                .description("Analize refuzate pentru ca pool-ul era plin")
+                .register(registry);
+        updates = Counter.builder("chess.engine.analysis.updates").register(registry);
+        coalesced = Counter.builder("chess.engine.analysis.coalesced")
+                .description("Iteratii inlocuite de una mai noua inainte sa fie trimise")
+                .register(registry);
+    }
+
+    /**
+     * Porneste o analiza. depth / millis 0 = fara limita (dar nu mai mult de chess.engine.analysis.max-ms);
+     * multiPv e adus intre 1 si chess.engine.analysis.max-multipv. Pozitia si cheile trebuie sa fie copii.
+     *
+     * @throws RejectedExecutionException daca sunt deja prea multe analize
+     */
+    public EngineJob start(Position position, long[] previousKeys, int depth, long millis, int multiPv,
+                           Listener listener) {
+        SearchLimits limits = new SearchLimits(
+                Math.max(0, Math.min(depth, Search.MAX_PLY - 1)),
+                millis > 0 ? Math.min(millis, maxMillis) : maxMillis,
+                Math.max(1, Math.min(multiPv, maxMultiPv)));
+        EngineJob job = new EngineJob();
+        Throttle throttle = new Throttle(listener);
+        try {
+            executor.execute(() -> {
+                active.incrementAndGet();
+                try {
+                    SearchResult r = searches.get().search(position, previousKeys, limits, job.stopSignal(), throttle);
+                    throttle.finish(r);
+                    job.result().complete(r);
+                } catch (Throwable e) {
+                    throttle.close();
+                    job.result().completeExceptionally(e);
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * Limiteaza cat de des pleaca actualizarile unei analize. O iteratie venita prea devreme dupa
+     * trimiterea anterioara asteapta (ca "pending") pana la urmatorul interval; daca intre timp mai vine
+     * una, o inlocuieste. Totul e sub lock-ul obiectului, deci dupa finish() nu mai pleaca nimic vechi.
+     */
+    private final class Throttle implements Search.Listener {
+        private final Listener out;
+        private long lastSent;
+        private SearchResult[] pending;
+        private SearchResult[] last;
+        private boolean flushScheduled;
+        private boolean closed;
+
+        Throttle(Listener out) {
+            this.out = out;
+            // Prima iteratie pleaca imediat
+            this.lastSent = System.nanoTime() - intervalNanos;
+        }
+
+        @Override
+        public synchronized void onIteration(SearchResult[] lines) {
+            if (closed) {
+                return;
+            }
+            last = lines;
+            if (pending != null) {
+                coalesced.increment();
+            }
+            long wait = lastSent + intervalNanos - System.nanoTime();
+            if (wait <= 0 && !flushScheduled) {
+                send(lines);
+                return;
+            }
+            pending = lines;
+            if (!flushScheduled) {
+                flushScheduled = true;
+                try {
+                    timer.schedule(this::flush, wait, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Serverul se opreste
+                    flushScheduled = false;
+                }
+            }
+        }
+
+        private synchronized void flush() {
+            flushScheduled = false;
+            if (!closed && pending != null) {
+                send(pending);
+            }
+        }
+
+        private void send(SearchResult[] lines) {
+            pending = null;
+            lastSent = System.nanoTime();
+            updates.increment();
+            out.onUpdate(lines, false);
+        }
+
+        // Ultima actualizare: variantele ultimei iteratii terminate, cu nodurile si timpul de la final
+        synchronized void finish(SearchResult r) {
+            closed = true;
+            pending = null;
+            SearchResult[] lines;
+            if (last == null) {
+                lines = new SearchResult[] { r };
+            } else {
+                lines = new SearchResult[last.length];
+                for (int i = 0; i < last.length; i++) {
+                    SearchResult l = last[i];
+                    lines[i] = new SearchResult(l.bestMove(), l.score(), l.depth(), r.nodes(), r.millis(), l.pv());
+                }
+            }
+            updates.increment();
+            out.onUpdate(lines, true);
+        }
+
+        synchronized void close() {
+            closed = true;
+            pending = null;
+        }
+    }
+}
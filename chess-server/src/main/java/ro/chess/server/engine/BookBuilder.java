@@ -0,0 +1,104 @@
+package ro.chess.server.engine;
+
+import ro.chess.server.model.Move;
+import ro.chess.server.model.MoveGenerator;
+import ro.chess.server.model.Position;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Construieste o carte de deschideri (formatul din OpeningBook) dintr-un fisier text cu variante:
+ * cate una pe linie, mutari UCI separate prin spatiu, ex: "e2e4 e7e5 g1f3 b8c6 f1b5".
+ * Liniile goale si cele care incep cu # sunt ignorate.
+ *
+ * Fiecare pozitie de pe o varianta primeste mutarea urmatoare cu greutatea +1, deci o mutare
+ * care apare in mai multe variante e aleasa mai des. O mutare ilegala opreste varianta (cu un avertisment).
+ *
+ *   java -cp chess-server/target/classes ro.chess.server.engine.BookBuilder \
+ *        chess-server/src/main/resources/engine/openings.txt book.bin [--plies 20] [--keys random64.txt]
+ *
+ * Cu --keys (tabelul Random64 al Polyglot) cartea iese compatibila cu Polyglot; fara, foloseste cheile serverului
+ * (si atunci serverul trebuie pornit tot fara chess.engine.book.keys).
+ */
+public class BookBuilder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Folosire: BookBuilder variante.txt carte.bin [--plies 20] [--keys random64.txt]");
+            return;
+        }
+        int maxPlies = 20;
+        long[] random = null;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--plies" -> maxPlies = Integer.parseInt(args[i + 1]);
+                case "--keys" -> random = OpeningBook.readRandom(Path.of(args[i + 1]));
+                default -> throw new IllegalArgumentException("Optiune necunoscuta: " + args[i]);
+            }
+        }
+
+        // cheie -> (mutare in formatul cartii -> greutate)
+        Map<Long, Map<Integer, Integer>> book = new HashMap<>();
+        Position p = new Position();
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int lineNo = 0;
+        int lines = 0;
+        for (String line : Files.readAllLines(Path.of(args[0]))) {
+            lineNo++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            lines++;
+            p.reset();
+            String[] moves = line.split("\\s+");
+            for (int ply = 0; ply < moves.length && ply < maxPlies; ply++) {
+                int move = find(p, moves[ply], legal);
+                if (move == 0) {
+                    System.out.println("Linia " + lineNo + ": mutare ilegala " + moves[ply] + ", restul variantei e ignorat");
+                    break;
+                }
+                long key = random == null ? p.getKey() : OpeningBook.polyglotKey(p, random);
+                book.computeIfAbsent(key, k -> new HashMap<>()).merge(OpeningBook.toBook(move), 1, Integer::sum);
+                p.makeMove(move);
+            }
+        }
+
+        // Intrarile sortate dupa cheie (fara semn), ca sa putem cauta binar in ele
+        List<Long> keys = new ArrayList<>(book.keySet());
+        keys.sort(Long::compareUnsigned);
+        int entries = 0;
+        try (OutputStream file = Files.newOutputStream(Path.of(args[1]));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            for (long key : keys) {
+                for (Map.Entry<Integer, Integer> e : book.get(key).entrySet()) {
+                    out.writeLong(key);
+                    out.writeShort(e.getKey());
+                    out.writeShort(Math.min(e.getValue(), 0xFFFF));
+                    out.writeInt(0);
+                    entries++;
+                }
+            }
+        }
+        System.out.println(lines + " variante, " + keys.size() + " pozitii, " + entries + " intrari -> " + args[1]);
+    }
+
+    private static int find(Position p, String uci, int[] legal) {
+        int n = MoveGenerator.generateLegal(p, legal);
+        for (int i = 0; i < n; i++) {
+            if (Move.toUci(legal[i]).equals(uci)) {
+                return legal[i];
+            }
+        }
+        return 0;
+    }
+}
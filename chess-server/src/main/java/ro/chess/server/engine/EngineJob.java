@@ -0,0 +1,31 @@
+package ro.chess.server.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * O cautare pornita pe pool-ul engine-ului: rezultatul (cand se termina) si butonul de oprire.
+ */
+public final class EngineJob {
+
+    private final AtomicBoolean stop = new AtomicBoolean(false);
+    private final CompletableFuture<SearchResult> result = new CompletableFuture<>();
+
+    AtomicBoolean stopSignal() {
+        return stop;
+    }
+
+    /**
+     * Cea mai buna mutare gasita. Se completeaza si dupa cancel(), cu ce s-a gasit pana atunci.
+     */
+    public CompletableFuture<SearchResult> result() {
+        return result;
+    }
+
+    /**
+     * Opreste cautarea cat mai repede (din orice thread).
+     */
+    public void cancel() {
+        stop.set(true);
+    }
+}
@@ -0,0 +1,201 @@
+package ro.chess.server.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ro.chess.server.model.EvalWeights;
+import ro.chess.server.model.Position;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine-ul serverului: cauta mutari pe pool-ul lui de thread-uri ("engineExecutor"),
+ * ca o cautare lunga sa nu tina ocupat thread-ul unui joc.
+ *
+ * Tabela de transpozitie e una singura pentru tot serverul (pozitiile sunt identificate
+ * prin cheia Zobrist, deci jocuri diferite nu se incurca). Ocupa chess.engine.hash-mb, in afara heap-ului.
+ *
+ * Evaluarea foloseste ponderile din chess.engine.weights (un fisier ca /engine/weights.properties),
+ * sau pe cele implicite daca proprietatea e goala.
+ *
+ * Cu chess.engine.book setat, engine-ul joaca din cartea de deschideri (OpeningBook, mapata in memorie)
+ * cat timp pozitia e in ea: mutarea e aleasa dupa greutati si jobul se termina imediat, fara cautare.
+ * Aceeasi carte raspunde si la BOOK_HINT (bookMoves).
+ *
+ * Cu chess.tablebase.path setat (un director cu fisierele scrise de TablebaseGenerator), cautarile dau
+ * scorul exact in finalurile cu 3 piese, iar GameService le foloseste ca sa incheie partida (vezi tablebases()).
+ *
+ * O cautare foloseste chess.engine.search.threads thread-uri (Lazy SMP, vezi ParallelSearch),
+ * toate din acelasi pool. Pool-ul e separat de thread-urile Tomcat, de cele ale jocurilor si de cele
+ * de trimitere, deci oricat ar cauta engine-ul, GameSocketHandler si camerele nu asteapta dupa el;
+ * cand pool-ul e plin, cautarile noi stau la coada.
+ *
+ * Metrici (GET /actuator/metrics/...):
+ *   chess.engine.nodes  - noduri cautate in total
+ *   chess.engine.nps    - noduri pe secunda, cate o valoare pentru fiecare cautare
+ *   chess.engine.search - cat a durat fiecare cautare
+ *   chess.engine.hash.full / chess.engine.hash.bytes - cat din tabela folosesc cautarile recente (promile) / marimea ei
+ *   chess.engine.book.hits - mutari jucate din carte
+ *   chess.tablebase.hits / chess.tablebase.maps / chess.tablebase.mapped - pozitii gasite in tabelele de finaluri,
+ *       de cate ori am mapat un fisier, cate fisiere sunt mapate acum
+ */
+@Service
+public class EngineService {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineService.class);
+
+    private final Executor executor;
+    private final TranspositionTable tt;
+    private final ParallelSearch search;
+    private final SearchLimits defaultLimits;
+    private final long maxMillis;
+    private final OpeningBook book;
+    private final Tablebases tablebases;
+
+    private final Counter nodes;
+    private final DistributionSummary nps;
+    private final Timer searchTime;
+    private final Counter bookHits;
+
+    public EngineService(@Qualifier("engineExecutor") Executor executor,
+                         @Value("${chess.engine.hash-mb:64}") int hashMb,
+                         @Value("${chess.engine.search.threads:0}") int searchThreads,
+                         @Value("${chess.engine.movetime-ms:1000}") long movetimeMs,
+                         @Value("${chess.engine.max-movetime-ms:10000}") long maxMovetimeMs,
+                         @Value("${chess.engine.weights:}") String weightsFile,
+                         @Value("${chess.engine.book:}") String bookFile,
+                         @Value("${chess.engine.book.keys:}") String bookKeysFile,
+                         @Value("${chess.tablebase.path:}") String tablebasePath,
+                         @Value("${chess.tablebase.max-mapped:64}") int tablebaseMaxMapped,
+                         MeterRegistry registry) throws IOException {
+        this.executor = executor;
+        if (!weightsFile.isBlank()) {
+            // Inainte de orice joc: pozitiile isi calculeaza sumele cu ponderile de la creare
+            try (InputStream in = Files.newInputStream(Path.of(weightsFile))) {
+                EvalWeights.load(in);
+            }
+            log.info("Engine: ponderile evaluarii din {}", weightsFile);
+        }
+        // 0 = cate un thread pentru fiecare core
+        int threads = searchThreads > 0 ? searchThreads : Runtime.getRuntime().availableProcessors();
+        this.tt = new TranspositionTable(hashMb);
+        this.tablebases = tablebasePath.isBlank() ? Tablebases.EMPTY
+                : new Tablebases(Path.of(tablebasePath), tablebaseMaxMapped);
+        if (tablebases != Tablebases.EMPTY) {
+            log.info("Engine: tabelele de finaluri din {} (cel mult {} fisiere mapate)", tablebasePath, tablebaseMaxMapped);
+        }
+        this.search = new ParallelSearch(tt, tablebases, executor, threads);
+        log.info("Engine: tabela de transpozitie {} MB (in afara heap-ului), {} thread-uri pe cautare",
+                tt.sizeBytes() >> 20, threads);
+        this.defaultLimits = SearchLimits.millis(movetimeMs);
+        this.maxMillis = maxMovetimeMs;
+        if (bookFile.isBlank()) {
+            this.book = OpeningBook.EMPTY;
+        } else {
+            long[] random = bookKeysFile.isBlank() ? null : OpeningBook.readRandom(Path.of(bookKeysFile));
+            this.book = OpeningBook.open(Path.of(bookFile), random);
+            log.info("Engine: cartea de deschideri {} ({} intrari, chei {})", bookFile, book.size(),
+                    random == null ? "Zobrist" : "Polyglot");
+        }
+
+        nodes = Counter.builder("chess.engine.nodes").register(registry);
+        nps = DistributionSummary.builder("chess.engine.nps")
+                .description("Noduri pe secunda, pentru fiecare cautare")
+                .register(registry);
+        searchTime = Timer.builder("chess.engine.search").register(registry);
+        FunctionCounter.builder("chess.tablebase.hits", tablebases, Tablebases::hits)
+                .description("Pozitii gasite in tabelele de finaluri (cautari si arbitraj)")
+                .register(registry);
+        FunctionCounter.builder("chess.tablebase.maps", tablebases, Tablebases::maps).register(registry);
+        Gauge.builder("chess.tablebase.mapped", tablebases, Tablebases::mappedCount).register(registry);
+        bookHits = Counter.builder("chess.engine.book.hits")
+                .description("Mutari jucate din cartea de deschideri, fara cautare")
+                .register(registry);
+        Gauge.builder("chess.engine.hash.full", tt, TranspositionTable::hashfull)
+                .description("Cat din tabela de transpozitie e folosit de cautarile recente, in promile")
+                .register(registry);
+        Gauge.builder("chess.engine.hash.bytes", tt, TranspositionTable::sizeBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    // Tabela e comuna si cu analizele (AnalysisService)
+    TranspositionTable table() {
+        return tt;
+    }
+
+    /**
+     * Limitele cerute de un client, aduse in intervalul permis de server.
+     * Fara adancime si fara timp folosim chess.engine.movetime-ms.
+     */
+    public SearchLimits limits(int depth, long millis) {
+        depth = Math.max(0, Math.min(depth, Search.MAX_PLY - 1));
+        millis = Math.max(0, Math.min(millis, maxMillis));
+        if (depth == 0 && millis == 0) {
+            return defaultLimits;
+        }
+        // Si o cautare doar pe adancime o oprim dupa timpul maxim
+        return new SearchLimits(depth, millis == 0 ? maxMillis : millis);
+    }
+
+    /**
+     * Tabelele de finaluri (Tablebases.EMPTY daca nu sunt configurate), comune cu analizele si cu jocurile.
+     */
+    public Tablebases tablebases() {
+        return tablebases;
+    }
+
+    /**
+     * Mutarile din cartea de deschideri pentru pozitie (lista goala daca nu e in carte).
+     */
+    public List<OpeningBook.BookMove> bookMoves(Position position) {
+        return book.moves(position);
+    }
+
+    /**
+     * Porneste o cautare. Pozitia si cheile trebuie sa fie copii (cautarea ruleaza pe alt thread).
+     * Daca pozitia e in cartea de deschideri, jobul e deja terminat la intoarcere, cu mutarea din carte.
+     */
+    public EngineJob search(Position position, long[] previousKeys, SearchLimits limits) {
+        EngineJob job = new EngineJob();
+        int bookMove = book.pick(position, ThreadLocalRandom.current());
+        if (bookMove != 0) {
+            bookHits.increment();
+            job.result().complete(new SearchResult(bookMove, 0, 0, 0, 0, new int[] { bookMove }));
+            return job;
+        }
+        executor.execute(() -> {
+            try {
+                SearchResult r = search.search(position, previousKeys, limits, job.stopSignal(), null);
+                record(r);
+                job.result().complete(r);
+            } catch (Throwable e) {
+                job.result().completeExceptionally(e);
+            }
+        });
+        return job;
+    }
+
+    private void record(SearchResult r) {
+        nodes.increment(r.nodes());
+        nps.record(r.nps());
+        searchTime.record(r.millis(), TimeUnit.MILLISECONDS);
+        log.debug("Engine: adancime {}, scor {}, {} noduri in {} ms ({} noduri/s, {} thread-uri), pv {}",
+                r.depth(), r.score(), r.nodes(), r.millis(), r.nps(), search.getThreads(), r.pvUci());
+    }
+}
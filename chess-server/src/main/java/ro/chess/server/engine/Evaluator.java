@@ -0,0 +1,49 @@
+package ro.chess.server.engine;
+
+import ro.chess.server.model.EvalWeights;
+import ro.chess.server.model.Position;
+
+/**
+ * Evaluarea statica a unei pozitii: materialul + cat de bine sunt asezate piesele
+ * (tabele piesa-patrat). Scorul e in centipioni, din perspectiva celui la mutare.
+ *
+ * Fiecare piesa are doua valori pe fiecare patrat, una pentru mijlocul jocului si una pentru final
+ * (de ex. regele sta ascuns la mijlocul jocului, dar in final trebuie sa vina in centru).
+ * Scorul final e o medie intre ele, ponderata cu faza jocului: cu cat au ramas mai putine piese,
+ * cu atat conteaza mai mult scorul de final.
+ *
+ * Sumele sunt tinute la zi de Position la fiecare mutare (vezi EvalWeights), asa ca o evaluare
+ * costa cateva operatii, nu o trecere prin toate piesele.
+ */
+public final class Evaluator {
+
+    // Valoarea pieselor pentru ordonarea capturilor, in ordinea din Position.typeOf():
+    // pion, cal, nebun, tura, regina, rege
+    public static final int[] VALUE = { 100, 320, 330, 500, 900, 0 };
+
+    private Evaluator() {
+    }
+
+    /**
+     * Scorul pozitiei pentru cel care e la mutare (pozitiv = ii e bine lui).
+     */
+    public static int evaluate(Position p) {
+        int score = taper(p.getMgScore(), p.getEgScore(), p.getPhase());
+        return p.isWhiteTurn() ? score : -score;
+    }
+
+    /**
+     * La fel ca evaluate, dar calculat de la zero, fara sumele din Position (pentru verificari si benchmark).
+     */
+    public static int evaluateFull(Position p) {
+        int[] sums = EvalWeights.compute(p);
+        int score = taper(sums[0], sums[1], sums[2]);
+        return p.isWhiteTurn() ? score : -score;
+    }
+
+    private static int taper(int mg, int eg, int phase) {
+        // Dupa o promovare pot fi mai multe piese decat la start
+        phase = Math.min(phase, EvalWeights.MAX_PHASE);
+        return (mg * phase + eg * (EvalWeights.MAX_PHASE - phase)) / EvalWeights.MAX_PHASE;
+    }
+}
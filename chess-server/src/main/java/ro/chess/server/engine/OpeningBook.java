@@ -0,0 +1,257 @@
+package ro.chess.server.engine;
+
+import ro.chess.server.model.Move;
+import ro.chess.server.model.MoveGenerator;
+import ro.chess.server.model.Position;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Cartea de deschideri: pentru pozitiile de la inceputul jocului, mutarile "de teorie" si cat de des se joaca.
+ *
+ * Formatul fisierului e cel din Polyglot: intrari de 16 octeti, big-endian, sortate dupa cheie:
+ *   [cheia pozitiei u64][mutarea u16][greutatea u16][learn u32]
+ * Mutarea: sosire (biti 0-5), plecare (6-11), promovare (12-14: 1=cal ... 4=regina);
+ * rocada e scrisa ca "regele ia tura" (e1h1, e1a1, e8h8, e8a8).
+ *
+ * Fisierul nu e citit in heap: il mapam in memorie (FileChannel.map) si cautam binar direct in el,
+ * deci pornirea e instantanee si heap-ul nu creste nici cu o carte de sute de MB; sistemul de operare
+ * aduce de pe disc doar paginile atinse. Un MappedByteBuffer are cel mult 2 GB, asa ca fisierele
+ * mari sunt mapate in bucati de 1 GB. Citirile (get cu index) nu modifica buffer-ul, deci cartea
+ * poate fi folosita de oricate thread-uri deodata.
+ *
+ * Cheile: cartile Polyglot "adevarate" folosesc un tabel fix de 781 de numere aleatoare (Random64).
+ * Daca ni-l dai (readRandom), calculam cheile exact ca Polyglot si merge orice carte .bin existenta.
+ * Fara el folosim cheia Zobrist a pozitiei (Position.getKey), iar cartea trebuie construita cu BookBuilder.
+ */
+public class OpeningBook {
+
+    /**
+     * O mutare din carte, deja tradusa intr-o mutare legala (vezi Move), cu greutatea ei.
+     */
+    public record BookMove(int move, int weight) {
+    }
+
+    // Cartea goala: nicio pozitie nu e in ea
+    public static final OpeningBook EMPTY = new OpeningBook(new MappedByteBuffer[0], 0, null);
+
+    // Cate numere are tabelul Random64 al Polyglot: 12 x 64 piese, 4 rocade, 8 coloane en passant, randul
+    public static final int RANDOM_COUNT = 781;
+
+    static final int ENTRY_BYTES = 16;
+    private static final int CHUNK_BITS = 30;
+    private static final int ENTRIES_PER_CHUNK = (1 << CHUNK_BITS) / ENTRY_BYTES;
+
+    private final MappedByteBuffer[] chunks;
+    private final long entries;
+    private final long[] random;
+
+    private OpeningBook(MappedByteBuffer[] chunks, long entries, long[] random) {
+        this.chunks = chunks;
+        this.entries = entries;
+        this.random = random;
+    }
+
+    /**
+     * Mapeaza fisierul cartii (doar citire).
+     *
+     * @param random tabelul Random64 al Polyglot, sau null pentru cheile Zobrist ale serverului
+     */
+    public static OpeningBook open(Path file, long[] random) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long entries = ch.size() / ENTRY_BYTES;
+            int n = (int) ((entries + ENTRIES_PER_CHUNK - 1) / ENTRIES_PER_CHUNK);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[n];
+            for (int i = 0; i < n; i++) {
+                long first = (long) i * ENTRIES_PER_CHUNK;
+                long count = Math.min(ENTRIES_PER_CHUNK, entries - first);
+                chunks[i] = ch.map(FileChannel.MapMode.READ_ONLY, first * ENTRY_BYTES, count * ENTRY_BYTES);
+                chunks[i].order(ByteOrder.BIG_ENDIAN);
+            }
+            // Maparea ramane valida si dupa ce inchidem canalul
+            return new OpeningBook(chunks, entries, random);
+        }
+    }
+
+    /**
+     * Citeste tabelul Random64: 781 de numere hexazecimale (cu sau fara "0x" / "ULL", deci merge
+     * si copiat direct din sursa C a Polyglot), separate prin spatii, virgule sau linii noi.
+     */
+    public static long[] readRandom(Path file) throws IOException {
+        String[] parts = Files.readString(file).replaceAll("(?i)0x|u|l", " ").trim().split("[\\s,]+");
+        if (parts.length != RANDOM_COUNT) {
+            throw new IOException(file + ": " + parts.length + " numere in loc de " + RANDOM_COUNT);
+        }
+        long[] random = new long[RANDOM_COUNT];
+        for (int i = 0; i < RANDOM_COUNT; i++) {
+            random[i] = Long.parseUnsignedLong(parts[i], 16);
+        }
+        return random;
+    }
+
+    /**
+     * Cate intrari are cartea.
+     */
+    public long size() {
+        return entries;
+    }
+
+    /**
+     * Cheia sub care e cautata pozitia in carte.
+     */
+    public long key(Position p) {
+        return random == null ? p.getKey() : polyglotKey(p, random);
+    }
+
+    /**
+     * Mutarile din carte pentru pozitia data (doar cele legale), in ordinea din fisier.
+     */
+    public List<BookMove> moves(Position p) {
+        List<BookMove> result = new ArrayList<>();
+        if (entries == 0) {
+            return result;
+        }
+        long key = key(p);
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.generateLegal(p, legal);
+        for (long i = lowerBound(key); i < entries && keyAt(i) == key; i++) {
+            int move = toMove(p, moveAt(i), legal, n);
+            int weight = weightAt(i);
+            if (move != 0 && weight > 0) {
+                result.add(new BookMove(move, weight));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * O mutare din carte aleasa la intamplare, cu probabilitate proportionala cu greutatea; 0 daca pozitia nu e in carte.
+     */
+    public int pick(Position p, RandomGenerator rnd) {
+        List<BookMove> moves = moves(p);
+        int total = 0;
+        for (BookMove m : moves) {
+            total += m.weight();
+        }
+        if (total == 0) {
+            return 0;
+        }
+        int r = rnd.nextInt(total);
+        for (BookMove m : moves) {
+            r -= m.weight();
+            if (r < 0) {
+                return m.move();
+            }
+        }
+        return 0;
+    }
+
+    // Prima intrare cu cheia >= key (cheile sunt sortate ca numere fara semn)
+    private long lowerBound(long key) {
+        long lo = 0;
+        long hi = entries;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private long keyAt(long i) {
+        return chunks[(int) (i / ENTRIES_PER_CHUNK)].getLong((int) (i % ENTRIES_PER_CHUNK) * ENTRY_BYTES);
+    }
+
+    private int moveAt(long i) {
+        return chunks[(int) (i / ENTRIES_PER_CHUNK)].getShort((int) (i % ENTRIES_PER_CHUNK) * ENTRY_BYTES + 8) & 0xFFFF;
+    }
+
+    private int weightAt(long i) {
+        return chunks[(int) (i / ENTRIES_PER_CHUNK)].getShort((int) (i % ENTRIES_PER_CHUNK) * ENTRY_BYTES + 10) & 0xFFFF;
+    }
+
+    // Mutarea Polyglot -> mutarea legala corespunzatoare (0 daca nu e legala in pozitie)
+    private static int toMove(Position p, int book, int[] legal, int n) {
+        int to = book & 63;
+        int from = (book >>> 6) & 63;
+        int promo = (book >>> 12) & 7;
+        // Rocada: "regele ia tura proprie" -> regele sare doua patrate
+        int piece = p.pieceAt(from);
+        int target = p.pieceAt(to);
+        if (piece != Position.EMPTY && target != Position.EMPTY && Position.typeOf(piece) == 5
+                && Position.typeOf(target) == 3 && Position.isWhite(piece) == Position.isWhite(target)) {
+            to = to > from ? from + 2 : from - 2;
+        }
+        for (int i = 0; i < n; i++) {
+            int m = legal[i];
+            if (Move.from(m) == from && Move.to(m) == to
+                    && (Move.isPromotion(m) ? Move.promotionType(m) == promo : promo == 0)) {
+                return m;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Mutarea noastra -> mutarea in formatul cartii (folosita de BookBuilder).
+     */
+    static int toBook(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (Move.flags(move) == Move.KING_CASTLE) {
+            to = from + 3;
+        } else if (Move.flags(move) == Move.QUEEN_CASTLE) {
+            to = from - 4;
+        }
+        int promo = Move.isPromotion(move) ? Move.promotionType(move) : 0;
+        return to | (from << 6) | (promo << 12);
+    }
+
+    /**
+     * Cheia Polyglot: XOR intre numerele din Random64 pentru fiecare piesa, rocadele, coloana
+     * de en passant (doar daca se poate captura, ca la noi) si "e randul albului".
+     */
+    static long polyglotKey(Position p, long[] random) {
+        long key = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = p.pieceAt(sq);
+            if (piece != Position.EMPTY) {
+                // Ordinea Polyglot: pion negru, pion alb, cal negru, cal alb, ...
+                int kind = 2 * Position.typeOf(piece) + (Position.isWhite(piece) ? 1 : 0);
+                key ^= random[64 * kind + sq];
+            }
+        }
+        int castling = p.getCastling();
+        if ((castling & Position.CASTLE_WK) != 0) {
+            key ^= random[768];
+        }
+        if ((castling & Position.CASTLE_WQ) != 0) {
+            key ^= random[769];
+        }
+        if ((castling & Position.CASTLE_BK) != 0) {
+            key ^= random[770];
+        }
+        if ((castling & Position.CASTLE_BQ) != 0) {
+            key ^= random[771];
+        }
+        if (p.getEpSquare() >= 0) {
+            key ^= random[772 + (p.getEpSquare() & 7)];
+        }
+        if (p.isWhiteTurn()) {
+            key ^= random[780];
+        }
+        return key;
+    }
+}
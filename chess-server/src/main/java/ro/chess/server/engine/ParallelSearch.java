@@ -0,0 +1,135 @@
+package ro.chess.server.engine;
+
+import ro.chess.server.model.Position;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cautare pe mai multe thread-uri, in stilul "Lazy SMP".
+ *
+ * Nu impartim arborele intre thread-uri: fiecare thread cauta toata pozitia, cu propriul Search
+ * (killers, istoric), dar toate folosesc aceeasi tabela de transpozitie. Ce termina un thread
+ * ajunge in tabela si ii scurteaza drumul celorlalti, iar din cauza ordinii diferite in care
+ * ajung la pozitii, thread-urile ajutatoare exploreaza si alte ramuri decat cel principal.
+ * Jumatate dintre ajutoare incep de la adancimea 2, ca sa nu mearga toate in acelasi pas.
+ *
+ * Rezultatul (mutare, scor, varianta) e cel al thread-ului principal, cel care respecta limita de timp;
+ * cand se opreste el, se opresc si ajutoarele. Nodurile raportate sunt suma pe toate thread-urile.
+ *
+ * Ajutoarele ruleaza pe acelasi pool ca si cautarile (engineExecutor). Daca pool-ul e ocupat
+ * si un ajutor nu apuca sa porneasca pana termina cautarea principala, pur si simplu nu mai ruleaza.
+ */
+public class ParallelSearch {
+
+    private final TranspositionTable tt;
+    private final Executor executor;
+    private final int threads;
+
+    // Fiecare thread din pool are obiectul lui Search (tabelele lui interne nu se impart)
+    private final ThreadLocal<Search> searches;
+
+    /**
+     * @param threads cate thread-uri cauta o pozitie (1 = fara ajutoare)
+     */
+    public ParallelSearch(TranspositionTable tt, Executor executor, int threads) {
+        this(tt, Tablebases.EMPTY, executor, threads);
+    }
+
+    public ParallelSearch(TranspositionTable tt, Tablebases tablebases, Executor executor, int threads) {
+        this.tt = tt;
+        this.executor = executor;
+        this.threads = Math.max(1, threads);
+        this.searches = ThreadLocal.withInitial(() -> new Search(tt, tablebases));
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Cauta pe thread-ul curent, cu threads - 1 ajutoare pe executor. Parametrii sunt ca la Search.search.
+     */
+    public SearchResult search(Position root, long[] previousKeys, SearchLimits limits,
+                               AtomicBoolean stop, Search.Listener listener) {
+        tt.newSearch();
+        Search main = searches.get();
+        main.setStartDepth(1);
+        if (threads == 1) {
+            return main.search(root, previousKeys, limits, stop, listener);
+        }
+
+        AtomicBoolean helpersStop = new AtomicBoolean(false);
+        // Ajutoarele nu au limita de timp: se opresc cand termina thread-ul principal
+        SearchLimits helperLimits = SearchLimits.depth(limits.depth());
+        Helper[] helpers = new Helper[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Helper(i + 1, root, previousKeys, helperLimits, helpersStop);
+            executor.execute(helpers[i]);
+        }
+
+        SearchResult r;
+        try {
+            r = main.search(root, previousKeys, limits, stop, listener);
+        } finally {
+            helpersStop.set(true);
+        }
+
+        long nodes = r.nodes();
+        for (Helper h : helpers) {
+            nodes += h.await();
+        }
+        return new SearchResult(r.bestMove(), r.score(), r.depth(), nodes, r.millis(), r.pv());
+    }
+
+    /**
+     * Un thread ajutator. Il "revendica" fie el cand porneste, fie cautarea principala la final
+     * (daca n-a apucat sa porneasca); asa nu asteptam niciodata dupa o sarcina ramasa in coada pool-ului.
+     */
+    private final class Helper implements Runnable {
+        private final int id;
+        private final Position root;
+        private final long[] previousKeys;
+        private final SearchLimits limits;
+        private final AtomicBoolean stop;
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile long nodes;
+
+        Helper(int id, Position root, long[] previousKeys, SearchLimits limits, AtomicBoolean stop) {
+            this.id = id;
+            this.root = root;
+            this.previousKeys = previousKeys;
+            this.limits = limits;
+            this.stop = stop;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                Search s = searches.get();
+                s.setStartDepth(1 + (id & 1));
+                nodes = s.search(root, previousKeys, limits, stop, null).nodes();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        // Cate noduri a cautat (0 daca n-a pornit deloc)
+        long await() {
+            if (claimed.compareAndSet(false, true)) {
+                return 0;
+            }
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package ro.chess.server.engine;
+
+import ro.chess.server.model.Move;
+import ro.chess.server.model.MoveGenerator;
+import ro.chess.server.model.Position;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cautarea engine-ului: alpha-beta (negamax) cu iterative deepening.
+ *
+ * - iterative deepening: cautam la adancimea 1, 2, 3... cat ne permite timpul; fiecare iteratie
+ *   porneste cu mutarile bune gasite de cea dinainte (din tabela de transpozitie), deci in practica
+ *   costa mai putin decat o cautare direct la adancimea finala
+ * - tabela de transpozitie (TranspositionTable): pozitiile deja cautate nu le mai cautam inca o data
+ * - ordinea mutarilor: mutarea din tabela, capturile (cea mai valoroasa victima cu cel mai ieftin
+ *   atacator mai intai), mutarile "killer" si apoi restul dupa istoricul lor; cu cat taiem mai devreme
+ *   la beta, cu atat cautam mai putine noduri
+ * - cautarea de liniste (quiescence): la adancimea 0 mai cautam capturile, ca sa nu evaluam o pozitie
+ *   in mijlocul unui schimb de piese
+ * - extensie la sah, mutare nula si reducerea mutarilor tarzii (LMR)
+ * - tabelele de finaluri (Tablebases): cu 3 piese pe tabla scorul e exact (mat in n sau remiza), nu mai cautam
+ * - multi-PV (pentru analiza): la fiecare adancime cautam radacina de mai multe ori, de fiecare data
+ *   fara primele mutari ale variantelor gasite deja, si obtinem cele mai bune N variante diferite
+ *
+ * Un obiect Search se foloseste de un singur thread; pozitia primita e copiata.
+ * Mai multe obiecte Search pot cauta aceeasi pozitie in paralel, cu aceeasi tabela (vezi ParallelSearch).
+ */
+public class Search {
+
+    public static final int INFINITY = 32000;
+    public static final int MATE = 30000;
+    public static final int MAX_PLY = 128;
+
+    // Din cate in cate noduri ne uitam la ceas
+    private static final int CHECK_EVERY = 2048;
+
+    // Cu cat reduce adancimea mutarea nula
+    private static final int NULL_REDUCTION = 2;
+
+    /**
+     * Primeste rezultatul fiecarei iteratii terminate (adancime 1, 2, ...): cate o varianta
+     * pentru fiecare din cele SearchLimits.multiPv cerute, cea mai buna prima.
+     */
+    public interface Listener {
+        void onIteration(SearchResult[] lines);
+    }
+
+    private final TranspositionTable tt;
+    private final Tablebases tablebases;
+    private final Position pos = new Position();
+
+    // Mutarile si scorurile lor de ordonare, cate un rand pentru fiecare ply (fara alocari in cautare)
+    private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] order = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+
+    // Doua mutari linistite care au taiat la beta pe fiecare ply
+    private final int[][] killers = new int[MAX_PLY][2];
+    // Cat de des a taiat la beta fiecare (piesa, patrat de sosire)
+    private final int[][] history = new int[12][64];
+
+    // Varianta principala, in forma "triunghiulara": pv[ply] = cea mai buna continuare de la ply
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+
+    // Multi-PV: primele mutari ale variantelor deja gasite la adancimea curenta, sarite la radacina
+    private final int[] excluded = new int[MoveGenerator.MAX_MOVES];
+    private int excludedCount;
+
+    // Cheile pozitiilor de dinainte (din joc si de pe drumul curent din cautare), pentru repetitii
+    private long[] keys = new long[256];
+    private int keyCount;
+
+    private long nodes;
+    private long startNanos;
+    private long deadline;
+    private boolean canStop;
+    private boolean stopped;
+    private AtomicBoolean stopSignal;
+
+    // Adancimea de la care incepe iterative deepening (ajutoarele din ParallelSearch incep uneori cu 2)
+    private int startDepth = 1;
+
+    public Search(TranspositionTable tt) {
+        this(tt, Tablebases.EMPTY);
+    }
+
+    public Search(TranspositionTable tt, Tablebases tablebases) {
+        this.tt = tt;
+        this.tablebases = tablebases;
+    }
+
+    void setStartDepth(int startDepth) {
+        this.startDepth = startDepth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Cauta cea mai buna mutare.
+     *
+     * @param root         pozitia (nu e modificata)
+     * @param previousKeys cheile pozitiilor de dinainte din joc (vezi GameService.recentKeys), pentru repetitii
+     * @param limits       pana la ce adancime / cat timp
+     * @param stop         pus pe true din alt thread opreste cautarea (intoarce ce a gasit pana atunci)
+     * @param listener     primeste fiecare iteratie terminata (poate fi null)
+     */
+    public SearchResult search(Position root, long[] previousKeys, SearchLimits limits,
+                               AtomicBoolean stop, Listener listener) {
+        pos.copyFrom(root);
+        if (keys.length < previousKeys.length + MAX_PLY) {
+            keys = new long[previousKeys.length + MAX_PLY];
+        }
+        System.arraycopy(previousKeys, 0, keys, 0, previousKeys.length);
+        keyCount = previousKeys.length;
+
+        nodes = 0;
+        startNanos = System.nanoTime();
+        deadline = limits.millis() > 0 ? startNanos + limits.millis() * 1_000_000 : Long.MAX_VALUE;
+        canStop = false;
+        stopped = false;
+        stopSignal = stop;
+        for (int[] k : killers) {
+            Arrays.fill(k, 0);
+        }
+        for (int[] h : history) {
+            Arrays.fill(h, 0);
+        }
+
+        int maxDepth = limits.depth() > 0 ? Math.min(limits.depth(), MAX_PLY - 1) : MAX_PLY - 1;
+        // Nu putem avea mai multe variante decat mutari legale
+        int lineCount = Math.max(1, Math.min(limits.multiPv(), MoveGenerator.generateLegal(pos, moves[0])));
+        SearchResult result = null;
+        for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++) {
+            // Varianta i: cautam radacina fara primele mutari ale variantelor 0..i-1
+            SearchResult[] lines = new SearchResult[lineCount];
+            excludedCount = 0;
+            for (int i = 0; i < lineCount && !stopped; i++) {
+                int score = search(depth, -INFINITY, INFINITY, 0, false);
+                if (stopped) {
+                    break;
+                }
+                long millis = (System.nanoTime() - startNanos) / 1_000_000;
+                lines[i] = new SearchResult(pv[0][0], score, depth, nodes, millis, Arrays.copyOf(pv[0], pvLength[0]));
+                excluded[excludedCount++] = pv[0][0];
+            }
+            excludedCount = 0;
+            if (stopped) {
+                break;
+            }
+            if (lineCount > 1) {
+                // O varianta cautata mai tarziu poate iesi mai buna decat una dinainte
+                Arrays.sort(lines, (a, b) -> Integer.compare(b.score(), a.score()));
+            }
+            result = lines[0];
+            canStop = true;
+            if (listener != null) {
+                listener.onIteration(lines);
+            }
+            if (result.pv().length == 0) {
+                // Nicio mutare legala (mat sau pat)
+                break;
+            }
+            // Iteratia urmatoare dureaza de cateva ori mai mult; daca am folosit deja jumatate din timp, n-o incepem
+            if (limits.millis() > 0 && result.millis() > limits.millis() / 2) {
+                break;
+            }
+        }
+
+        if (result == null) {
+            // Oprit din afara inainte sa termine adancimea 1: macar o mutare legala
+            int n = MoveGenerator.generateLegal(pos, moves[0]);
+            int move = n > 0 ? moves[0][0] : 0;
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            result = new SearchResult(move, 0, 0, nodes, millis, n > 0 ? new int[] { move } : new int[0]);
+        } else if (result.nodes() != nodes) {
+            // Numaram si nodurile iteratiei neterminate, ca NPS-ul sa fie corect
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            result = new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, millis, result.pv());
+        }
+        return result;
+    }
+
+    // ---------------------------------------------------------------
+    // Alpha-beta
+    // ---------------------------------------------------------------
+
+    private int search(int depth, int alpha, int beta, int ply, boolean nullAllowed) {
+        pvLength[ply] = 0;
+        if ((++nodes & (CHECK_EVERY - 1)) == 0) {
+            checkTime();
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        if (ply > 0) {
+            if (pos.getHalfmoveClock() >= 100 || isRepetition() || pos.isInsufficientMaterial()) {
+                return 0;
+            }
+            // Un mat mai scurt decat cel deja gasit nu mai avem cum gasi pe aici
+            alpha = Math.max(alpha, -MATE + ply);
+            beta = Math.min(beta, MATE - ply - 1);
+            if (alpha >= beta) {
+                return alpha;
+            }
+            if (ply >= MAX_PLY - 1) {
+                return Evaluator.evaluate(pos);
+            }
+            if (Long.bitCount(pos.getOccupied()) <= 3) {
+                int tb = tablebases.probe(pos);
+                if (tb != Tablebases.NOT_FOUND) {
+                    int wdl = Tablebases.wdl(tb);
+                    return wdl == 0 ? 0 : wdl * (MATE - ply - Tablebases.plies(tb));
+                }
+            }
+        }
+
+        boolean inCheck = MoveGenerator.inCheck(pos);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(alpha, beta, ply);
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        long key = pos.getKey();
+        long entry = tt.probe(key);
+        int ttMove = 0;
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int flag = TranspositionTable.flag(entry);
+                if (flag == TranspositionTable.EXACT
+                        || (flag == TranspositionTable.LOWER && score >= beta)
+                        || (flag == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        // Mutarea nula: daca si dupa ce "sarim" o mutare tot suntem peste beta, pozitia e prea buna
+        // ca adversarul sa o permita. Nu si cand avem doar pioni (zugzwang-urile sunt frecvente acolo).
+        if (nullAllowed && !pvNode && !inCheck && depth >= 3 && hasPieces(pos.isWhiteTurn())
+                && Evaluator.evaluate(pos) >= beta) {
+            keys[keyCount++] = key;
+            int undo = pos.makeNullMove();
+            int score = -search(depth - 1 - NULL_REDUCTION, -beta, -beta + 1, ply + 1, false);
+            pos.unmakeNullMove(undo);
+            keyCount--;
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE - MAX_PLY ? beta : score;
+            }
+        }
+
+        int[] list = moves[ply];
+        int n = MoveGenerator.generatePseudoLegal(pos, list);
+        scoreMoves(ply, n, ttMove);
+
+        boolean white = pos.isWhiteTurn();
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = 0;
+        int legal = 0;
+        for (int i = 0; i < n; i++) {
+            int move = pickNext(ply, i, n);
+            if (ply == 0 && isExcluded(move)) {
+                continue;
+            }
+            int piece = pos.pieceAt(Move.from(move));
+            keys[keyCount++] = key;
+            int undo = pos.makeMove(move);
+            if (MoveGenerator.isSquareAttacked(pos, pos.kingSquare(white), !white)) {
+                pos.unmakeMove(move, undo);
+                keyCount--;
+                continue;
+            }
+            legal++;
+
+            int score;
+            if (legal == 1) {
+                score = -search(depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                // Mutarile linistite de la coada listei le cautam intai mai putin adanc
+                int reduction = 0;
+                if (depth >= 3 && legal > 3 && !inCheck && isQuiet(move)
+                        && move != killers[ply][0] && move != killers[ply][1] && !MoveGenerator.inCheck(pos)) {
+                    reduction = legal > 8 ? 2 : 1;
+                }
+                score = -search(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                if (score > alpha && reduction > 0) {
+                    score = -search(depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                }
+                if (score > alpha && score < beta) {
+                    score = -search(depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            pos.unmakeMove(move, undo);
+            keyCount--;
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        if (isQuiet(move)) {
+                            if (killers[ply][0] != move) {
+                                killers[ply][1] = killers[ply][0];
+                                killers[ply][0] = move;
+                            }
+                            history[piece][Move.to(move)] += depth * depth;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (legal == 0) {
+            // Mat (cat mai repede) sau pat
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        if (ply == 0 && excludedCount > 0) {
+            // Scorul fara cele mai bune mutari nu e scorul pozitiei: nu-l salvam
+            return best;
+        }
+        int flag = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        tt.store(key, bestMove, toTable(best, ply), depth, flag);
+        return best;
+    }
+
+    private boolean isExcluded(int move) {
+        for (int i = 0; i < excludedCount; i++) {
+            if (excluded[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cautarea de liniste: doar capturi (si promovari), pana cand pozitia se "linisteste".
+     * Cel la mutare poate oricand sa nu mai captureze nimic, deci evaluarea statica e un minim.
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if ((++nodes & (CHECK_EVERY - 1)) == 0) {
+            checkTime();
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        int standPat = Evaluator.evaluate(pos);
+        if (standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int[] list = moves[ply];
+        int n = MoveGenerator.generateCaptures(pos, list);
+        scoreMoves(ply, n, 0);
+
+        boolean white = pos.isWhiteTurn();
+        int best = standPat;
+        for (int i = 0; i < n; i++) {
+            int move = pickNext(ply, i, n);
+            // Nici macar luand piesa gratis nu ajungem la alpha: nu are rost sa o incercam
+            if (!Move.isPromotion(move) && standPat + capturedValue(move) + 200 <= alpha) {
+                continue;
+            }
+            int undo = pos.makeMove(move);
+            if (MoveGenerator.isSquareAttacked(pos, pos.kingSquare(white), !white)) {
+                pos.unmakeMove(move, undo);
+                continue;
+            }
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            pos.unmakeMove(move, undo);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // ---------------------------------------------------------------
+    // Ordinea mutarilor
+    // ---------------------------------------------------------------
+
+    private void scoreMoves(int ply, int n, int ttMove) {
+        int[] list = moves[ply];
+        int[] scores = order[ply];
+        for (int i = 0; i < n; i++) {
+            int m = list[i];
+            int s;
+            if (m == ttMove) {
+                s = 1_000_000;
+            } else if (Move.isCapture(m)) {
+                // MVV-LVA: cea mai valoroasa victima, cu cel mai ieftin atacator
+                int attacker = Position.typeOf(pos.pieceAt(Move.from(m)));
+                s = 100_000 + capturedValue(m) * 10 - attacker;
+                if (Move.isPromotion(m)) {
+                    s += Evaluator.VALUE[Move.promotionType(m)];
+                }
+            } else if (Move.isPromotion(m)) {
+                s = 90_000 + Evaluator.VALUE[Move.promotionType(m)];
+            } else if (m == killers[ply][0]) {
+                s = 80_000;
+            } else if (m == killers[ply][1]) {
+                s = 79_000;
+            } else {
+                s = Math.min(history[pos.pieceAt(Move.from(m))][Move.to(m)], 70_000);
+            }
+            scores[i] = s;
+        }
+    }
+
+    // Aduce pe pozitia i cea mai buna mutare ramasa (selectie: de obicei taiem dupa primele cateva)
+    private int pickNext(int ply, int i, int n) {
+        int[] list = moves[ply];
+        int[] scores = order[ply];
+        int best = i;
+        for (int j = i + 1; j < n; j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        int m = list[best];
+        list[best] = list[i];
+        list[i] = m;
+        int s = scores[best];
+        scores[best] = scores[i];
+        scores[i] = s;
+        return m;
+    }
+
+    private int capturedValue(int move) {
+        if (Move.flags(move) == Move.EP_CAPTURE) {
+            return Evaluator.VALUE[0];
+        }
+        int victim = pos.pieceAt(Move.to(move));
+        return victim == Position.EMPTY ? 0 : Evaluator.VALUE[Position.typeOf(victim)];
+    }
+
+    private static boolean isQuiet(int move) {
+        return !Move.isCapture(move) && !Move.isPromotion(move);
+    }
+
+    // ---------------------------------------------------------------
+    // Diverse
+    // ---------------------------------------------------------------
+
+    private void updatePv(int ply, int move) {
+        pv[ply][0] = move;
+        int len = ply + 1 < MAX_PLY ? pvLength[ply + 1] : 0;
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, len);
+        pvLength[ply] = len + 1;
+    }
+
+    // Pozitia curenta a mai aparut (cu acelasi jucator la mutare) de la ultima mutare ireversibila?
+    private boolean isRepetition() {
+        long key = pos.getKey();
+        int stop = Math.max(0, keyCount - pos.getHalfmoveClock());
+        for (int i = keyCount - 2; i >= stop; i -= 2) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasPieces(boolean white) {
+        int o = white ? 0 : 6;
+        return (pos.getPieces(Position.WN + o) | pos.getPieces(Position.WB + o)
+                | pos.getPieces(Position.WR + o) | pos.getPieces(Position.WQ + o)) != 0;
+    }
+
+    private void checkTime() {
+        if (stopSignal != null && stopSignal.get()) {
+            stopped = true;
+        } else if (canStop && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+    }
+
+    // Scorurile de mat le salvam relativ la pozitia din tabela, nu la radacina
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
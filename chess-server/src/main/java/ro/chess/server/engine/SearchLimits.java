@@ -0,0 +1,21 @@
+package ro.chess.server.engine;
+
+/**
+ * Cat are voie sa caute engine-ul: pana la o adancime (in semi-mutari) si/sau un timp.
+ * 0 inseamna "fara limita" pentru campul respectiv; macar unul dintre ele trebuie sa fie pus.
+ * multiPv = cate variante diferite (cu prima mutare diferita) cautam; 1 pentru un joc normal, mai multe la analiza.
+ */
+public record SearchLimits(int depth, long millis, int multiPv) {
+
+    public SearchLimits(int depth, long millis) {
+        this(depth, millis, 1);
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0);
+    }
+
+    public static SearchLimits millis(long millis) {
+        return new SearchLimits(0, millis);
+    }
+}
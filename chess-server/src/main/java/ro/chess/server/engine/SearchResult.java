@@ -0,0 +1,37 @@
+package ro.chess.server.engine;
+
+import ro.chess.server.model.Move;
+
+/**
+ * Rezultatul unei iteratii din cautare (sau al cautarii intregi).
+ *
+ * score e din perspectiva celui la mutare, in centipioni; un mat in n semi-mutari
+ * da +/-(Search.MATE - n). pv = varianta principala (prima mutare = bestMove).
+ */
+public record SearchResult(int bestMove, int score, int depth, long nodes, long millis, int[] pv) {
+
+    /**
+     * Noduri pe secunda.
+     */
+    public long nps() {
+        return millis == 0 ? nodes * 1000 : nodes * 1000 / millis;
+    }
+
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * Varianta principala in notatie UCI: "e2e4 e7e5 g1f3".
+     */
+    public String pvUci() {
+        StringBuilder sb = new StringBuilder();
+        for (int m : pv) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(Move.toUci(m));
+        }
+        return sb.toString();
+    }
+}
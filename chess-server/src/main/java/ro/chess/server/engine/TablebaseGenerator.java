@@ -0,0 +1,215 @@
+package ro.chess.server.engine;
+
+import ro.chess.server.model.MoveGenerator;
+import ro.chess.server.model.Position;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Genereaza tabelele de finaluri cu 3 piese (formatul e descris in Tablebases), prin analiza retrograda:
+ *
+ * 1. pentru fiecare pozitie legala tinem minte unde duce fiecare mutare: in alta pozitie din aceeasi tabela,
+ *    sau intr-un rezultat deja cunoscut (regele slab ia piesa = remiza; pionul se transforma = pozitie din
+ *    tabela damei / turei / ..., generata inainte);
+ * 2. pozitiile fara mutari sunt mat (pierdute in 0 semi-mutari) sau pat (remiza);
+ * 3. la pasul d: castiga in d cine are o mutare spre o pozitie pierduta in d - 1; pierde in d cine are
+ *    doar mutari spre pozitii castigate (de adversar) in cel mult d - 1. Ce ramane nerezolvat e remiza.
+ *
+ *   java -cp chess-server/target/classes ro.chess.server.engine.TablebaseGenerator tablebases/
+ *
+ * Dureaza cateva secunde si scrie 5 fisiere de cate 512 KB.
+ */
+public class TablebaseGenerator {
+
+    // Ordinea conteaza: KPvK foloseste tabelele in care se transforma pionul
+    private static final int[] ORDER = { 4, 3, 2, 1, 0 };
+
+    // Rezultatul unei pozitii, cat timp generam
+    private static final byte UNKNOWN = 0, WIN = 1, LOSS = 2, DRAW = 3;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Folosire: TablebaseGenerator director");
+            return;
+        }
+        Path dir = Path.of(args[0]);
+        Files.createDirectories(dir);
+        byte[][] tables = new byte[5][];
+        for (int type : ORDER) {
+            long start = System.nanoTime();
+            tables[type] = generate(type, tables);
+            Path file = dir.resolve(Tablebases.NAMES[type] + Tablebases.EXTENSION);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write(Tablebases.MAGIC);
+                out.write(new byte[] { Tablebases.VERSION, (byte) type, 0, 0 });
+                out.write(tables[type]);
+            }
+            System.out.println(file + ": " + summary(tables[type])
+                    + " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        }
+    }
+
+    /**
+     * Tabela pentru piesa alba de tipul dat (0 = pion ... 4 = regina); done[t] = tabelele deja generate.
+     */
+    static byte[] generate(int type, byte[][] done) {
+        int size = Tablebases.SIZE;
+        byte[] result = new byte[size];
+        byte[] plies = new byte[size];
+        boolean[] legal = new boolean[size];
+
+        // Mutarile fiecarei pozitii, toate intr-un singur tablou: succ[first[i] .. first[i + 1])
+        // >= 0: indexul pozitiei urmatoare in aceeasi tabela; < 0: -1 - (valoarea ei + 128), rezultat stiut
+        int[] first = new int[size + 1];
+        int[] succ = new int[size * 8];
+        int count = 0;
+
+        Position p = new Position();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int i = 0; i < size; i++) {
+            first[i] = count;
+            if (!setup(p, i, type)) {
+                continue;
+            }
+            legal[i] = true;
+            int n = MoveGenerator.generateLegal(p, moves);
+            if (n == 0) {
+                result[i] = MoveGenerator.inCheck(p) ? LOSS : DRAW;
+                continue;
+            }
+            if (count + n > succ.length) {
+                succ = Arrays.copyOf(succ, succ.length * 2);
+            }
+            for (int k = 0; k < n; k++) {
+                int undo = p.makeMove(moves[k]);
+                succ[count++] = successor(p, type, done);
+                p.unmakeMove(moves[k], undo);
+            }
+        }
+        first[size] = count;
+
+        // Cel mai lung mat care vine din alta tabela: pana acolo continuam chiar daca un pas nu schimba nimic
+        int longestOutside = 0;
+        for (int k = 0; k < count; k++) {
+            if (succ[k] < 0) {
+                longestOutside = Math.max(longestOutside, Tablebases.plies(-1 - succ[k] - 128));
+            }
+        }
+
+        for (int d = 1; ; d++) {
+            boolean changed = false;
+            for (int i = 0; i < size; i++) {
+                if (!legal[i] || result[i] != UNKNOWN) {
+                    continue;
+                }
+                boolean allWin = true;
+                for (int k = first[i]; k < first[i + 1]; k++) {
+                    int s = succ[k];
+                    int r;
+                    int dist;
+                    if (s >= 0) {
+                        r = result[s];
+                        dist = plies[s];
+                    } else {
+                        int v = -1 - s - 128;
+                        r = v == 0 ? DRAW : v > 0 ? WIN : LOSS;
+                        dist = Tablebases.plies(v);
+                    }
+                    if (r == LOSS && dist == d - 1) {
+                        result[i] = WIN;
+                        plies[i] = (byte) d;
+                        changed = true;
+                        allWin = false;
+                        break;
+                    }
+                    if (r != WIN || dist > d - 1) {
+                        allWin = false;
+                    }
+                }
+                if (allWin && result[i] == UNKNOWN) {
+                    result[i] = LOSS;
+                    plies[i] = (byte) d;
+                    changed = true;
+                }
+            }
+            if (!changed && d > longestOutside + 1) {
+                break;
+            }
+            if (d >= Byte.MAX_VALUE) {
+                throw new IllegalStateException("Mat prea lung pentru un octet");
+            }
+        }
+
+        byte[] table = new byte[size];
+        for (int i = 0; i < size; i++) {
+            table[i] = switch (result[i]) {
+                case WIN -> plies[i];
+                case LOSS -> (byte) (-plies[i] - 1);
+                default -> 0;
+            };
+        }
+        return table;
+    }
+
+    // Pune pe tabla pozitia cu indexul i; false daca nu e legala
+    private static boolean setup(Position p, int i, int type) {
+        int pieceSq = i & 63;
+        int weakKing = (i >>> 6) & 63;
+        int strongKing = (i >>> 12) & 63;
+        int stm = i >>> 18;
+        if (pieceSq == weakKing || pieceSq == strongKing || weakKing == strongKing
+                || (MoveGenerator.kingAttacks(strongKing) & (1L << weakKing)) != 0) {
+            return false;
+        }
+        if (type == 0 && (pieceSq < 8 || pieceSq >= 56)) {
+            return false;
+        }
+        p.clear();
+        p.put(Position.WK, strongKing);
+        p.put(Position.BK, weakKing);
+        p.put(type, pieceSq);
+        p.setWhiteTurn(stm == 0);
+        // Cel care nu e la mutare nu poate fi in sah
+        int otherKing = stm == 0 ? weakKing : strongKing;
+        return !MoveGenerator.isSquareAttacked(p, otherKing, stm == 0);
+    }
+
+    // Unde duce mutarea tocmai facuta (vezi succ in generate)
+    private static int successor(Position p, int type, byte[][] done) {
+        int stm = p.isWhiteTurn() ? 0 : 1;
+        int strongKing = p.kingSquare(true);
+        int weakKing = p.kingSquare(false);
+        long white = p.getColorPieces(true) & ~p.getPieces(Position.WK);
+        if (white == 0) {
+            // Regele slab a luat piesa
+            return -1 - 128;
+        }
+        int sq = Long.numberOfTrailingZeros(white);
+        int newType = Position.typeOf(p.pieceAt(sq));
+        int index = Tablebases.index(stm, strongKing, weakKing, sq);
+        if (newType == type) {
+            return index;
+        }
+        // Pionul s-a transformat
+        return -1 - (done[newType][index] + 128);
+    }
+
+    private static String summary(byte[] table) {
+        int wins = 0;
+        int losses = 0;
+        int longest = 0;
+        for (byte v : table) {
+            if (v > 0) {
+                wins++;
+            } else if (v < 0) {
+                losses++;
+            }
+            longest = Math.max(longest, Tablebases.plies(v));
+        }
+        return wins + " castigate, " + losses + " pierdute, cel mai lung mat in " + longest + " semi-mutari";
+    }
+}
@@ -0,0 +1,235 @@
+package ro.chess.server.engine;
+
+import org.slf4j.LoggerFactory;
+import ro.chess.server.model.Position;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tabelele de finaluri (tablebase): pentru pozitiile cu 3 piese (doi regi + o piesa), rezultatul exact
+ * cu joc perfect si in cate semi-mutari se da mat. Fisierele sunt generate de TablebaseGenerator.
+ *
+ * Un fisier pe material, cu partea "tare" (cea cu piesa) alba: KQvK.tb, KRvK.tb, KBvK.tb, KNvK.tb, KPvK.tb.
+ * Pozitiile in care piesa e neagra sunt intoarse (randurile oglindite, culorile schimbate) inainte de cautare.
+ *   [antet 8 octeti: "CHTB", versiune, tipul piesei, 0, 0]
+ *   2 x 64 x 64 x 64 octeti, indexul ((la mutare * 64 + regele tare) * 64 + regele slab) * 64 + piesa
+ *   (la mutare: 0 = partea tare, 1 = partea slaba)
+ * Valoarea (cu semn): 0 = remiza (sau pozitie imposibila); v > 0 = cel la mutare da mat in v semi-mutari;
+ * v < 0 = cel la mutare primeste mat in -v - 1 semi-mutari. Pozitiile cu drept de rocada nu sunt in tabele.
+ *
+ * Fisierele nu sunt citite in heap, ci mapate in memorie (doar citire). Tinem mapate cel mult maxMapped,
+ * cele folosite recent; unul scos e eliberat de GC cand nu-l mai citeste nimeni. Canalul e inchis imediat
+ * dupa mapare, deci nu tinem fisiere deschise. Lipsa unui fisier e tinuta minte, ca sa nu-l cautam pe disc
+ * la fiecare pozitie.
+ *
+ * probe() poate fi apelat de oricate thread-uri deodata (toate thread-urile Lazy SMP, la fiecare nod cu 3 piese),
+ * fara lock si fara sa aloce nimic: buffer-ele mapate sunt intr-un tablou mic (un loc pe tip de piesa) care nu
+ * se modifica niciodata, ci se inlocuieste cu totul (copy-on-write) cand mapam sau scoatem un fisier; doar asta
+ * se face sub lock. Pe cine scoatem alegem ca la algoritmul "ceasului" (CLOCK, o aproximare de LRU): probe()
+ * doar marcheaza tabela ca folosita, si doar daca nu era deja marcata, deci nu scrie in memorie la fiecare nod.
+ */
+public class Tablebases {
+
+    // Pozitia nu e in tabele (alt material, rocade, fisier lipsa)
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    // Numele fisierelor, dupa tipul piesei (ca in Position.typeOf: 0 = pion ... 4 = regina)
+    static final String[] NAMES = { "KPvK", "KNvK", "KBvK", "KRvK", "KQvK" };
+    static final String EXTENSION = ".tb";
+    static final int HEADER = 8;
+    static final int SIZE = 2 * 64 * 64 * 64;
+    static final byte[] MAGIC = { 'C', 'H', 'T', 'B' };
+    static final byte VERSION = 1;
+
+    // Nicio tabela: probe() intoarce mereu NOT_FOUND (dupa NAMES, pe care il foloseste constructorul)
+    public static final Tablebases EMPTY = new Tablebases(null, 0);
+
+    // Marcheaza in tables un fisier care nu exista
+    private static final ByteBuffer MISSING = ByteBuffer.allocate(0);
+
+    private final Path dir;
+    private final int maxMapped;
+
+    // Buffer-ele dupa tipul piesei (null = nemapat, MISSING = fisier lipsa); inlocuit cu totul sub lock
+    private volatile ByteBuffer[] tables = new ByteBuffer[NAMES.length];
+    // Folosita de la ultima trecere a ceasului? (scrieri fara lock: cel mult o marcare pierduta)
+    private final boolean[] used = new boolean[NAMES.length];
+    // Unde a ramas ceasul (doar sub lock)
+    private int hand;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder maps = new LongAdder();
+
+    /**
+     * @param dir       directorul cu fisierele .tb
+     * @param maxMapped cate fisiere tinem mapate deodata
+     */
+    public Tablebases(Path dir, int maxMapped) {
+        this.dir = dir;
+        this.maxMapped = Math.max(1, maxMapped);
+    }
+
+    /**
+     * Rezultatul pozitiei (vezi formatul de mai sus), sau NOT_FOUND.
+     */
+    public int probe(Position p) {
+        if (dir == null) {
+            return NOT_FOUND;
+        }
+        long occupied = p.getOccupied();
+        if (Long.bitCount(occupied) != 3 || p.getCastling() != 0) {
+            return NOT_FOUND;
+        }
+        long kings = p.getPieces(Position.WK) | p.getPieces(Position.BK);
+        int sq = Long.numberOfTrailingZeros(occupied & ~kings);
+        int piece = p.pieceAt(sq);
+        ByteBuffer table = table(Position.typeOf(piece));
+        if (table == MISSING) {
+            return NOT_FOUND;
+        }
+        boolean strongWhite = Position.isWhite(piece);
+        int strongKing = p.kingSquare(strongWhite);
+        int weakKing = p.kingSquare(!strongWhite);
+        if (!strongWhite) {
+            // Oglindim tabla: piesa neagra devine alba, iar pionul ei urca
+            strongKing ^= 56;
+            weakKing ^= 56;
+            sq ^= 56;
+        }
+        int stm = p.isWhiteTurn() == strongWhite ? 0 : 1;
+        hits.increment();
+        return table.get(HEADER + index(stm, strongKing, weakKing, sq));
+    }
+
+    /**
+     * 1 = cel la mutare castiga, 0 = remiza, -1 = pierde.
+     */
+    public static int wdl(int value) {
+        return Integer.signum(value);
+    }
+
+    /**
+     * In cate semi-mutari se da mat (0 la remiza).
+     */
+    public static int plies(int value) {
+        return value < 0 ? -value - 1 : value;
+    }
+
+    /**
+     * Cate pozitii am gasit in tabele.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * De cate ori am mapat un fisier (mai des decat numarul de fisiere = maxMapped prea mic).
+     */
+    public long maps() {
+        return maps.sum();
+    }
+
+    /**
+     * Cate fisiere sunt mapate acum.
+     */
+    public int mappedCount() {
+        return mappedCount(tables);
+    }
+
+    private static int mappedCount(ByteBuffer[] t) {
+        int n = 0;
+        for (ByteBuffer b : t) {
+            if (b != null && b != MISSING) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    static int index(int stm, int strongKing, int weakKing, int pieceSq) {
+        return ((stm * 64 + strongKing) * 64 + weakKing) * 64 + pieceSq;
+    }
+
+    // Fara lock cand tabela e deja mapata (sau stim ca lipseste)
+    private ByteBuffer table(int type) {
+        ByteBuffer b = tables[type];
+        if (b == null) {
+            return load(type);
+        }
+        if (!used[type]) {
+            used[type] = true;
+        }
+        return b;
+    }
+
+    // Mapeaza tabela (scotand alta daca sunt deja maxMapped) si publica un tablou nou
+    private synchronized ByteBuffer load(int type) {
+        ByteBuffer[] current = tables;
+        if (current[type] != null) {
+            // A mapat-o alt thread intre timp
+            return current[type];
+        }
+        ByteBuffer b = map(dir.resolve(NAMES[type] + EXTENSION), type);
+        ByteBuffer[] next = current.clone();
+        if (b != MISSING) {
+            while (mappedCount(next) >= maxMapped) {
+                evict(next);
+            }
+        }
+        next[type] = b;
+        used[type] = true;
+        tables = next;
+        return b;
+    }
+
+    // Ceasul: trece peste tabelele mapate, sterge marcajul celor folosite si o scoate pe prima nefolosita
+    private void evict(ByteBuffer[] t) {
+        while (true) {
+            int i = hand;
+            hand = (hand + 1) % t.length;
+            if (t[i] == null || t[i] == MISSING) {
+                continue;
+            }
+            if (used[i]) {
+                used[i] = false;
+            } else {
+                t[i] = null;
+                return;
+            }
+        }
+    }
+
+    private ByteBuffer map(Path file, int type) {
+        if (!Files.isRegularFile(file)) {
+            return MISSING;
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() != HEADER + SIZE) {
+                throw new IOException("marime gresita: " + ch.size());
+            }
+            MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER + SIZE);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (b.get(i) != MAGIC[i]) {
+                    throw new IOException("nu e o tabela de finaluri");
+                }
+            }
+            if (b.get(4) != VERSION || b.get(5) != type) {
+                throw new IOException("versiune sau material gresit");
+            }
+            maps.increment();
+            return b;
+        } catch (IOException e) {
+            // O tabela stricata nu trebuie sa opreasca o cautare: o tratam ca lipsa. (Logger-ul il luam abia aici,
+            // ca TablebaseGenerator sa mearga si fara slf4j in classpath.)
+            LoggerFactory.getLogger(Tablebases.class).warn("Tabela {} nu poate fi citita: {}", file, e.getMessage());
+            return MISSING;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ro.chess.server.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Tabela de transpozitie: tine minte, pentru pozitiile deja cautate, cel mai bun scor
+ * gasit, la ce adancime si cea mai buna mutare. Aceeasi pozitie apare des pe drumuri
+ * diferite (transpozitii) si la fiecare iteratie noua din iterative deepening.
+ *
+ * Memoria e in afara heap-ului Java (ByteBuffer.allocateDirect), deci o tabela de cativa GB
+ * nu mareste heap-ul si nu lungeste pauzele GC pentru jocurile care ruleaza pe acelasi server.
+ * Un singur ByteBuffer are cel mult 2 GB, asa ca tabela e impartita in bucati de 1 GB.
+ * (Dimensiunea maxima a memoriei directe e data de -XX:MaxDirectMemorySize, implicit cat -Xmx.)
+ *
+ * Intrarile sunt grupate cate 4 intr-un "bucket" de 64 de octeti (o linie de cache): o pozitie
+ * poate sta in oricare din cele 4. Bucket-ul il alegem din primii 32 de biti ai cheii, scalati la
+ * numarul de bucket-uri (nu trebuie sa fie putere a lui 2, deci se foloseste toata memoria ceruta).
+ * Fiecare intrare are 2 long-uri: cheie ^ date, apoi datele:
+ *   biti 0-15 mutarea, 16-31 scorul (+32768), 32-39 adancimea, 40-41 tipul scorului, 42-49 "varsta".
+ *
+ * Tabela e folosita in acelasi timp de mai multe thread-uri (Lazy SMP, vezi ParallelSearch), fara lock-uri.
+ * Doua scrieri simultane pe aceeasi intrare pot amesteca cheia uneia cu datele celeilalte, asa ca
+ * in loc de cheie salvam cheie ^ date: la citire, (cheie ^ date) ^ date trebuie sa dea cheia cautata,
+ * altfel intrarea e stricata si o tratam ca lipsa.
+ *
+ * Inlocuire: aceeasi pozitie isi actualizeaza intrarea; altfel scriem peste intrarea care valoreaza
+ * cel mai putin din bucket: goala, apoi din cautari vechi, apoi cu adancimea cea mai mica.
+ */
+public class TranspositionTable {
+
+    // Tipul scorului salvat
+    public static final int EXACT = 0;
+    public static final int LOWER = 1; // scorul e cel putin atat (a taiat la beta)
+    public static final int UPPER = 2; // scorul e cel mult atat (nicio mutare n-a depasit alpha)
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final ByteBuffer[] chunks;
+    private final long buckets;
+    private volatile int age;
+
+    /**
+     * @param megabytes cat spatiu ocupa tabela
+     */
+    public TranspositionTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * (1L << 20);
+        buckets = bytes / BUCKET_BYTES;
+
+        long total = buckets * BUCKET_BYTES;
+        int n = (int) ((total + CHUNK_MASK) >>> CHUNK_BITS);
+        chunks = new ByteBuffer[n];
+        for (int i = 0; i < n; i++) {
+            int size = (int) Math.min(total - ((long) i << CHUNK_BITS), 1L << CHUNK_BITS);
+            chunks[i] = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Cati octeti ocupa tabela.
+     */
+    public long sizeBytes() {
+        return buckets * BUCKET_BYTES;
+    }
+
+    /**
+     * O cautare noua: intrarile vechi devin primele candidate la inlocuire.
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    public void clear() {
+        byte[] zeros = new byte[1 << 16];
+        for (ByteBuffer b : chunks) {
+            for (int pos = 0; pos < b.capacity(); pos += zeros.length) {
+                b.put(pos, zeros, 0, Math.min(zeros.length, b.capacity() - pos));
+            }
+        }
+    }
+
+    /**
+     * Datele salvate pentru pozitia cu cheia data, sau 0 daca nu exista.
+     */
+    public long probe(long key) {
+        long offset = bucketOffset(key);
+        ByteBuffer b = chunks[(int) (offset >>> CHUNK_BITS)];
+        int pos = (int) (offset & CHUNK_MASK);
+        for (int e = 0; e < BUCKET_ENTRIES; e++, pos += ENTRY_BYTES) {
+            long data = b.getLong(pos + 8);
+            if (data != 0 && (b.getLong(pos) ^ data) == key) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    public void store(long key, int move, int score, int depth, int flag) {
+        long offset = bucketOffset(key);
+        ByteBuffer b = chunks[(int) (offset >>> CHUNK_BITS)];
+        int start = (int) (offset & CHUNK_MASK);
+        int age = this.age;
+
+        int target = start;
+        int worst = Integer.MAX_VALUE;
+        for (int e = 0, pos = start; e < BUCKET_ENTRIES; e++, pos += ENTRY_BYTES) {
+            long old = b.getLong(pos + 8);
+            if (old != 0 && (b.getLong(pos) ^ old) == key) {
+                // Aceeasi pozitie: nu stricam o cautare mult mai adanca din aceeasi tura cu una superficiala
+                if (flag != EXACT && age(old) == age && depth(old) > depth + 3) {
+                    return;
+                }
+                if (move == 0) {
+                    // Nu pierdem mutarea buna pe care o stiam deja
+                    move = move(old);
+                }
+                target = pos;
+                break;
+            }
+            // Cat de "valoroasa" e intrarea: goala < veche < putin adanca
+            int worth = old == 0 ? Integer.MIN_VALUE : depth(old) - 8 * ((age - age(old)) & 0xFF);
+            if (worth < worst) {
+                worst = worth;
+                target = pos;
+            }
+        }
+
+        long data = (move & 0xFFFFL)
+                | ((long) (score + 32768) << 16)
+                | ((long) Math.min(depth, 255) << 32)
+                | ((long) flag << 40)
+                | ((long) age << 42);
+        b.putLong(target, key ^ data);
+        b.putLong(target + 8, data);
+    }
+
+    /**
+     * Cat din tabela e folosit de cautarile recente, in promile (esantion din primele 1000 de bucket-uri).
+     */
+    public int hashfull() {
+        int age = this.age;
+        long sample = Math.min(1000, buckets);
+        int used = 0;
+        for (long i = 0; i < sample; i++) {
+            long offset = i * BUCKET_BYTES;
+            ByteBuffer b = chunks[(int) (offset >>> CHUNK_BITS)];
+            int pos = (int) (offset & CHUNK_MASK);
+            for (int e = 0; e < BUCKET_ENTRIES; e++, pos += ENTRY_BYTES) {
+                long data = b.getLong(pos + 8);
+                if (data != 0 && age(data) == age) {
+                    used++;
+                }
+            }
+        }
+        return (int) (used * 1000 / (sample * BUCKET_ENTRIES));
+    }
+
+    // Primii 32 de biti ai cheii, ca fractie din [0, 1), inmultiti cu numarul de bucket-uri
+    private long bucketOffset(long key) {
+        return (((key >>> 32) * buckets) >>> 32) * BUCKET_BYTES;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (int) ((data >>> 16) & 0xFFFF) - 32768;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int flag(long data) {
+        return (int) ((data >>> 40) & 3);
+    }
+
+    private static int age(long data) {
+        return (int) ((data >>> 42) & 0xFF);
+    }
+}
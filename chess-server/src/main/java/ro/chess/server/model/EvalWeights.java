@@ -0,0 +1,121 @@
+package ro.chess.server.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * Ponderile evaluarii statice: pentru fiecare (piesa, patrat) cat valoreaza piesa acolo,
+ * o data la mijlocul jocului (MG) si o data in final (EG), plus cat conteaza piesa pentru "faza" jocului.
+ *
+ * Ca la Zobrist, Position aduna valorile la fiecare put/remove, deci suma pe tabla e mereu
+ * gata calculata si evaluarea nu mai trebuie sa parcurga piesele (vezi Evaluator).
+ * Valorile pentru alb sunt pozitive, pentru negru negative: suma = alb - negru.
+ *
+ * Valorile implicite sunt in resursa /engine/weights.properties (formatul e descris acolo).
+ * Alt fisier se poate incarca cu load(), dar doar la pornire, inainte sa existe pozitii:
+ * pozitiile deja create raman cu sumele calculate din ponderile vechi.
+ */
+public final class EvalWeights {
+
+    // Faza maxima: toate piesele pe tabla (4 cai + 4 nebuni + 2*4 ture + 2*4 regine = 24)
+    public static final int MAX_PHASE = 24;
+
+    private static final String[] NAMES = { "pawn", "knight", "bishop", "rook", "queen", "king" };
+
+    static final int[][] MG = new int[12][64];
+    static final int[][] EG = new int[12][64];
+    static final int[] PHASE = new int[12];
+
+    static {
+        try (InputStream in = EvalWeights.class.getResourceAsStream("/engine/weights.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("Lipseste resursa /engine/weights.properties");
+            }
+            load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private EvalWeights() {
+    }
+
+    /**
+     * Citeste ponderile dintr-un fisier in formatul din /engine/weights.properties si le foloseste de acum.
+     */
+    public static synchronized void load(InputStream in) throws IOException {
+        Properties props = new Properties();
+        props.load(in);
+
+        int[][] mg = new int[12][64];
+        int[][] eg = new int[12][64];
+        int[] phase = new int[12];
+        for (int type = 0; type < 6; type++) {
+            String name = NAMES[type];
+            int mgValue = number(props, "value.mg." + name);
+            int egValue = number(props, "value.eg." + name);
+            int[] mgTable = table(props, "pst.mg." + name);
+            int[] egTable = table(props, "pst.eg." + name);
+            phase[type] = phase[type + 6] = number(props, "phase." + name);
+
+            // Tabelele sunt scrise din partea albului, cu randul 8 primul:
+            // pentru alb patratul sq e la indexul sq ^ 56, pentru negru (oglindit) la sq
+            for (int sq = 0; sq < 64; sq++) {
+                mg[type][sq] = mgValue + mgTable[sq ^ 56];
+                eg[type][sq] = egValue + egTable[sq ^ 56];
+                mg[type + 6][sq] = -(mgValue + mgTable[sq]);
+                eg[type + 6][sq] = -(egValue + egTable[sq]);
+            }
+        }
+
+        for (int piece = 0; piece < 12; piece++) {
+            System.arraycopy(mg[piece], 0, MG[piece], 0, 64);
+            System.arraycopy(eg[piece], 0, EG[piece], 0, 64);
+        }
+        System.arraycopy(phase, 0, PHASE, 0, 12);
+    }
+
+    /**
+     * Sumele MG, EG si faza calculate de la zero (pentru verificari), in aceasta ordine.
+     */
+    public static int[] compute(Position p) {
+        int mg = 0;
+        int eg = 0;
+        int phase = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = p.mailbox[sq];
+            if (piece != Position.EMPTY) {
+                mg += MG[piece][sq];
+                eg += EG[piece][sq];
+                phase += PHASE[piece];
+            }
+        }
+        return new int[] { mg, eg, phase };
+    }
+
+    private static int number(Properties props, String name) {
+        String value = props.getProperty(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Lipseste ponderea " + name);
+        }
+        return Integer.parseInt(value.trim());
+    }
+
+    private static int[] table(Properties props, String name) {
+        String value = props.getProperty(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Lipseste tabela " + name);
+        }
+        String[] parts = value.trim().split("\\s+");
+        if (parts.length != 64) {
+            throw new IllegalArgumentException("Tabela " + name + " are " + parts.length + " valori in loc de 64");
+        }
+        int[] t = new int[64];
+        for (int i = 0; i < 64; i++) {
+            t[i] = Integer.parseInt(parts[i]);
+        }
+        return t;
+    }
+}
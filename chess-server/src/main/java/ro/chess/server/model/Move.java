@@ -0,0 +1,74 @@
+package ro.chess.server.model;
+
+/**
+ * O mutare impachetata intr-un singur int (de fapt 16 biti), ca sa nu alocam obiecte.
+ *
+ * biti 0-5   : patratul de plecare (0-63)
+ * biti 6-11  : patratul de sosire (0-63)
+ * biti 12-15 : tipul mutarii (vezi constantele de mai jos)
+ */
+public final class Move {
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EP_CAPTURE = 5;
+    // Promovari: 8 + (0=cal, 1=nebun, 2=tura, 3=regina), cu captura: 12 + ...
+    public static final int PROMOTION = 8;
+    public static final int PROMO_CAPTURE = 12;
+
+    private static final char[] PROMO_CHARS = { 'n', 'b', 'r', 'q' };
+
+    private Move() {
+    }
+
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        int f = flags(move);
+        return f == KING_CASTLE || f == QUEEN_CASTLE;
+    }
+
+    /**
+     * Tipul piesei in care se transforma pionul (1=cal, 2=nebun, 3=tura, 4=regina),
+     * in aceeasi numerotare ca Position.typeOf().
+     */
+    public static int promotionType(int move) {
+        return (flags(move) & 3) + 1;
+    }
+
+    /**
+     * Notatie UCI: "e2e4", "e7e8q".
+     */
+    public static String toUci(int move) {
+        String s = Position.squareName(from(move)) + Position.squareName(to(move));
+        if (isPromotion(move)) {
+            s += PROMO_CHARS[flags(move) & 3];
+        }
+        return s;
+    }
+}
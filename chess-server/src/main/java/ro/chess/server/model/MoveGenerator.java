@@ -0,0 +1,364 @@
+package ro.chess.server.model;
+
+/**
+ * Generatorul de mutari.
+ * Intai generam mutarile "pseudo-legale" (cum se misca piesele, fara sa ne uitam la sah),
+ * apoi le pastram doar pe cele dupa care regele nostru nu ramane in sah.
+ *
+ * Mutarile se scriu intr-un int[] primit de la apelant, ca sa nu alocam nimic.
+ */
+public final class MoveGenerator {
+
+    // Destul pentru orice pozitie legala (maximul cunoscut e 218)
+    public static final int MAX_MOVES = 256;
+
+    // Atacurile pieselor care nu "aluneca" (cal, rege, pion), calculate o singura data
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64]; // [0] = alb, [1] = negru
+
+    // Razele pentru piesele care aluneca: 8 directii x 64 patrate.
+    // Directiile 0-3 cresc indexul (N, E, NE, NV), 4-7 il scad (S, V, SE, SV).
+    private static final long[][] RAYS = new long[8][64];
+    private static final int[] DR = { 1, 0, 1, 1, -1, 0, -1, -1 };
+    private static final int[] DF = { 0, 1, 1, -1, 0, -1, 1, -1 };
+
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_8 = 0xFFL << 56;
+
+    static {
+        int[][] knight = { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 } };
+        for (int sq = 0; sq < 64; sq++) {
+            int r = sq >>> 3;
+            int f = sq & 7;
+            for (int[] d : knight) {
+                KNIGHT_ATTACKS[sq] |= bit(r + d[0], f + d[1]);
+            }
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int df = -1; df <= 1; df++) {
+                    if (dr != 0 || df != 0) {
+                        KING_ATTACKS[sq] |= bit(r + dr, f + df);
+                    }
+                }
+            }
+            PAWN_ATTACKS[0][sq] = bit(r + 1, f - 1) | bit(r + 1, f + 1);
+            PAWN_ATTACKS[1][sq] = bit(r - 1, f - 1) | bit(r - 1, f + 1);
+            for (int dir = 0; dir < 8; dir++) {
+                for (int i = 1; i < 8; i++) {
+                    long b = bit(r + DR[dir] * i, f + DF[dir] * i);
+                    if (b == 0) {
+                        break;
+                    }
+                    RAYS[dir][sq] |= b;
+                }
+            }
+        }
+    }
+
+    private MoveGenerator() {
+    }
+
+    private static long bit(int r, int f) {
+        return (r < 0 || r > 7 || f < 0 || f > 7) ? 0L : 1L << (r * 8 + f);
+    }
+
+    // ---------------------------------------------------------------
+    // Atacuri
+    // ---------------------------------------------------------------
+
+    private static long rayAttacks(int dir, int sq, long occ) {
+        long ray = RAYS[dir][sq];
+        long blockers = ray & occ;
+        if (blockers != 0) {
+            // Prima piesa intalnita pe raza; dincolo de ea nu mai vedem
+            int b = dir < 4 ? Long.numberOfTrailingZeros(blockers) : 63 - Long.numberOfLeadingZeros(blockers);
+            ray ^= RAYS[dir][b];
+        }
+        return ray;
+    }
+
+    public static long rookAttacks(int sq, long occ) {
+        return rayAttacks(0, sq, occ) | rayAttacks(1, sq, occ) | rayAttacks(4, sq, occ) | rayAttacks(5, sq, occ);
+    }
+
+    public static long bishopAttacks(int sq, long occ) {
+        return rayAttacks(2, sq, occ) | rayAttacks(3, sq, occ) | rayAttacks(6, sq, occ) | rayAttacks(7, sq, occ);
+    }
+
+    public static long knightAttacks(int sq) {
+        return KNIGHT_ATTACKS[sq];
+    }
+
+    public static long kingAttacks(int sq) {
+        return KING_ATTACKS[sq];
+    }
+
+    public static long pawnAttacks(boolean white, int sq) {
+        return PAWN_ATTACKS[white ? 0 : 1][sq];
+    }
+
+    /**
+     * E patratul sq atacat de piesele culorii byWhite?
+     */
+    public static boolean isSquareAttacked(Position p, int sq, boolean byWhite) {
+        long[] pc = p.pieces;
+        int o = byWhite ? 0 : 6;
+        // Un pion alb ataca sq daca un pion negru de pe sq ar ataca pionul alb (si invers)
+        if ((PAWN_ATTACKS[byWhite ? 1 : 0][sq] & pc[Position.WP + o]) != 0) return true;
+        if ((KNIGHT_ATTACKS[sq] & pc[Position.WN + o]) != 0) return true;
+        if ((KING_ATTACKS[sq] & pc[Position.WK + o]) != 0) return true;
+        long queens = pc[Position.WQ + o];
+        if ((rookAttacks(sq, p.occupied) & (pc[Position.WR + o] | queens)) != 0) return true;
+        return (bishopAttacks(sq, p.occupied) & (pc[Position.WB + o] | queens)) != 0;
+    }
+
+    /**
+     * E in sah regele celui care e la mutare?
+     */
+    public static boolean inCheck(Position p) {
+        return isSquareAttacked(p, p.kingSquare(p.whiteTurn), !p.whiteTurn);
+    }
+
+    // ---------------------------------------------------------------
+    // Generare
+    // ---------------------------------------------------------------
+
+    /**
+     * Genereaza toate mutarile legale in moves[]. Returneaza cate sunt.
+     */
+    public static int generateLegal(Position p, int[] moves) {
+        int n = generatePseudoLegal(p, moves);
+        boolean white = p.whiteTurn;
+        int legal = 0;
+        for (int i = 0; i < n; i++) {
+            int m = moves[i];
+            int undo = p.makeMove(m);
+            if (!isSquareAttacked(p, p.kingSquare(white), !white)) {
+                moves[legal++] = m;
+            }
+            p.unmakeMove(m, undo);
+        }
+        return legal;
+    }
+
+    /**
+     * Are jucatorul la mutare macar o mutare legala? (se opreste la prima gasita)
+     */
+    public static boolean hasLegalMove(Position p, int[] buffer) {
+        int n = generatePseudoLegal(p, buffer);
+        boolean white = p.whiteTurn;
+        for (int i = 0; i < n; i++) {
+            int m = buffer[i];
+            int undo = p.makeMove(m);
+            boolean ok = !isSquareAttacked(p, p.kingSquare(white), !white);
+            p.unmakeMove(m, undo);
+            if (ok) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Genereaza mutarile pseudo-legale (pot lasa regele in sah).
+     */
+    public static int generatePseudoLegal(Position p, int[] moves) {
+        boolean white = p.whiteTurn;
+        long[] pc = p.pieces;
+        int o = white ? 0 : 6;
+        long own = white ? p.whitePieces : p.blackPieces;
+        long enemy = white ? p.blackPieces : p.whitePieces;
+        long occ = p.occupied;
+        int n = 0;
+
+        n = pawnMoves(p, moves, n, white, pc[Position.WP + o], enemy, occ);
+
+        long bb = pc[Position.WN + o];
+        while (bb != 0) {
+            int from = Long.numberOfTrailingZeros(bb);
+            bb &= bb - 1;
+            n = addTargets(moves, n, from, KNIGHT_ATTACKS[from] & ~own, enemy);
+        }
+
+        bb = pc[Position.WB + o] | pc[Position.WQ + o];
+        while (bb != 0) {
+            int from = Long.numberOfTrailingZeros(bb);
+            bb &= bb - 1;
+            n = addTargets(moves, n, from, bishopAttacks(from, occ) & ~own, enemy);
+        }
+
+        bb = pc[Position.WR + o] | pc[Position.WQ + o];
+        while (bb != 0) {
+            int from = Long.numberOfTrailingZeros(bb);
+            bb &= bb - 1;
+            n = addTargets(moves, n, from, rookAttacks(from, occ) & ~own, enemy);
+        }
+
+        int king = p.kingSquare(white);
+        n = addTargets(moves, n, king, KING_ATTACKS[king] & ~own, enemy);
+        n = castlingMoves(p, moves, n, white, occ);
+        return n;
+    }
+
+    /**
+     * Doar capturile si promovarile (pseudo-legale), pentru cautarea de liniste din engine.
+     * Promovarile fara captura intra doar ca regina.
+     */
+    public static int generateCaptures(Position p, int[] moves) {
+        boolean white = p.whiteTurn;
+        long[] pc = p.pieces;
+        int o = white ? 0 : 6;
+        long enemy = white ? p.blackPieces : p.whitePieces;
+        long occ = p.occupied;
+        int n = 0;
+
+        // Pioni: capturi (cu sau fara promovare), en passant, promovare simpla in regina
+        long pawns = pc[Position.WP + o];
+        long lastRank = white ? RANK_8 : RANK_1;
+        int side = white ? 0 : 1;
+        long ep = p.epSquare >= 0 ? 1L << p.epSquare : 0L;
+        long bb = pawns;
+        while (bb != 0) {
+            int from = Long.numberOfTrailingZeros(bb);
+            bb &= bb - 1;
+            long att = PAWN_ATTACKS[side][from];
+            long caps = att & enemy;
+            while (caps != 0) {
+                int to = Long.numberOfTrailingZeros(caps);
+                caps &= caps - 1;
+                if (((1L << to) & lastRank) != 0) {
+                    n = addPromotions(moves, n, from, to, Move.PROMO_CAPTURE);
+                } else {
+                    moves[n++] = Move.of(from, to, Move.CAPTURE);
+                }
+            }
+            if ((att & ep) != 0) {
+                moves[n++] = Move.of(from, p.epSquare, Move.EP_CAPTURE);
+            }
+        }
+        long push = (white ? (pawns << 8) : (pawns >>> 8)) & ~occ & lastRank;
+        while (push != 0) {
+            int to = Long.numberOfTrailingZeros(push);
+            push &= push - 1;
+            moves[n++] = Move.of(white ? to - 8 : to + 8, to, Move.PROMOTION + 3);
+        }
+
+        bb = pc[Position.WN + o];
+        while (bb != 0) {
+            int from = Long.numberOfTrailingZeros(bb);
+            bb &= bb - 1;
+            n = addTargets(moves, n, from, KNIGHT_ATTACKS[from] & enemy, enemy);
+        }
+        bb = pc[Position.WB + o] | pc[Position.WQ + o];
+        while (bb != 0) {
+            int from = Long.numberOfTrailingZeros(bb);
+            bb &= bb - 1;
+            n = addTargets(moves, n, from, bishopAttacks(from, occ) & enemy, enemy);
+        }
+        bb = pc[Position.WR + o] | pc[Position.WQ + o];
+        while (bb != 0) {
+            int from = Long.numberOfTrailingZeros(bb);
+            bb &= bb - 1;
+            n = addTargets(moves, n, from, rookAttacks(from, occ) & enemy, enemy);
+        }
+        int king = p.kingSquare(white);
+        return addTargets(moves, n, king, KING_ATTACKS[king] & enemy, enemy);
+    }
+
+    private static int addTargets(int[] moves, int n, int from, long targets, long enemy) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves[n++] = Move.of(from, to, (enemy & (1L << to)) != 0 ? Move.CAPTURE : Move.QUIET);
+        }
+        return n;
+    }
+
+    private static int pawnMoves(Position p, int[] moves, int n, boolean white, long pawns, long enemy, long occ) {
+        long empty = ~occ;
+        int up = white ? 8 : -8;
+        long lastRank = white ? RANK_8 : RANK_1;
+
+        // Un pas inainte si doi pasi de pe randul de start
+        long single = white ? (pawns << 8) & empty : (pawns >>> 8) & empty;
+        long dbl = white ? ((single & (RANK_1 << 16)) << 8) & empty : ((single & (RANK_8 >>> 16)) >>> 8) & empty;
+
+        long bb = single & ~lastRank;
+        while (bb != 0) {
+            int to = Long.numberOfTrailingZeros(bb);
+            bb &= bb - 1;
+            moves[n++] = Move.of(to - up, to, Move.QUIET);
+        }
+        bb = single & lastRank;
+        while (bb != 0) {
+            int to = Long.numberOfTrailingZeros(bb);
+            bb &= bb - 1;
+            n = addPromotions(moves, n, to - up, to, Move.PROMOTION);
+        }
+        while (dbl != 0) {
+            int to = Long.numberOfTrailingZeros(dbl);
+            dbl &= dbl - 1;
+            moves[n++] = Move.of(to - 2 * up, to, Move.DOUBLE_PUSH);
+        }
+
+        // Capturi (inclusiv en passant)
+        long ep = p.epSquare >= 0 ? 1L << p.epSquare : 0L;
+        int side = white ? 0 : 1;
+        bb = pawns;
+        while (bb != 0) {
+            int from = Long.numberOfTrailingZeros(bb);
+            bb &= bb - 1;
+            long att = PAWN_ATTACKS[side][from];
+            long caps = att & enemy;
+            while (caps != 0) {
+                int to = Long.numberOfTrailingZeros(caps);
+                caps &= caps - 1;
+                if (((1L << to) & lastRank) != 0) {
+                    n = addPromotions(moves, n, from, to, Move.PROMO_CAPTURE);
+                } else {
+                    moves[n++] = Move.of(from, to, Move.CAPTURE);
+                }
+            }
+            if ((att & ep) != 0) {
+                moves[n++] = Move.of(from, p.epSquare, Move.EP_CAPTURE);
+            }
+        }
+        return n;
+    }
+
+    private static int addPromotions(int[] moves, int n, int from, int to, int base) {
+        // Regina prima, ca sa fie gasita prima la cautare
+        for (int t = 3; t >= 0; t--) {
+            moves[n++] = Move.of(from, to, base + t);
+        }
+        return n;
+    }
+
+    private static int castlingMoves(Position p, int[] moves, int n, boolean white, long occ) {
+        int rights = p.castling;
+        if (white) {
+            if ((rights & Position.CASTLE_WK) != 0 && (occ & 0x60L) == 0
+                    && !isSquareAttacked(p, 4, false) && !isSquareAttacked(p, 5, false)
+                    && !isSquareAttacked(p, 6, false)) {
+                moves[n++] = Move.of(4, 6, Move.KING_CASTLE);
+            }
+            if ((rights & Position.CASTLE_WQ) != 0 && (occ & 0x0EL) == 0
+                    && !isSquareAttacked(p, 4, false) && !isSquareAttacked(p, 3, false)
+                    && !isSquareAttacked(p, 2, false)) {
+                moves[n++] = Move.of(4, 2, Move.QUEEN_CASTLE);
+            }
+        } else {
+            if ((rights & Position.CASTLE_BK) != 0 && (occ & (0x60L << 56)) == 0
+                    && !isSquareAttacked(p, 60, true) && !isSquareAttacked(p, 61, true)
+                    && !isSquareAttacked(p, 62, true)) {
+                moves[n++] = Move.of(60, 62, Move.KING_CASTLE);
+            }
+            if ((rights & Position.CASTLE_BQ) != 0 && (occ & (0x0EL << 56)) == 0
+                    && !isSquareAttacked(p, 60, true) && !isSquareAttacked(p, 59, true)
+                    && !isSquareAttacked(p, 58, true)) {
+                moves[n++] = Move.of(60, 58, Move.QUEEN_CASTLE);
+            }
+        }
+        return n;
+    }
+}
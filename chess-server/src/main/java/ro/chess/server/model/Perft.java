@@ -0,0 +1,85 @@
+package ro.chess.server.model;
+
+/**
+ * Perft = numaram toate pozitiile la care se poate ajunge in N mutari.
+ * Rezultatele sunt cunoscute pentru pozitiile de referinta, deci daca numerele
+ * ies la fel generatorul de mutari e corect. Masuram si viteza (noduri pe secunda).
+ *
+ * Rulare: java -cp chess-server/target/classes ro.chess.server.model.Perft [adancime_maxima]
+ */
+public final class Perft {
+
+    // FEN, apoi numarul de noduri asteptat pentru adancimea 1, 2, 3, ...
+    private static final Object[][] REFERENCE = {
+            { "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                    new long[] { 20, 400, 8_902, 197_281, 4_865_609 } },
+            { "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[] { 48, 2_039, 97_862, 4_085_603 } },
+            { "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    new long[] { 14, 191, 2_812, 43_238, 674_624 } },
+            { "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[] { 6, 264, 9_467, 422_333 } },
+            { "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    new long[] { 44, 1_486, 62_379, 2_103_487 } },
+    };
+
+    // Cate un buffer de mutari pentru fiecare nivel, ca sa nu alocam in recursie
+    private final int[][] buffers = new int[64][MoveGenerator.MAX_MOVES];
+
+    /**
+     * Numarul de pozitii (frunze) la adancimea data.
+     */
+    public long perft(Position p, int depth) {
+        return perft(p, depth, 0);
+    }
+
+    private long perft(Position p, int depth, int ply) {
+        int[] moves = buffers[ply];
+        int n = MoveGenerator.generateLegal(p, moves);
+        if (depth == 1) {
+            return n;
+        }
+        long nodes = 0;
+        for (int i = 0; i < n; i++) {
+            int undo = p.makeMove(moves[i]);
+            nodes += perft(p, depth - 1, ply + 1);
+            p.unmakeMove(moves[i], undo);
+        }
+        return nodes;
+    }
+
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : Integer.MAX_VALUE;
+        Perft perft = new Perft();
+        Position p = new Position();
+        long totalNodes = 0;
+        long totalNanos = 0;
+        boolean ok = true;
+
+        for (Object[] ref : REFERENCE) {
+            String fen = (String) ref[0];
+            long[] expected = (long[]) ref[1];
+            p.setFen(fen);
+            System.out.println(fen);
+
+            for (int d = 1; d <= Math.min(expected.length, maxDepth); d++) {
+                long start = System.nanoTime();
+                long nodes = perft.perft(p, d);
+                long nanos = System.nanoTime() - start;
+                totalNodes += nodes;
+                totalNanos += nanos;
+
+                boolean match = nodes == expected[d - 1];
+                ok &= match;
+                System.out.printf("  depth %d: %,d noduri (asteptat %,d) %s  %.1f ms%n",
+                        d, nodes, expected[d - 1], match ? "OK" : "GRESIT", nanos / 1e6);
+            }
+        }
+
+        System.out.printf("Total: %,d noduri, %,.0f noduri/s%n", totalNodes, totalNodes / (totalNanos / 1e9));
+        if (!ok) {
+            System.out.println("PERFT GRESIT!");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,553 @@
+package ro.chess.server.model;
+
+/**
+ * Pozitia de pe tabla tinuta sub forma de bitboard-uri.
+ * Fiecare tip de piesa are un numar pe 64 de biti: bitul i e 1 daca piesa e pe patratul i.
+ *
+ * Numerotarea patratelor: a1 = 0, b1 = 1, ..., h1 = 7, a2 = 8, ..., h8 = 63.
+ */
+public class Position {
+
+    // Indecsii pieselor (in array-ul de bitboard-uri)
+    public static final int WP = 0, WN = 1, WB = 2, WR = 3, WQ = 4, WK = 5;
+    public static final int BP = 6, BN = 7, BB = 8, BR = 9, BQ = 10, BK = 11;
+    public static final int EMPTY = -1;
+
+    // Litera FEN pentru fiecare index de piesa
+    private static final String FEN_PIECES = "PNBRQKpnbrqk";
+
+    // Codul piesei asa cum il foloseste clientul ("wP", "bQ" ...)
+    private static final String[] PIECE_CODES = { "wP", "wN", "wB", "wR", "wQ", "wK", "bP", "bN", "bB", "bR", "bQ", "bK" };
+
+    // Drepturile de rocada, cate un bit pentru fiecare
+    public static final int CASTLE_WK = 1, CASTLE_WQ = 2, CASTLE_BK = 4, CASTLE_BQ = 8;
+
+    // Ce drepturi de rocada raman dupa ce o piesa pleaca/ajunge pe un patrat.
+    // Regele sau tura mutate (sau tura capturata) sterg dreptul corespunzator.
+    private static final int[] CASTLE_MASK = new int[64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            CASTLE_MASK[sq] = 15;
+        }
+        CASTLE_MASK[0] &= ~CASTLE_WQ;               // a1
+        CASTLE_MASK[7] &= ~CASTLE_WK;               // h1
+        CASTLE_MASK[4] &= ~(CASTLE_WK | CASTLE_WQ); // e1
+        CASTLE_MASK[56] &= ~CASTLE_BQ;              // a8
+        CASTLE_MASK[63] &= ~CASTLE_BK;              // h8
+        CASTLE_MASK[60] &= ~(CASTLE_BK | CASTLE_BQ);// e8
+    }
+
+    // Cele 12 seturi de piese
+    final long[] pieces = new long[12];
+
+    // Ocupare pe culori si ocupare totala
+    long whitePieces;
+    long blackPieces;
+    long occupied;
+
+    // Pentru fiecare patrat, ce piesa e acolo (EMPTY daca e gol).
+    // Redundant cu bitboard-urile, dar ne da raspuns instant la "ce e pe e4?"
+    final int[] mailbox = new int[64];
+
+    // true = randul albului, false = randul negrului
+    boolean whiteTurn = true;
+
+    // Drepturile de rocada (CASTLE_*) si patratul de en passant (-1 daca nu exista)
+    int castling;
+    int epSquare = -1;
+
+    // Cate mutari s-au facut de la ultima captura sau mutare de pion (pentru regula celor 50 de mutari)
+    // si numarul mutarii complete (creste dupa fiecare mutare a negrului)
+    int halfmoveClock;
+    int fullmoveNumber = 1;
+
+    // Cheia Zobrist a pozitiei (vezi Zobrist), actualizata la fiecare put/remove/mutare
+    long key;
+
+    // Sumele evaluarii (vezi EvalWeights), tot actualizate la fiecare put/remove:
+    // scorul de mijloc de joc si de final (alb - negru) si faza jocului
+    int mgScore;
+    int egScore;
+    int phase;
+
+    public Position() {
+        clear();
+    }
+
+    /**
+     * Goleste complet tabla.
+     */
+    public void clear() {
+        for (int i = 0; i < 12; i++) {
+            pieces[i] = 0L;
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            mailbox[sq] = EMPTY;
+        }
+        whitePieces = 0L;
+        blackPieces = 0L;
+        occupied = 0L;
+        whiteTurn = true;
+        castling = 0;
+        epSquare = -1;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        key = Zobrist.CASTLING[0];
+        mgScore = 0;
+        egScore = 0;
+        phase = 0;
+    }
+
+    /**
+     * Aranjeaza piesele in pozitia de start.
+     */
+    public void reset() {
+        clear();
+        int[] back = { WR, WN, WB, WQ, WK, WB, WN, WR };
+        for (int f = 0; f < 8; f++) {
+            put(back[f], f);            // randul 1
+            put(WP, 8 + f);             // randul 2
+            put(BP, 48 + f);            // randul 7
+            put(back[f] + 6, 56 + f);   // randul 8 (aceeasi ordine, piese negre)
+        }
+        whiteTurn = true;
+        castling = CASTLE_WK | CASTLE_WQ | CASTLE_BK | CASTLE_BQ;
+        key = Zobrist.compute(this);
+    }
+
+    /**
+     * Incarca o pozitie dintr-un FEN complet (piese, rand, rocade, en passant).
+     */
+    public void setFen(String fen) {
+        clear();
+        String[] parts = fen.trim().split("\\s+");
+
+        int rank = 7;
+        int file = 0;
+        for (char ch : parts[0].toCharArray()) {
+            if (ch == '/') {
+                rank--;
+                file = 0;
+            } else if (Character.isDigit(ch)) {
+                file += ch - '0';
+            } else {
+                int piece = FEN_PIECES.indexOf(ch);
+                if (piece < 0) {
+                    throw new IllegalArgumentException("FEN invalid: " + fen);
+                }
+                put(piece, rank * 8 + file);
+                file++;
+            }
+        }
+
+        whiteTurn = parts.length < 2 || parts[1].equals("w");
+
+        if (parts.length > 2) {
+            for (char ch : parts[2].toCharArray()) {
+                switch (ch) {
+                    case 'K' -> castling |= CASTLE_WK;
+                    case 'Q' -> castling |= CASTLE_WQ;
+                    case 'k' -> castling |= CASTLE_BK;
+                    case 'q' -> castling |= CASTLE_BQ;
+                    default -> { }
+                }
+            }
+        }
+
+        if (parts.length > 3 && !parts[3].equals("-")) {
+            epSquare = parseSquare(parts[3]);
+            // Il pastram doar daca are cine sa captureze (la fel ca in makeMove)
+            int pawnSq = whiteTurn ? epSquare - 8 : epSquare + 8;
+            if (epSquare < 0 || (adjacentFiles(pawnSq) & pieces[whiteTurn ? WP : BP]) == 0) {
+                epSquare = -1;
+            }
+        }
+        if (parts.length > 5) {
+            halfmoveClock = Integer.parseInt(parts[4]);
+            fullmoveNumber = Integer.parseInt(parts[5]);
+        }
+        key = Zobrist.compute(this);
+    }
+
+    /**
+     * Copiaza alta pozitie in aceasta (fara alocari).
+     */
+    public void copyFrom(Position other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, 12);
+        System.arraycopy(other.mailbox, 0, mailbox, 0, 64);
+        whitePieces = other.whitePieces;
+        blackPieces = other.blackPieces;
+        occupied = other.occupied;
+        whiteTurn = other.whiteTurn;
+        castling = other.castling;
+        epSquare = other.epSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        key = other.key;
+        mgScore = other.mgScore;
+        egScore = other.egScore;
+        phase = other.phase;
+    }
+
+    /**
+     * Pune o piesa pe un patrat gol.
+     */
+    public void put(int piece, int sq) {
+        long bit = 1L << sq;
+        pieces[piece] |= bit;
+        if (piece < BP) {
+            whitePieces |= bit;
+        } else {
+            blackPieces |= bit;
+        }
+        occupied |= bit;
+        mailbox[sq] = piece;
+        key ^= Zobrist.PIECE_SQUARE[piece][sq];
+        mgScore += EvalWeights.MG[piece][sq];
+        egScore += EvalWeights.EG[piece][sq];
+        phase += EvalWeights.PHASE[piece];
+    }
+
+    /**
+     * Scoate piesa de pe un patrat. Returneaza piesa scoasa (sau EMPTY).
+     */
+    public int remove(int sq) {
+        int piece = mailbox[sq];
+        if (piece != EMPTY) {
+            long mask = ~(1L << sq);
+            pieces[piece] &= mask;
+            whitePieces &= mask;
+            blackPieces &= mask;
+            occupied &= mask;
+            mailbox[sq] = EMPTY;
+            key ^= Zobrist.PIECE_SQUARE[piece][sq];
+            mgScore -= EvalWeights.MG[piece][sq];
+            egScore -= EvalWeights.EG[piece][sq];
+            phase -= EvalWeights.PHASE[piece];
+        }
+        return piece;
+    }
+
+    /**
+     * Muta piesa de pe from pe to. Returneaza piesa capturata (sau EMPTY).
+     */
+    public int move(int from, int to) {
+        int piece = remove(from);
+        int captured = remove(to);
+        put(piece, to);
+        return captured;
+    }
+
+    /**
+     * Face mutarea pe tabla (fara sa verifice daca e legala).
+     * Returneaza starea ireversibila de care avem nevoie ca sa o anulam cu unmakeMove:
+     * biti 0-3 = piesa capturata + 1, biti 4-7 = rocadele, biti 8-14 = en passant + 1,
+     * biti 15-31 = ceasul pentru regula celor 50 de mutari.
+     */
+    public int makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+
+        int captured;
+        if (flags == Move.EP_CAPTURE) {
+            // Pionul capturat nu e pe patratul de sosire, ci langa el
+            captured = remove(whiteTurn ? to - 8 : to + 8);
+        } else {
+            captured = remove(to);
+        }
+        int undo = (captured + 1) | (castling << 4) | ((epSquare + 1) << 8) | (halfmoveClock << 15);
+
+        int piece = remove(from);
+        // Ceasul se reseteaza la captura sau mutare de pion
+        halfmoveClock = (captured != EMPTY || piece == WP || piece == BP) ? 0 : halfmoveClock + 1;
+        if ((flags & Move.PROMOTION) != 0) {
+            piece = (whiteTurn ? WP : BP) + Move.promotionType(move);
+        }
+        put(piece, to);
+
+        // La rocada mutam si tura
+        if (flags == Move.KING_CASTLE) {
+            put(remove(to + 1), to - 1);
+        } else if (flags == Move.QUEEN_CASTLE) {
+            put(remove(to - 2), to + 1);
+        }
+
+        key ^= Zobrist.CASTLING[castling];
+        castling &= CASTLE_MASK[from] & CASTLE_MASK[to];
+        key ^= Zobrist.CASTLING[castling];
+
+        if (epSquare >= 0) {
+            key ^= Zobrist.EP_FILE[epSquare & 7];
+        }
+        // Patratul de en passant conteaza doar daca un pion advers chiar poate captura acolo
+        // (altfel doua pozitii identice ar avea chei diferite si n-am vedea repetitia)
+        epSquare = -1;
+        if (flags == Move.DOUBLE_PUSH && (adjacentFiles(to) & pieces[whiteTurn ? BP : WP]) != 0) {
+            epSquare = (from + to) >>> 1;
+            key ^= Zobrist.EP_FILE[epSquare & 7];
+        }
+
+        key ^= Zobrist.SIDE;
+        if (!whiteTurn) {
+            fullmoveNumber++;
+        }
+        whiteTurn = !whiteTurn;
+        return undo;
+    }
+
+    /**
+     * Anuleaza o mutare facuta cu makeMove.
+     */
+    public void unmakeMove(int move, int undo) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+        whiteTurn = !whiteTurn;
+        key ^= Zobrist.SIDE;
+        if (!whiteTurn) {
+            fullmoveNumber--;
+        }
+
+        if (flags == Move.KING_CASTLE) {
+            put(remove(to - 1), to + 1);
+        } else if (flags == Move.QUEEN_CASTLE) {
+            put(remove(to + 1), to - 2);
+        }
+
+        int piece = remove(to);
+        if ((flags & Move.PROMOTION) != 0) {
+            piece = whiteTurn ? WP : BP;
+        }
+        put(piece, from);
+
+        int captured = (undo & 15) - 1;
+        if (captured != EMPTY) {
+            put(captured, flags == Move.EP_CAPTURE ? (whiteTurn ? to - 8 : to + 8) : to);
+        }
+
+        key ^= Zobrist.CASTLING[castling];
+        castling = (undo >>> 4) & 15;
+        key ^= Zobrist.CASTLING[castling];
+
+        if (epSquare >= 0) {
+            key ^= Zobrist.EP_FILE[epSquare & 7];
+        }
+        epSquare = ((undo >>> 8) & 127) - 1;
+        if (epSquare >= 0) {
+            key ^= Zobrist.EP_FILE[epSquare & 7];
+        }
+        halfmoveClock = undo >>> 15;
+    }
+
+    /**
+     * "Mutarea nula": doar trece randul la celalalt jucator (folosita de engine).
+     * Returneaza patratul de en passant de dinainte, pentru unmakeNullMove.
+     */
+    public int makeNullMove() {
+        int undo = epSquare;
+        if (epSquare >= 0) {
+            key ^= Zobrist.EP_FILE[epSquare & 7];
+            epSquare = -1;
+        }
+        key ^= Zobrist.SIDE;
+        whiteTurn = !whiteTurn;
+        return undo;
+    }
+
+    public void unmakeNullMove(int undo) {
+        whiteTurn = !whiteTurn;
+        key ^= Zobrist.SIDE;
+        epSquare = undo;
+        if (epSquare >= 0) {
+            key ^= Zobrist.EP_FILE[epSquare & 7];
+        }
+    }
+
+    public int pieceAt(int sq) {
+        return mailbox[sq];
+    }
+
+    public long getPieces(int piece) {
+        return pieces[piece];
+    }
+
+    public long getOccupied() {
+        return occupied;
+    }
+
+    public boolean isWhiteTurn() {
+        return whiteTurn;
+    }
+
+    public void setWhiteTurn(boolean whiteTurn) {
+        // Cheia trebuie sa ramana aceeasi ca la setFen pentru pozitia rezultata
+        if (this.whiteTurn != whiteTurn) {
+            this.whiteTurn = whiteTurn;
+            key ^= Zobrist.SIDE;
+        }
+    }
+
+    public long getColorPieces(boolean white) {
+        return white ? whitePieces : blackPieces;
+    }
+
+    public int getCastling() {
+        return castling;
+    }
+
+    public int getEpSquare() {
+        return epSquare;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Suma ponderilor de mijloc de joc pentru piesele de pe tabla (alb - negru), vezi EvalWeights.
+     */
+    public int getMgScore() {
+        return mgScore;
+    }
+
+    /**
+     * Suma ponderilor de final (alb - negru).
+     */
+    public int getEgScore() {
+        return egScore;
+    }
+
+    /**
+     * Faza jocului: EvalWeights.MAX_PHASE cu toate piesele pe tabla, 0 cand au ramas doar pioni si regi.
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Nu mai e destul material ca cineva sa poata da mat:
+     * rege contra rege, rege + o piesa usoara contra rege,
+     * sau regi + nebuni doar pe patrate de aceeasi culoare.
+     */
+    public boolean isInsufficientMaterial() {
+        if ((pieces[WP] | pieces[BP] | pieces[WR] | pieces[BR] | pieces[WQ] | pieces[BQ]) != 0) {
+            return false;
+        }
+        long knights = pieces[WN] | pieces[BN];
+        long bishops = pieces[WB] | pieces[BB];
+        int minors = Long.bitCount(knights | bishops);
+        if (minors <= 1) {
+            return true;
+        }
+        if (knights != 0) {
+            return false;
+        }
+        // Doar nebuni: e remiza daca toti stau pe aceeasi culoare de patrat
+        long dark = 0xAA55AA55AA55AA55L;
+        return (bishops & dark) == 0 || (bishops & ~dark) == 0;
+    }
+
+    // Patratele din stanga si din dreapta lui sq (pe acelasi rand)
+    private static long adjacentFiles(int sq) {
+        long b = 1L << sq;
+        return ((b << 1) & 0xFEFEFEFEFEFEFEFEL) | ((b >>> 1) & 0x7F7F7F7F7F7F7F7FL);
+    }
+
+    /**
+     * Patratul regelui de culoarea data.
+     */
+    public int kingSquare(boolean white) {
+        return Long.numberOfTrailingZeros(pieces[white ? WK : BK]);
+    }
+
+    /**
+     * Codul piesei pentru client ("wK", "bP"...), null pentru patrat gol.
+     */
+    public static String pieceCode(int piece) {
+        return piece == EMPTY ? null : PIECE_CODES[piece];
+    }
+
+    public static boolean isWhite(int piece) {
+        return piece >= WP && piece <= WK;
+    }
+
+    /**
+     * Tipul piesei fara culoare (0 = pion ... 5 = rege).
+     */
+    public static int typeOf(int piece) {
+        return piece % 6;
+    }
+
+    /**
+     * Transforma "e2" in indexul patratului (12). Returneaza -1 daca e invalid.
+     */
+    public static int parseSquare(String s) {
+        if (s == null || s.length() != 2) {
+            return -1;
+        }
+        int file = s.charAt(0) - 'a';
+        int rank = s.charAt(1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return -1;
+        }
+        return rank * 8 + file;
+    }
+
+    /**
+     * Transforma indexul patratului inapoi in text (12 -> "e2").
+     */
+    public static String squareName(int sq) {
+        return "" + (char) ('a' + (sq & 7)) + (char) ('1' + (sq >>> 3));
+    }
+
+    /**
+     * Scrie pozitia in format FEN.
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(72);
+
+        // FEN incepe cu randul 8 si se termina cu randul 1
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = mailbox[rank * 8 + file];
+                if (piece == EMPTY) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        fen.append(empty);
+                        empty = 0;
+                    }
+                    fen.append(FEN_PIECES.charAt(piece));
+                }
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(' ').append(whiteTurn ? 'w' : 'b').append(' ');
+
+        if (castling == 0) {
+            fen.append('-');
+        } else {
+            if ((castling & CASTLE_WK) != 0) fen.append('K');
+            if ((castling & CASTLE_WQ) != 0) fen.append('Q');
+            if ((castling & CASTLE_BK) != 0) fen.append('k');
+            if ((castling & CASTLE_BQ) != 0) fen.append('q');
+        }
+
+        fen.append(' ').append(epSquare < 0 ? "-" : squareName(epSquare));
+        fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+}
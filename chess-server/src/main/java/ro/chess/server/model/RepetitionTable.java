@@ -0,0 +1,87 @@
+package ro.chess.server.model;
+
+import java.util.Arrays;
+
+/**
+ * Numara de cate ori a aparut fiecare pozitie in partida (dupa cheia Zobrist),
+ * ca sa gasim repetitia tripla in O(1).
+ * Tabela hash cu adresare deschisa pe long[]/int[], fara obiecte Long/Integer.
+ */
+public class RepetitionTable {
+
+    private long[] keys;
+    private int[] counts;
+    private int used;   // sloturi ocupate (inclusiv cele ajunse la 0)
+
+    public RepetitionTable() {
+        this(256);
+    }
+
+    public RepetitionTable(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        keys = new long[cap];
+        counts = new int[cap];
+    }
+
+    /**
+     * Adauga o aparitie a pozitiei. Returneaza de cate ori a aparut pana acum.
+     */
+    public int increment(long key) {
+        if ((used + 1) * 4 > keys.length * 3) {
+            grow();
+        }
+        int i = slot(key);
+        if (counts[i] == 0 && keys[i] != key) {
+            keys[i] = key;
+            used++;
+        }
+        return ++counts[i];
+    }
+
+    /**
+     * Scoate o aparitie (la Undo).
+     */
+    public void decrement(long key) {
+        int i = slot(key);
+        if (keys[i] == key && counts[i] > 0) {
+            counts[i]--;
+        }
+    }
+
+    public int count(long key) {
+        int i = slot(key);
+        return keys[i] == key ? counts[i] : 0;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(keys, 0L);
+        used = 0;
+    }
+
+    // Slotul cheii sau primul slot liber unde ar trebui sa fie
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = (int) (key ^ (key >>> 32)) & mask;
+        while ((counts[i] != 0 || keys[i] != 0L) && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldCounts.length * 2];
+        used = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] > 0) {
+                int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                counts[j] = oldCounts[i];
+                used++;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ro.chess.server.model;
+
+/**
+ * Istoricul mutarilor pentru Undo.
+ * In loc sa salvam toata tabla la fiecare mutare, tinem doar mutarea (int)
+ * si starea care nu se poate reconstrui (piesa capturata, rocade, en passant, ceasul de 50 de mutari),
+ * tot intr-un int, asa cum o returneaza Position.makeMove.
+ *
+ * Totul sta intr-un singur int[] care creste cand e nevoie: push/pop nu aloca nimic.
+ */
+public class UndoStack {
+
+    // Perechi (mutare, stare) una dupa alta: [m0, u0, m1, u1, ...]
+    private int[] data;
+    private int size;
+
+    public UndoStack() {
+        this(128);
+    }
+
+    public UndoStack(int capacity) {
+        data = new int[capacity * 2];
+    }
+
+    public void push(int move, int undo) {
+        if (size * 2 == data.length) {
+            // Dublam capacitatea (se intampla rar, doar in partidele lungi)
+            int[] bigger = new int[data.length * 2];
+            System.arraycopy(data, 0, bigger, 0, data.length);
+            data = bigger;
+        }
+        data[size * 2] = move;
+        data[size * 2 + 1] = undo;
+        size++;
+    }
+
+    /**
+     * Ultima mutare facuta (fara sa o scoata din stiva).
+     */
+    public int lastMove() {
+        return data[(size - 1) * 2];
+    }
+
+    /**
+     * Starea salvata pentru ultima mutare.
+     */
+    public int lastUndo() {
+        return data[(size - 1) * 2 + 1];
+    }
+
+    public void pop() {
+        size--;
+    }
+
+    /**
+     * Mutarea cu numarul i (0 = prima mutare din partida).
+     */
+    public int moveAt(int i) {
+        return data[i * 2];
+    }
+
+    /**
+     * Starea salvata pentru mutarea cu numarul i.
+     */
+    public int undoAt(int i) {
+        return data[i * 2 + 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
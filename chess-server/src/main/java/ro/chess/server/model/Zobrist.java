@@ -0,0 +1,64 @@
+package ro.chess.server.model;
+
+/**
+ * Cheile Zobrist: cate un numar aleator pe 64 de biti pentru fiecare (piesa, patrat),
+ * pentru rocade, coloana de en passant si pentru "e randul negrului".
+ * Cheia unei pozitii = XOR intre cheile a tot ce e pe tabla, deci se poate actualiza
+ * la fiecare mutare cu cateva XOR-uri, fara sa recalculam nimic.
+ */
+public final class Zobrist {
+
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long[] CASTLING = new long[16];
+    static final long[] EP_FILE = new long[8];
+    static final long SIDE;
+
+    static {
+        // Seed fix: cheile trebuie sa fie aceleasi la fiecare pornire
+        long[] state = { 0x2545F4914F6CDD1DL };
+        for (int p = 0; p < 12; p++) {
+            for (int sq = 0; sq < 64; sq++) {
+                PIECE_SQUARE[p][sq] = next(state);
+            }
+        }
+        for (int i = 0; i < 16; i++) {
+            CASTLING[i] = next(state);
+        }
+        for (int f = 0; f < 8; f++) {
+            EP_FILE[f] = next(state);
+        }
+        SIDE = next(state);
+    }
+
+    private Zobrist() {
+    }
+
+    // SplitMix64: generator simplu si bun pentru asa ceva
+    private static long next(long[] state) {
+        long z = (state[0] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Calculeaza cheia de la zero (folosita la incarcarea unui FEN si pentru verificari).
+     */
+    public static long compute(Position p) {
+        long key = 0L;
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = p.mailbox[sq];
+            if (piece != Position.EMPTY) {
+                key ^= PIECE_SQUARE[piece][sq];
+            }
+        }
+        key ^= CASTLING[p.castling];
+        if (p.epSquare >= 0) {
+            key ^= EP_FILE[p.epSquare & 7];
+        }
+        if (!p.whiteTurn) {
+            key ^= SIDE;
+        }
+        return key;
+    }
+}
@@ -0,0 +1,72 @@
+package ro.chess.server.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import ro.chess.server.engine.AnalysisService;
+import ro.chess.server.engine.EngineService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Toate jocurile care ruleaza pe server, dupa id.
+ * O camera se creeaza la prima conexiune cu id-ul ei si dispare cand se inchide ultima conexiune.
+ */
+@Service
+public class GameRegistry {
+
+    public static final String DEFAULT_GAME = "default";
+
+    private final Map<String, GameRoom> rooms = new ConcurrentHashMap<>();
+
+    // Pool-ul comun pe care ruleaza mailbox-urile camerelor
+    private final Executor executor;
+
+    // Engine-ul comun, pentru jocurile contra calculatorului
+    private final EngineService engine;
+
+    // Analizele cerute de clienti (ANALYZE)
+    private final AnalysisService analysis;
+
+    public GameRegistry(@Qualifier("gameExecutor") Executor executor, EngineService engine,
+                        AnalysisService analysis) {
+        this.executor = executor;
+        this.engine = engine;
+        this.analysis = analysis;
+    }
+
+    /**
+     * Camera cu id-ul dat (o creeaza daca nu exista) si o marcheaza ca folosita de inca o conexiune.
+     * compute() e atomic pe cheie, deci o camera nu poate fi stearsa in timp ce cineva intra in ea.
+     */
+    public GameRoom acquire(String id) {
+        return rooms.compute(id, (key, room) -> {
+            if (room == null) {
+                room = new GameRoom(key, executor, engine, analysis);
+            }
+            room.connections++;
+            return room;
+        });
+    }
+
+    /**
+     * O conexiune a parasit camera; daca era ultima, camera e scoasa din registru.
+     */
+    public void release(GameRoom room) {
+        rooms.computeIfPresent(room.getId(), (key, r) -> {
+            if (r != room) {
+                return r;
+            }
+            return --r.connections == 0 ? null : r;
+        });
+    }
+
+    public GameRoom get(String id) {
+        return rooms.get(id);
+    }
+
+    public int size() {
+        return rooms.size();
+    }
+}
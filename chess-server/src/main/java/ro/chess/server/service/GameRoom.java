@@ -0,0 +1,587 @@
+package ro.chess.server.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import ro.chess.server.codec.BinaryCodec;
+import ro.chess.server.codec.Encoded;
+import ro.chess.server.codec.JsonCodec;
+import ro.chess.server.dto.AnalysisUpdateMsg;
+import ro.chess.server.dto.BookMovesMsg;
+import ro.chess.server.dto.ErrorMsg;
+import ro.chess.server.dto.Message;
+import ro.chess.server.dto.PlayersUpdateMsg;
+import ro.chess.server.dto.WelcomeMsg;
+import ro.chess.server.engine.AnalysisService;
+import ro.chess.server.engine.EngineJob;
+import ro.chess.server.engine.EngineService;
+import ro.chess.server.engine.OpeningBook;
+import ro.chess.server.engine.Search;
+import ro.chess.server.engine.SearchLimits;
+import ro.chess.server.engine.SearchResult;
+import ro.chess.server.model.Move;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * O "camera" = un joc cu tabla lui, cei 2 jucatori ai lui si oricati spectatori.
+ * Serverul poate avea oricate camere in acelasi timp (vezi GameRegistry).
+ *
+ * Camera functioneaza ca un "actor": comenzile (conectare, mutare, undo...) intra intr-o
+ * coada (mailbox) si sunt executate pe rand, cate una, pe un thread din pool-ul comun.
+ * Starea jocului e atinsa doar de acel thread, deci nu avem nevoie de lock-uri,
+ * iar jocuri diferite ruleaza in paralel pe core-uri diferite.
+ *
+ * Sesiunile primite sunt OutboundSession: sendMessage doar pune mesajul in coada sesiunii,
+ * deci un broadcast catre mii de spectatori nu asteapta dupa niciunul dintre ei.
+ *
+ * Un jucator poate cere sa joace contra calculatorului (PLAY_VS_ENGINE): engine-ul ocupa
+ * atunci celalalt loc. Cand e randul lui, cautarea ruleaza pe pool-ul engine-ului, iar
+ * mutarea gasita intra inapoi in mailbox ca orice alta comanda.
+ *
+ * Oricine din camera (si spectatorii) poate cere o analiza a pozitiei curente (ANALYZE, vezi AnalysisService).
+ * Actualizarile ei intra tot prin mailbox si ajung doar la cel care a cerut-o. O sesiune are cel mult
+ * o analiza: una noua o opreste pe cea veche, iar la deconectare se opreste si ea.
+ * La fel, BOOK_HINT intoarce doar celui care a intrebat mutarile din cartea de deschideri.
+ */
+public class GameRoom {
+
+    private static final Logger log = LoggerFactory.getLogger(GameRoom.class);
+
+    // Cate comenzi executam dintr-o tura inainte sa lasam thread-ul altor camere
+    private static final int BATCH = 64;
+
+    // Mesajele de eroare care se repeta, codificate o singura data
+    public static final Encoded NOT_YOUR_TURN = Encoded.of(new ErrorMsg("Nu este randul tau!"));
+    public static final Encoded UNKNOWN_COMMAND = Encoded.of(new ErrorMsg("Comanda necunoscuta"));
+    public static final Encoded SPECTATOR_ONLY = Encoded.of(new ErrorMsg("Spectatorii nu pot modifica jocul!"));
+    public static final Encoded SEAT_TAKEN = Encoded.of(new ErrorMsg("Adversarul e deja conectat!"));
+    public static final Encoded ANALYSIS_BUSY = Encoded.of(new ErrorMsg("Serverul e ocupat, incearca analiza mai tarziu"));
+
+    private final String id;
+    private final GameService game;
+
+    // Coada de comenzi si flag-ul "e deja programata pe un thread"
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final Executor executor;
+
+    // Cate conexiuni folosesc camera; modificat doar de GameRegistry (in compute pe cheia camerei)
+    int connections;
+
+    // Referinte catre sesiunile celor 2 jucatori si ale spectatorilor (atinse doar din mailbox)
+    private WebSocketSession whitePlayer = null;
+    private WebSocketSession blackPlayer = null;
+    private final Set<WebSocketSession> spectators = new LinkedHashSet<>();
+
+    // Engine-ul: ce culoare joaca ("WHITE" / "BLACK", null = joaca doi oameni) si cat se gandeste
+    private final EngineService engine;
+    private String engineColor = null;
+    private SearchLimits engineLimits;
+    // Cautarea in curs (null daca engine-ul nu se gandeste acum)
+    private EngineJob thinking = null;
+
+    // Analizele in curs, cate una pe sesiune; id-ul deosebeste o analiza de cea pe care a inlocuit-o
+    private final AnalysisService analysis;
+    private final Map<WebSocketSession, RunningAnalysis> analyses = new HashMap<>();
+    private long lastAnalysisId = 0;
+
+    private record RunningAnalysis(long id, EngineJob job) {
+    }
+
+    public GameRoom(String id, Executor executor, EngineService engine, AnalysisService analysis) {
+        this.id = id;
+        this.executor = executor;
+        this.engine = engine;
+        this.game = new GameService(engine.tablebases());
+        this.analysis = analysis;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    // ---------------------------------------------------------------
+    // Comenzi (pot fi apelate de pe orice thread, doar pun in coada)
+    // ---------------------------------------------------------------
+
+    /**
+     * @param spectatorOnly true = intra direct ca spectator, chiar daca e un loc liber
+     */
+    public void join(WebSocketSession s, boolean spectatorOnly) {
+        submit(() -> onJoin(s, spectatorOnly));
+    }
+
+    public void leave(WebSocketSession s) {
+        submit(() -> onLeave(s));
+    }
+
+    public void makeMove(WebSocketSession s, String from, String to, char promotion) {
+        submit(() -> onMove(s, from, to, promotion));
+    }
+
+    public void reset(WebSocketSession s) {
+        submit(() -> {
+            if (isPlayer(s)) {
+                stopThinking();
+                reply(s, game.resetGame());
+                maybeEngineMove();
+            } else {
+                send(s, SPECTATOR_ONLY);
+            }
+        });
+    }
+
+    public void undo(WebSocketSession s) {
+        submit(() -> {
+            if (isPlayer(s)) {
+                stopThinking();
+                Message m = game.undoMove();
+                // Contra calculatorului anulam si mutarea lui, ca jucatorul sa fie din nou la mutare
+                if (isEngineTurn() && !(m instanceof ErrorMsg)) {
+                    Message again = game.undoMove();
+                    if (!(again instanceof ErrorMsg)) {
+                        m = again;
+                    }
+                }
+                reply(s, m);
+                maybeEngineMove();
+            } else {
+                send(s, SPECTATOR_ONLY);
+            }
+        });
+    }
+
+    /**
+     * Jocul contra calculatorului: engine-ul ia culoarea data (null = culoarea opusa celui care cere,
+     * "NONE" = il opreste). depth / millis = cat se gandeste la fiecare mutare (0 = implicit).
+     */
+    public void playVsEngine(WebSocketSession s, String color, int depth, int millis) {
+        submit(() -> onPlayVsEngine(s, color, engine.limits(depth, millis)));
+    }
+
+    /**
+     * Analiza pozitiei curente, doar pentru sesiunea care o cere. depth / millis 0 = fara limita
+     * (cat permite serverul); multiPv = cate variante.
+     */
+    public void analyze(WebSocketSession s, int depth, int millis, int multiPv) {
+        submit(() -> onAnalyze(s, depth, millis, multiPv));
+    }
+
+    /**
+     * Opreste analiza sesiunii; clientul mai primeste o ultima actualizare, cu done = true.
+     */
+    public void stopAnalysis(WebSocketSession s) {
+        submit(() -> {
+            RunningAnalysis a = analyses.get(s);
+            if (a != null) {
+                a.job().cancel();
+            }
+        });
+    }
+
+    /**
+     * Mutarile din cartea de deschideri pentru pozitia curenta, trimise doar celui care a intrebat.
+     * Cautarea in carte e o cautare binara in fisierul mapat, deci o facem direct pe thread-ul camerei.
+     */
+    public void bookHint(WebSocketSession s) {
+        submit(() -> {
+            List<BookMovesMsg.Entry> moves = new ArrayList<>();
+            for (OpeningBook.BookMove m : engine.bookMoves(game.copyPosition())) {
+                moves.add(new BookMovesMsg.Entry(Move.toUci(m.move()), m.weight()));
+            }
+            // Cele mai jucate primele
+            moves.sort((a, b) -> Integer.compare(b.getWeight(), a.getWeight()));
+            send(s, new BookMovesMsg(game.getSeq(), moves));
+        });
+    }
+
+    /**
+     * Clientul a pierdut un MOVE_DELTA: ii trimitem pozitia completa, doar lui.
+     */
+    public void resync(WebSocketSession s) {
+        submit(() -> send(s, game.snapshot()));
+    }
+
+    /**
+     * Sesiunea a ramas prea mult in urma si i-am aruncat coada (vezi OutboundSession):
+     * ii trimitem pozitia curenta in locul mutarilor pierdute.
+     */
+    public void catchUp(OutboundSession s) {
+        submit(() -> s.sendSnapshot(encode(s, game.snapshot())));
+    }
+
+    /**
+     * Trimite o eroare unei sesiuni (tot prin coada, ca sa nu scriem pe sesiune din 2 thread-uri).
+     */
+    public void sendError(WebSocketSession s, Encoded error) {
+        submit(() -> send(s, error));
+    }
+
+    // ---------------------------------------------------------------
+    // Mailbox
+    // ---------------------------------------------------------------
+
+    private interface Command {
+        void run() throws Exception;
+    }
+
+    private void submit(Command cmd) {
+        mailbox.add(() -> {
+            try {
+                cmd.run();
+            } catch (Exception e) {
+                log.warn("Eroare in jocul {}: {}", id, e.toString());
+            }
+        });
+        schedule();
+    }
+
+    private void schedule() {
+        // Doar primul care gaseste camera "libera" o programeaza pe executor
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < BATCH; i++) {
+            Runnable cmd = mailbox.poll();
+            if (cmd == null) {
+                break;
+            }
+            cmd.run();
+        }
+        scheduled.set(false);
+        // Daca au mai venit comenzi intre timp, ne reprogramam
+        if (!mailbox.isEmpty()) {
+            schedule();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Logica (ruleaza doar pe thread-ul camerei)
+    // ---------------------------------------------------------------
+
+    /**
+     * Asigneaza o culoare sesiunii (WHITE pentru primul, BLACK pentru al doilea)
+     * si ii trimite mesajul de bun venit. Daca sunt deja 2 jucatori (sau a cerut asta), intra ca spectator.
+     */
+    private void onJoin(WebSocketSession s, boolean spectatorOnly) throws Exception {
+        String color;
+        if (spectatorOnly) {
+            spectators.add(s);
+            color = "SPECTATOR";
+        } else if (whitePlayer == null && !"WHITE".equals(engineColor)) {
+            whitePlayer = s;
+            color = "WHITE";
+        } else if (blackPlayer == null && !"BLACK".equals(engineColor)) {
+            blackPlayer = s;
+            color = "BLACK";
+        } else {
+            // Jocul e plin: se uita doar
+            spectators.add(s);
+            color = "SPECTATOR";
+        }
+
+        // Trimitem mesaj de bun venit cu: culoarea, pozitia curenta, daca e randul lui
+        boolean yourTurn = game.isWhiteTurn() == color.equals("WHITE");
+        send(s, new WelcomeMsg(id, color, game.getCurrentFen(), game.getSeq(), yourTurn));
+
+        // Notificam camera despre numarul de conexiuni (un spectator nou: doar jucatorii si pe el)
+        if (color.equals("SPECTATOR")) {
+            sendSpectatorCount(s);
+        } else {
+            broadcastPlayerCount();
+            // Cautarea a fost oprita cand a plecat jucatorul; daca e randul engine-ului, o reluam
+            maybeEngineMove();
+        }
+    }
+
+    /**
+     * Elibereaza slotul jucatorului (sau scoate spectatorul) si ii anunta pe ceilalti.
+     */
+    private void onLeave(WebSocketSession s) throws Exception {
+        boolean seat = true;
+        if (s == whitePlayer) {
+            whitePlayer = null;
+        } else if (s == blackPlayer) {
+            blackPlayer = null;
+        } else if (spectators.remove(s)) {
+            seat = false;
+        } else {
+            return;
+        }
+        cancelAnalysis(s);
+        if (seat) {
+            // Nu mai are cine sa primeasca mutarea engine-ului: nu tinem un thread ocupat degeaba
+            stopThinking();
+            broadcastPlayerCount();
+        } else {
+            sendSpectatorCount(null);
+        }
+    }
+
+    private void onMove(WebSocketSession s, String from, String to, char promotion) throws Exception {
+        // Doar jucatorii pot muta, si doar cand e randul lor
+        boolean isWhite = s == whitePlayer;
+        if ((!isWhite && s != blackPlayer) || game.isWhiteTurn() != isWhite) {
+            send(s, NOT_YOUR_TURN);
+            return;
+        }
+
+        // Aplicam mutarea, apoi trimitem rezultatul la toata lumea
+        reply(s, game.applyMove(from, to, promotion));
+        maybeEngineMove();
+    }
+
+    private void onPlayVsEngine(WebSocketSession s, String color, SearchLimits limits) throws Exception {
+        if (!isPlayer(s)) {
+            send(s, SPECTATOR_ONLY);
+            return;
+        }
+        if ("NONE".equals(color)) {
+            engineColor = null;
+            stopThinking();
+            broadcastPlayerCount();
+            return;
+        }
+        // Locul engine-ului trebuie sa fie liber
+        WebSocketSession other = s == whitePlayer ? blackPlayer : whitePlayer;
+        if (other != null) {
+            send(s, SEAT_TAKEN);
+            return;
+        }
+
+        // Jucatorul ia culoarea pe care n-o joaca engine-ul (poate sa schimbe locul)
+        boolean engineWhite = color == null ? s != whitePlayer : color.equals("WHITE");
+        whitePlayer = engineWhite ? null : s;
+        blackPlayer = engineWhite ? s : null;
+        engineColor = engineWhite ? "WHITE" : "BLACK";
+        engineLimits = limits;
+        String human = engineWhite ? "BLACK" : "WHITE";
+        send(s, new WelcomeMsg(id, human, game.getCurrentFen(), game.getSeq(), game.isWhiteTurn() != engineWhite));
+        broadcastPlayerCount();
+
+        stopThinking();
+        maybeEngineMove();
+    }
+
+    private boolean isEngineTurn() {
+        return engineColor != null && game.isWhiteTurn() == engineColor.equals("WHITE");
+    }
+
+    /**
+     * Daca e randul engine-ului, porneste cautarea pe o copie a pozitiei.
+     * Apelata dupa orice schimbare a jocului.
+     */
+    private void maybeEngineMove() {
+        // Dupa sfarsitul partidei engine-ul nu mai muta (pana la reset sau undo)
+        if (!isEngineTurn() || thinking != null || game.isOver()) {
+            return;
+        }
+        long seq = game.getSeq();
+        EngineJob job = engine.search(game.copyPosition(), game.recentKeys(), engineLimits);
+        thinking = job;
+        job.result().whenComplete((r, err) -> submit(() -> onEngineMove(job, seq, r, err)));
+    }
+
+    private void onEngineMove(EngineJob job, long seq, SearchResult r, Throwable err) throws Exception {
+        if (job != thinking) {
+            // Cautare oprita intre timp (undo, reset, engine oprit)
+            return;
+        }
+        thinking = null;
+        if (err != null) {
+            log.warn("Engine-ul a esuat in jocul {}: {}", id, err.toString());
+            return;
+        }
+        if (seq != game.getSeq() || r.bestMove() == 0) {
+            maybeEngineMove();
+            return;
+        }
+        String uci = Move.toUci(r.bestMove());
+        char promotion = uci.length() > 4 ? uci.charAt(4) : 'q';
+        Message m = game.applyMove(uci.substring(0, 2), uci.substring(2, 4), promotion);
+        if (m instanceof ErrorMsg e) {
+            log.warn("Engine-ul a propus o mutare respinsa in jocul {}: {} ({})", id, uci, e.getMessage());
+            return;
+        }
+        broadcast(m);
+    }
+
+    private void onAnalyze(WebSocketSession s, int depth, int millis, int multiPv) throws Exception {
+        cancelAnalysis(s);
+        long analysisId = ++lastAnalysisId;
+        long seq = game.getSeq();
+        EngineJob job;
+        try {
+            job = analysis.start(game.copyPosition(), game.recentKeys(), depth, millis, multiPv,
+                    (lines, done) -> submit(() -> onAnalysisUpdate(s, analysisId, seq, lines, done)));
+        } catch (RejectedExecutionException e) {
+            send(s, ANALYSIS_BUSY);
+            return;
+        }
+        analyses.put(s, new RunningAnalysis(analysisId, job));
+    }
+
+    private void onAnalysisUpdate(WebSocketSession s, long analysisId, long seq, SearchResult[] lines,
+                                  boolean done) throws Exception {
+        RunningAnalysis a = analyses.get(s);
+        if (a == null || a.id() != analysisId) {
+            // Analiza a fost inlocuita sau sesiunea a plecat
+            return;
+        }
+        if (done) {
+            analyses.remove(s);
+        }
+        List<AnalysisUpdateMsg.Line> out = new ArrayList<>(lines.length);
+        for (SearchResult r : lines) {
+            int mate = 0;
+            if (r.isMate()) {
+                // Semi-mutari pana la mat -> mutari; negativ cand cel la mutare primeste mat
+                int moves = (Search.MATE - Math.abs(r.score()) + 1) / 2;
+                mate = r.score() > 0 ? moves : -moves;
+            }
+            out.add(new AnalysisUpdateMsg.Line(r.score(), mate, r.pvUci()));
+        }
+        SearchResult best = lines[0];
+        send(s, new AnalysisUpdateMsg(seq, best.depth(), best.nodes(), best.nps(), best.millis(), done, out));
+    }
+
+    private void cancelAnalysis(WebSocketSession s) {
+        RunningAnalysis a = analyses.remove(s);
+        if (a != null) {
+            a.job().cancel();
+        }
+    }
+
+    private void stopThinking() {
+        if (thinking != null) {
+            thinking.cancel();
+            thinking = null;
+        }
+    }
+
+    private void send(WebSocketSession s, Message m) throws Exception {
+        if (s.isOpen()) {
+            s.sendMessage(encode(s, m));
+        }
+    }
+
+    private static WebSocketMessage<?> encode(WebSocketSession s, Message m) {
+        return isBinary(s) ? new BinaryMessage(BinaryCodec.encode(m)) : new TextMessage(JsonCodec.encode(m));
+    }
+
+    // Mesaj deja codificat: doar alegem varianta potrivita sesiunii
+    private void send(WebSocketSession s, Encoded m) throws Exception {
+        if (s.isOpen()) {
+            s.sendMessage(isBinary(s) ? new BinaryMessage(m.binary()) : new TextMessage(m.json()));
+        }
+    }
+
+    /**
+     * Rezultatul unei comenzi: o eroare ajunge doar la cel care a trimis comanda,
+     * orice altceva (mutare, pozitie noua) la toata camera.
+     */
+    private void reply(WebSocketSession s, Message m) throws Exception {
+        if (m instanceof ErrorMsg) {
+            send(s, m);
+        } else {
+            broadcast(m);
+        }
+    }
+
+    /**
+     * Trimite un mesaj catre jucatori si spectatori.
+     * Il codificam o singura data pentru fiecare protocol folosit (JSON sau binar);
+     * sendMessage doar il pune in coada fiecarei sesiuni.
+     */
+    private void broadcast(Message m) throws Exception {
+        Encoder enc = new Encoder(m);
+        enc.sendTo(whitePlayer);
+        enc.sendTo(blackPlayer);
+        for (WebSocketSession s : spectators) {
+            enc.sendTo(s);
+        }
+    }
+
+    // Codifica mesajul doar la nevoie si doar o data pe protocol
+    private static final class Encoder {
+        private final Message m;
+        private TextMessage text;
+        private byte[] binary;
+
+        Encoder(Message m) {
+            this.m = m;
+        }
+
+        void sendTo(WebSocketSession s) throws Exception {
+            if (s == null || !s.isOpen()) {
+                return;
+            }
+            WebSocketMessage<?> msg;
+            if (isBinary(s)) {
+                if (binary == null) {
+                    binary = BinaryCodec.encode(m);
+                }
+                // Octetii sunt comuni; fiecare sesiune are doar ByteBuffer-ul ei (trimiterea ii muta pozitia)
+                msg = new BinaryMessage(binary);
+            } else {
+                if (text == null) {
+                    text = new TextMessage(JsonCodec.encode(m));
+                }
+                msg = text;
+            }
+            s.sendMessage(msg);
+        }
+    }
+
+    /**
+     * Notifica toata camera (jucatori si spectatori) despre numarul de conexiuni active,
+     * cand s-au schimbat locurile. Util pentru UI (ex: "Jucatori: 1/2").
+     */
+    private void broadcastPlayerCount() throws Exception {
+        broadcast(playerCount());
+    }
+
+    /**
+     * A venit sau a plecat doar un spectator: locurile nu s-au schimbat, deci aflau doar jucatorii
+     * (si spectatorul nou, daca e). Altfel, la o partida urmarita de mii de spectatori, fiecare intrare
+     * ar ajunge la toti ceilalti: O(N^2) mesaje cat timp se aduna (sau se reconecteaza) publicul.
+     */
+    private void sendSpectatorCount(WebSocketSession newcomer) throws Exception {
+        Encoder enc = new Encoder(playerCount());
+        enc.sendTo(whitePlayer);
+        enc.sendTo(blackPlayer);
+        enc.sendTo(newcomer);
+    }
+
+    private PlayersUpdateMsg playerCount() {
+        // Engine-ul conteaza ca jucator conectat
+        return new PlayersUpdateMsg(whitePlayer != null || "WHITE".equals(engineColor),
+                blackPlayer != null || "BLACK".equals(engineColor), spectators.size());
+    }
+
+    private boolean isPlayer(WebSocketSession s) {
+        return s == whitePlayer || s == blackPlayer;
+    }
+
+    // Sesiunea a cerut protocolul binar la conectare?
+    private static boolean isBinary(WebSocketSession s) {
+        return BinaryCodec.SUBPROTOCOL.equals(s.getAcceptedProtocol());
+    }
+}
@@ -1,42 +1,62 @@
 package ro.chess.server.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.stereotype.Service;
 import ro.chess.server.dto.ErrorMsg;
 import ro.chess.server.dto.GameOverMsg;
+import ro.chess.server.dto.Message;
 import ro.chess.server.dto.MoveAppliedMsg;
-import ro.chess.server.model.GameState;
+import ro.chess.server.dto.MoveDeltaMsg;
+import ro.chess.server.engine.Tablebases;
+import ro.chess.server.model.Move;
+import ro.chess.server.model.MoveGenerator;
+import ro.chess.server.model.Position;
+import ro.chess.server.model.RepetitionTable;
+import ro.chess.server.model.UndoStack;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Serviciul principal care tine minte unde sunt piesele.
  * Aici se intampla toata "magia" jocului.
+ * Fiecare joc (GameRoom) are propria instanta.
+ *
+ * Cu tabele de finaluri (Tablebases), o partida ajunsa la 3 piese se incheie imediat cu rezultatul
+ * pe care il da jocul perfect: remiza, sau castig pentru cel care poate da mat.
  */
-@Service
 public class GameService {
 
-    // Asta e tabla noastra de sah. E o matrice de 8 pe 8.
-    // Daca un patrat e null, inseamna ca e gol.
-    // Daca are text (ex: "wK", "bQ"), inseamna ca e o piesa acolo.
-    // w = white (alb), b = black (negru)
-    // K=King (Rege), Q=Queen (Regina), R=Rook (Tura), B=Bishop (Nebun), N=Knight
-    // (Cal), P=Pawn (Pion)
-    private final String[][] board = new String[8][8];
+    // Asta e tabla noastra de sah, tinuta pe bitboard-uri (vezi Position).
+    // 12 numere pe 64 de biti, cate unul pentru fiecare tip de piesa,
+    // plus ocuparea si cine e la rand.
+    private final Position position = new Position();
 
-    // Tine minte al cui e randul.
-    // true = randul albului, false = randul negrului
-    private boolean whiteTurn = true;
+    // Buffer refolosit pentru generarea mutarilor (ca sa nu alocam la fiecare mutare)
+    private final int[] moveBuffer = new int[MoveGenerator.MAX_MOVES];
 
-    // Folosit pentru a trimite mesaje JSON (inteleger serverul cu clientul)
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Aici tinem minte mutarile ca sa putem da "Undo" (inapoi).
+    // Doar mutarea + ce nu se poate reconstrui (piesa capturata, rocade...), nu toata tabla.
+    private final UndoStack history = new UndoStack();
 
-    // Aici tinem minte mutarile ca sa putem da "Undo" (inapoi)
-    private final Deque<GameState> history = new ArrayDeque<>();
+    // De cate ori a aparut fiecare pozitie (dupa cheia Zobrist), pentru repetitia tripla
+    private final RepetitionTable repetitions = new RepetitionTable();
+
+    // Numarul de ordine al pozitiei: creste la fiecare schimbare (mutare, undo, reset).
+    // Clientii il folosesc ca sa-si dea seama daca au pierdut vreun MOVE_DELTA.
+    private long seq = 0;
+
+    // Cum s-a terminat partida (null = inca se joaca). Pana la reset sau undo nu mai primim mutari.
+    private GameOverMsg finished = null;
+
+    // Tabelele de finaluri pentru arbitraj (Tablebases.EMPTY = fara arbitraj)
+    private final Tablebases tablebases;
 
     public GameService() {
-        // Cand porneste serverul, aranjam piesele
+        this(Tablebases.EMPTY);
+    }
+
+    public GameService(Tablebases tablebases) {
+        this.tablebases = tablebases;
+        // Cand se creeaza jocul, aranjam piesele
         resetBoard();
     }
 
@@ -52,193 +72,247 @@ public class GameService {
      * Ne zice daca e randul albului.
      */
     public boolean isWhiteTurn() {
-        return whiteTurn;
+        return position.isWhiteTurn();
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    /**
+     * S-a terminat partida (mat, pat, remiza)? Se joaca din nou dupa reset sau undo.
+     */
+    public boolean isOver() {
+        return finished != null;
+    }
+
+    /**
+     * O copie a pozitiei curente (pentru engine, care cauta pe alt thread).
+     */
+    public Position copyPosition() {
+        Position copy = new Position();
+        copy.copyFrom(position);
+        return copy;
+    }
+
+    /**
+     * Cheile pozitiilor de dinainte, de la ultima mutare ireversibila (captura sau pion) incoace,
+     * de la cea mai veche la cea mai noua. Engine-ul le foloseste ca sa vada repetitiile.
+     */
+    public long[] recentKeys() {
+        int n = Math.min(position.getHalfmoveClock(), history.size());
+        long[] keys = new long[n];
+        Position p = copyPosition();
+        for (int i = 0; i < n; i++) {
+            int idx = history.size() - 1 - i;
+            p.unmakeMove(history.moveAt(idx), history.undoAt(idx));
+            keys[n - 1 - i] = p.getKey();
+        }
+        return keys;
+    }
+
+    /**
+     * Pozitia completa, pentru un client care s-a desincronizat (RESYNC).
+     */
+    public Message snapshot() {
+        return new MoveAppliedMsg(generateFen(), MoveGenerator.inCheck(position), seq);
     }
 
     /**
      * Reseteaza tot jocul de la zero.
      */
-    public String resetGame() throws Exception {
+    public Message resetGame() {
         resetBoard();
         history.clear(); // Stergem istoricul
+        finished = null;
+        seq++;
         // Trimitem noua stare la jucatori
-        return objectMapper.writeValueAsString(new MoveAppliedMsg(generateFen(), false));
+        return new MoveAppliedMsg(generateFen(), false, seq);
     }
 
     /**
      * Da o mutare inapoi (Undo).
      */
-    public String undoMove() throws Exception {
+    public Message undoMove() {
         if (history.isEmpty()) {
-            return objectMapper.writeValueAsString(new ErrorMsg("Nu am ce sa anulez!"));
+            return new ErrorMsg("Nu am ce sa anulez!");
         }
 
-        // Luam ultima stare salvata
-        GameState prev = history.pop();
-
-        // Punem piesele inapoi cum erau
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                board[r][c] = prev.getBoard()[r][c];
-            }
-        }
-        whiteTurn = prev.isWhiteTurn();
+        // Luam ultima mutare si o facem invers
+        repetitions.decrement(position.getKey());
+        position.unmakeMove(history.lastMove(), history.lastUndo());
+        history.pop();
+        finished = null;
+        seq++;
 
-        return objectMapper.writeValueAsString(new MoveAppliedMsg(generateFen(), false));
+        return snapshot();
     }
 
     /**
      * Functia care pune piesele la locurile lor de start.
      */
     private void resetBoard() {
-        // Mai intai stergem tot de pe tabla
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                board[r][c] = null;
-            }
-        }
-
-        // Punem piesele negre sus (randul 0 al matricei)
-        // Ordine: Tura, Cal, Nebun, Regina, Rege, Nebun, Cal, Tura
-        board[0][0] = "bR";
-        board[0][1] = "bN";
-        board[0][2] = "bB";
-        board[0][3] = "bQ";
-        board[0][4] = "bK";
-        board[0][5] = "bB";
-        board[0][6] = "bN";
-        board[0][7] = "bR";
-
-        // Punem pionii negri (randul 1 al matricei)
-        for (int c = 0; c < 8; c++) {
-            board[1][c] = "bP";
-        }
-
-        // Punem piesele albe jos (randul 7 al matricei)
-        board[7][0] = "wR";
-        board[7][1] = "wN";
-        board[7][2] = "wB";
-        board[7][3] = "wQ";
-        board[7][4] = "wK";
-        board[7][5] = "wB";
-        board[7][6] = "wN";
-        board[7][7] = "wR";
-
-        // Punem pionii albi (randul 6 al matricei)
-        for (int c = 0; c < 8; c++) {
-            board[6][c] = "wP";
-        }
-
-        // Albul incepe mereu
-        whiteTurn = true;
+        // Negrele sus (randurile 7-8), albele jos (randurile 1-2), albul incepe
+        position.reset();
+        repetitions.clear();
+        repetitions.increment(position.getKey());
     }
 
     /**
      * Aici se face mutarea propriu-zisa.
      * Primim de unde pleaca piesa (from) si unde ajunge (to).
-     * Ex: "e2" -> "e4"
+     * Ex: "e2" -> "e4". Pionii ajunsi pe ultimul rand devin regina.
      */
-    public String applyMove(String from, String to) throws Exception {
-        // Transformam coordonatele din text (a-h, 1-8) in numere pentru matrice (0-7)
-        // 'a' e 0, 'b' e 1 ...
-        int fromCol = from.charAt(0) - 'a';
-        // '8' e 0, '1' e 7 (matricea e invers fata de tabla standard)
-        int fromRow = 8 - Character.getNumericValue(from.charAt(1));
+    public Message applyMove(String from, String to) {
+        return applyMove(from, to, 'q');
+    }
 
-        int toCol = to.charAt(0) - 'a';
-        int toRow = 8 - Character.getNumericValue(to.charAt(1));
+    /**
+     * La fel ca mai sus, dar putem alege in ce se transforma pionul
+     * ('q' = regina, 'r' = tura, 'b' = nebun, 'n' = cal).
+     */
+    public Message applyMove(String from, String to, char promotion) {
+        if (finished != null) {
+            return new ErrorMsg("Partida s-a terminat (" + finished.getReason() + ")");
+        }
+
+        // Transformam coordonatele din text ("e2") in indexul patratului (0-63)
+        int fromSq = Position.parseSquare(from);
+        int toSq = Position.parseSquare(to);
 
         // Verificam sa nu iesim de pe tabla (sa nu dea eroare programul)
-        if (fromRow < 0 || fromRow > 7 || fromCol < 0 || fromCol > 7 ||
-                toRow < 0 || toRow > 7 || toCol < 0 || toCol > 7) {
-            return objectMapper.writeValueAsString(new ErrorMsg("Ai apasat in afara tablei!"));
+        if (fromSq < 0 || toSq < 0) {
+            return new ErrorMsg("Ai apasat in afara tablei!");
         }
 
         // Vedem ce piesa vrem sa mutam
-        String piece = board[fromRow][fromCol];
-        if (piece == null) {
-            return objectMapper.writeValueAsString(new ErrorMsg("Nu e nicio piesa acolo!"));
+        int piece = position.pieceAt(fromSq);
+        if (piece == Position.EMPTY) {
+            return new ErrorMsg("Nu e nicio piesa acolo!");
         }
 
         // Verificam daca e randul corect
-        boolean isWhitePiece = piece.startsWith("w");
-        if (isWhitePiece != whiteTurn) {
-            return objectMapper.writeValueAsString(new ErrorMsg("not your turn"));
+        boolean isWhitePiece = Position.isWhite(piece);
+        if (isWhitePiece != position.isWhiteTurn()) {
+            return new ErrorMsg("not your turn");
         }
 
-        // Vedem daca am capturat ceva (daca era o piesa la destinatie)
-        String captured = board[toRow][toCol];
-
-        // Salvam starea inainte de mutare (ca sa mearga butonul Undo)
-        history.push(new GameState(board, whiteTurn));
-
-        // MUTAREA PROPRIU-ZISA:
-        // 1. Punem piesa la destinatie
-        board[toRow][toCol] = piece;
-        // 2. Stergem piesa de unde a plecat
-        board[fromRow][fromCol] = null;
-
-        // Verificam daca s-a terminat jocul (daca am mancat un Rege)
-        if (captured != null && captured.endsWith("K")) {
-            String winner = isWhitePiece ? "ALBUL" : "NEGRUL";
-            String result = isWhitePiece ? "1-0" : "0-1";
-            // Trimitem mesaj ca s-a gata jocul
-            return objectMapper
-                    .writeValueAsString(new GameOverMsg("SAH MAT (Rege Capturat)", result, winner, generateFen()));
+        // Cautam mutarea printre mutarile legale (sah, piese legate, rocada, en passant...)
+        int move = findLegalMove(fromSq, toSq, promotion);
+        if (move == 0) {
+            return new ErrorMsg("Mutare ilegala!");
         }
 
-        // Schimbam randul
-        whiteTurn = !whiteTurn;
+        // MUTAREA PROPRIU-ZISA (muta si tura la rocada, scoate pionul la en passant etc.)
+        // si o salvam in istoric ca sa mearga butonul Undo
+        int undo = position.makeMove(move);
+        history.push(move, undo);
+        int seen = repetitions.increment(position.getKey());
+        seq++;
+
+        // Verificam daca s-a terminat jocul: cel care urmeaza nu mai are nicio mutare legala
+        boolean check = MoveGenerator.inCheck(position);
+        if (!MoveGenerator.hasLegalMove(position, moveBuffer)) {
+            if (check) {
+                String winner = isWhitePiece ? "ALBUL" : "NEGRUL";
+                String result = isWhitePiece ? "1-0" : "0-1";
+                return finish(new GameOverMsg("SAH MAT", result, winner, generateFen(), seq));
+            }
+            // Nu e in sah, dar nu poate muta -> pat (remiza)
+            return finish(new GameOverMsg("PAT", "1/2-1/2", null, generateFen(), seq));
+        }
 
-        // Trimitem noua configuratie la toata lumea
-        return objectMapper.writeValueAsString(new MoveAppliedMsg(generateFen(), false));
+        // Remize automate
+        String draw = null;
+        if (seen >= 3) {
+            draw = "REPETITIE TRIPLA";
+        } else if (position.getHalfmoveClock() >= 100) {
+            draw = "REGULA CELOR 50 DE MUTARI";
+        } else if (position.isInsufficientMaterial()) {
+            draw = "MATERIAL INSUFICIENT";
+        }
+        if (draw != null) {
+            return finish(new GameOverMsg(draw, "1/2-1/2", null, generateFen(), seq));
+        }
+
+        // Final cu 3 piese: rezultatul e deja cunoscut
+        int tb = tablebases.probe(position);
+        if (tb != Tablebases.NOT_FOUND) {
+            if (tb == 0) {
+                return finish(new GameOverMsg("REMIZA (TABELA DE FINALURI)", "1/2-1/2", null, generateFen(), seq));
+            }
+            // Cel la mutare castiga (tb > 0) sau pierde
+            boolean whiteWins = position.isWhiteTurn() == (tb > 0);
+            int moves = (Tablebases.plies(tb) + 1) / 2;
+            return finish(new GameOverMsg("MAT FORTAT IN " + moves + " (TABELA DE FINALURI)",
+                    whiteWins ? "1-0" : "0-1", whiteWins ? "ALBUL" : "NEGRUL", generateFen(), seq));
+        }
+
+        // Trimitem la toata lumea doar patratele care s-au schimbat
+        return new MoveDeltaMsg(
+                seq, Move.toUci(move), changedSquares(move), position.isWhiteTurn(), check);
+    }
+
+    // Tine minte rezultatul, ca partida sa nu continue dupa el
+    private GameOverMsg finish(GameOverMsg m) {
+        finished = m;
+        return m;
     }
 
     /**
-     * Functia asta transforma matricea noastra intr-un text scurt (FEN).
-     * Clientul (interfata grafica) are nevoie de textul asta ca sa deseneze piese.
+     * Patratele atinse de mutare (deja facuta) si ce e acum pe ele.
+     * De obicei 2; 3 la en passant, 4 la rocada.
      */
-    private String generateFen() {
-        StringBuilder fen = new StringBuilder();
-
-        // Luam fiecare rand la rand
-        for (int r = 0; r < 8; r++) {
-            int empty = 0; // Numaram cate patrate goale sunt
-
-            for (int c = 0; c < 8; c++) {
-                String piece = board[r][c];
-
-                if (piece == null) {
-                    empty++; // Inca un loc gol
-                } else {
-                    if (empty > 0) {
-                        fen.append(empty); // Scriem numarul de locuri goale
-                        empty = 0;
-                    }
-                    // Scriem litera piesei
-                    fen.append(pieceToFenChar(piece));
-                }
-            }
-
-            if (empty > 0) {
-                fen.append(empty);
+    private Map<String, String> changedSquares(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Map<String, String> changes = new LinkedHashMap<>();
+        addChange(changes, from);
+        addChange(changes, to);
+
+        switch (Move.flags(move)) {
+            case Move.KING_CASTLE -> {
+                addChange(changes, to + 1);
+                addChange(changes, to - 1);
             }
-
-            if (r < 7) {
-                fen.append("/"); // Separator de randuri
+            case Move.QUEEN_CASTLE -> {
+                addChange(changes, to - 2);
+                addChange(changes, to + 1);
             }
+            // Pionul capturat e in spatele patratului de sosire
+            case Move.EP_CAPTURE -> addChange(changes, to > from ? to - 8 : to + 8);
+            default -> { }
         }
+        return changes;
+    }
 
-        // Adaugam infomatii extra (cine e la rand etc)
-        fen.append(" ").append(whiteTurn ? "w" : "b").append(" - - 0 1");
+    private void addChange(Map<String, String> changes, int sq) {
+        changes.put(Position.squareName(sq), Position.pieceCode(position.pieceAt(sq)));
+    }
 
-        return fen.toString();
+    /**
+     * Gaseste mutarea legala from -> to. Returneaza 0 daca nu exista.
+     * (0 nu poate fi o mutare reala, ar insemna a1 -> a1.)
+     */
+    private int findLegalMove(int fromSq, int toSq, char promotion) {
+        int promoType = "nbrq".indexOf(Character.toLowerCase(promotion));
+        int n = MoveGenerator.generateLegal(position, moveBuffer);
+        for (int i = 0; i < n; i++) {
+            int m = moveBuffer[i];
+            if (Move.from(m) == fromSq && Move.to(m) == toSq) {
+                if (!Move.isPromotion(m) || (Move.flags(m) & 3) == promoType) {
+                    return m;
+                }
+            }
+        }
+        return 0;
     }
 
-    private char pieceToFenChar(String piece) {
-        boolean isWhite = piece.startsWith("w");
-        char type = piece.charAt(1);
-        // Piesele albe se scriu cu litere mari, alea negre cu mici
-        return isWhite ? Character.toUpperCase(type) : Character.toLowerCase(type);
+    /**
+     * Functia asta transforma pozitia noastra intr-un text scurt (FEN).
+     * Clientul (interfata grafica) are nevoie de textul asta ca sa deseneze piese.
+     */
+    private String generateFen() {
+        return position.toFen();
     }
 }
@@ -0,0 +1,212 @@
+package ro.chess.server.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * O sesiune WebSocket cu coada ei de mesaje de trimis.
+ *
+ * sendMessage() doar pune mesajul in coada si se intoarce imediat; trimiterea efectiva
+ * se face pe pool-ul de trimitere, cate un mesaj pe rand (deci ordinea se pastreaza),
+ * la fel ca mailbox-ul din GameRoom. Asa thread-ul jocului nu asteapta niciodata dupa retea,
+ * iar un spectator cu internet slab nu ii incetineste pe jucatori.
+ *
+ * Coada e limitata (vezi SendPolicy): daca se strang prea multi octeti sau o trimitere
+ * dureaza prea mult, fie aruncam tot ce era in coada si ii trimitem clientului doar
+ * pozitia curenta (SNAPSHOT), fie inchidem conexiunea (DISCONNECT).
+ * Dedesubt folosim ConcurrentWebSocketSessionDecorator, care ne apara in plus de
+ * trimiteri concurente pe aceeasi sesiune (ex: close() in timpul unei trimiteri).
+ */
+public class OutboundSession extends ConcurrentWebSocketSessionDecorator {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboundSession.class);
+
+    // Cate mesaje trimitem dintr-o tura inainte sa lasam thread-ul altor sesiuni
+    private static final int BATCH = 32;
+
+    private final Queue<WebSocketMessage<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedFrames = new AtomicInteger();
+    private final AtomicInteger queuedBytes = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final Executor executor;
+    private final SendPolicy policy;
+    private final SendMetrics metrics;
+
+    // Cine ne da pozitia curenta cand am aruncat coada (camera in care e sesiunea)
+    private Runnable onOverflow = () -> { };
+
+    // Cand a inceput trimiterea curenta (0 = nu trimitem nimic acum)
+    private volatile long sendStart;
+    // Am aruncat coada si asteptam pozitia completa; pana atunci ignoram restul mesajelor
+    private volatile boolean stale;
+    // Nu mai primim mesaje (client prea lent sau conexiune cazuta)
+    private volatile boolean closed;
+
+    public OutboundSession(WebSocketSession delegate, Executor executor, SendPolicy policy, SendMetrics metrics) {
+        super(delegate, policy.getSendTimeLimit(), policy.getBufferSizeLimit());
+        this.executor = executor;
+        this.policy = policy;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Ce facem cand coada trebuie inlocuita cu pozitia curenta (politica SNAPSHOT).
+     * Trebuie sa ajunga, mai devreme sau mai tarziu, la sendSnapshot().
+     */
+    public void setOnOverflow(Runnable onOverflow) {
+        this.onOverflow = onOverflow;
+    }
+
+    /**
+     * Pune mesajul in coada. Nu blocheaza si nu arunca exceptii de retea.
+     */
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closed || !isOpen()) {
+            return;
+        }
+        if (stale) {
+            // Oricum urmeaza pozitia completa, care il include
+            metrics.rejected();
+            return;
+        }
+        enqueue(message);
+
+        long start = sendStart;
+        if (queuedBytes.get() > policy.getBufferSizeLimit()) {
+            overflow("coada are " + queuedBytes.get() + " octeti", start);
+        } else if (start != 0 && System.currentTimeMillis() - start > policy.getSendTimeLimit()) {
+            overflow("trimiterea dureaza de " + (System.currentTimeMillis() - start) + " ms", start);
+        } else {
+            schedule();
+        }
+    }
+
+    /**
+     * Pozitia completa dupa un overflow: inlocuieste tot ce mai era in coada.
+     */
+    public void sendSnapshot(WebSocketMessage<?> message) {
+        if (closed || !isOpen()) {
+            return;
+        }
+        dropQueue();
+        stale = false;
+        enqueue(message);
+        schedule();
+    }
+
+    /**
+     * Cate mesaje asteapta sa fie trimise.
+     */
+    public int getQueuedFrames() {
+        return queuedFrames.get();
+    }
+
+    /**
+     * Cati octeti asteapta sa fie trimisi.
+     */
+    public int getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    private void enqueue(WebSocketMessage<?> message) {
+        int bytes = message.getPayloadLength();
+        queue.add(message);
+        queuedBytes.addAndGet(bytes);
+        metrics.queued(1, bytes, queuedFrames.incrementAndGet());
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < BATCH && !closed; i++) {
+                WebSocketMessage<?> m = queue.poll();
+                if (m == null) {
+                    break;
+                }
+                int bytes = m.getPayloadLength();
+                queuedFrames.decrementAndGet();
+                queuedBytes.addAndGet(-bytes);
+                metrics.sent(bytes);
+                sendStart = System.currentTimeMillis();
+                try {
+                    super.sendMessage(m);
+                } finally {
+                    sendStart = 0;
+                }
+            }
+        } catch (Exception e) {
+            // Conexiunea a cazut intre timp; afterConnectionClosed va face curatenia
+            log.debug("Trimitere esuata catre {}: {}", getId(), e.toString());
+            closed = true;
+            dropQueue();
+        }
+        scheduled.set(false);
+        if (!queue.isEmpty() && !closed) {
+            schedule();
+        }
+    }
+
+    // Scoate tot din coada (poll, ca sa nu numaram de doua ori ce trimite drain() in paralel)
+    private void dropQueue() {
+        int frames = 0;
+        int bytes = 0;
+        WebSocketMessage<?> m;
+        while ((m = queue.poll()) != null) {
+            frames++;
+            bytes += m.getPayloadLength();
+        }
+        if (frames > 0) {
+            queuedFrames.addAndGet(-frames);
+            queuedBytes.addAndGet(-bytes);
+            metrics.dropped(frames, bytes);
+        }
+    }
+
+    private void overflow(String motiv, long sendStart) {
+        boolean dead = sendStart != 0 && System.currentTimeMillis() - sendStart > policy.getDisconnectAfter();
+        if (policy.getOverflow() == SendPolicy.Overflow.DISCONNECT || dead) {
+            closeSlow(motiv);
+            return;
+        }
+        log.debug("Sesiunea {} ramane in urma ({}), ii trimitem doar pozitia curenta", getId(), motiv);
+        stale = true;
+        dropQueue();
+        metrics.snapshot();
+        onOverflow.run();
+    }
+
+    private void closeSlow(String motiv) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        log.info("Inchid sesiunea {}: client prea lent ({})", getId(), motiv);
+        dropQueue();
+        metrics.disconnect();
+        // close() trimite si el un frame, deci poate astepta dupa trimiterea blocata; nu pe thread-ul jocului
+        executor.execute(() -> {
+            try {
+                getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                log.debug("Nu am putut inchide sesiunea {}: {}", getId(), e.toString());
+            }
+        });
+    }
+}
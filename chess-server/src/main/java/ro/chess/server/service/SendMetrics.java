@@ -0,0 +1,75 @@
+package ro.chess.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrici pentru cozile de trimitere (vezi OutboundSession), publicate prin Micrometer:
+ * GET /actuator/metrics/chess.ws.queue.frames etc.
+ *
+ *   chess.ws.queue.frames / chess.ws.queue.bytes - cat asteapta acum in toate cozile
+ *   chess.ws.queue.max.frames                    - cea mai lunga coada vazuta (de la pornire)
+ *   chess.ws.frames.dropped                      - mesaje aruncate pentru clienti lenti
+ *   chess.ws.snapshots                           - de cate ori am inlocuit coada cu pozitia curenta
+ *   chess.ws.disconnects                         - conexiuni inchise pentru ca erau prea lente
+ */
+@Component
+public class SendMetrics {
+
+    private final AtomicLong queuedFrames = new AtomicLong();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicLong maxFrames = new AtomicLong();
+    private final Counter dropped;
+    private final Counter snapshots;
+    private final Counter disconnects;
+
+    public SendMetrics(MeterRegistry registry) {
+        Gauge.builder("chess.ws.queue.frames", queuedFrames, AtomicLong::get)
+                .description("Mesaje care asteapta sa fie trimise, pe toate conexiunile")
+                .register(registry);
+        Gauge.builder("chess.ws.queue.bytes", queuedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("chess.ws.queue.max.frames", maxFrames, AtomicLong::get)
+                .description("Cea mai lunga coada a unei singure conexiuni")
+                .register(registry);
+        dropped = Counter.builder("chess.ws.frames.dropped").register(registry);
+        snapshots = Counter.builder("chess.ws.snapshots").register(registry);
+        disconnects = Counter.builder("chess.ws.disconnects").register(registry);
+    }
+
+    void queued(int frames, int bytes, int sessionDepth) {
+        queuedFrames.addAndGet(frames);
+        queuedBytes.addAndGet(bytes);
+        maxFrames.accumulateAndGet(sessionDepth, Math::max);
+    }
+
+    void sent(int bytes) {
+        queuedFrames.decrementAndGet();
+        queuedBytes.addAndGet(-bytes);
+    }
+
+    // Mesaje scoase din coada fara sa fie trimise
+    void dropped(int frames, int bytes) {
+        queuedFrames.addAndGet(-frames);
+        queuedBytes.addAndGet(-bytes);
+        dropped.increment(frames);
+    }
+
+    // Mesaj aruncat inainte sa intre in coada
+    void rejected() {
+        dropped.increment();
+    }
+
+    void snapshot() {
+        snapshots.increment();
+    }
+
+    void disconnect() {
+        disconnects.increment();
+    }
+}
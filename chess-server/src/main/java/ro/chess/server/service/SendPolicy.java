@@ -0,0 +1,59 @@
+package ro.chess.server.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limitele cozii de trimitere a fiecarei conexiuni si ce facem cand un client nu mai tine pasul.
+ * Valorile vin din application.properties (chess.ws.*).
+ */
+@Component
+public class SendPolicy {
+
+    public enum Overflow {
+        // Aruncam mutarile ramase in coada si ii trimitem clientului doar pozitia curenta
+        SNAPSHOT,
+        // Inchidem conexiunea
+        DISCONNECT
+    }
+
+    private final int sendTimeLimit;
+    private final int bufferSizeLimit;
+    private final Overflow overflow;
+    private final int disconnectAfter;
+
+    public SendPolicy(@Value("${chess.ws.send-time-limit-ms:10000}") int sendTimeLimit,
+                      @Value("${chess.ws.buffer-size-limit:524288}") int bufferSizeLimit,
+                      @Value("${chess.ws.overflow:SNAPSHOT}") Overflow overflow,
+                      @Value("${chess.ws.disconnect-after-ms:60000}") int disconnectAfter) {
+        this.sendTimeLimit = sendTimeLimit;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.overflow = overflow;
+        this.disconnectAfter = disconnectAfter;
+    }
+
+    /**
+     * Cat poate dura o singura trimitere (ms) pana consideram clientul lent.
+     */
+    public int getSendTimeLimit() {
+        return sendTimeLimit;
+    }
+
+    /**
+     * Cati octeti pot astepta in coada unei conexiuni.
+     */
+    public int getBufferSizeLimit() {
+        return bufferSizeLimit;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * Chiar si cu SNAPSHOT, o trimitere blocata mai mult de atat (ms) inseamna conexiune moarta.
+     */
+    public int getDisconnectAfter() {
+        return disconnectAfter;
+    }
+}